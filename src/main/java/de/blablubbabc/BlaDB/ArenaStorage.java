@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Location;
+
+import de.blablubbabc.paintball.statistics.arena.ArenaSetting;
+import de.blablubbabc.paintball.statistics.arena.ArenaStat;
+
+/**
+ * The stored arenas, with their settings, stats and spawns, and the lobby spawns.
+ */
+public interface ArenaStorage {
+
+	// GET
+
+	public List<String> getAllArenaNames();
+
+	public Map<ArenaStat, Integer> getArenaStats(String arena);
+
+	public Map<ArenaSetting, Integer> getArenaSettings(String arena);
+
+	public boolean isArenaExisting(String arena);
+
+	public boolean isArenaActive(String arena);
+
+	public int getRedspawnsSize(String arena);
+
+	public int getBluespawnsSize(String arena);
+
+	public int getSpecspawnsSize(String arena);
+
+	public int getLobbyspawnsSize();
+
+	public List<Location> getRedspawns(String arena);
+
+	public List<Location> getBluespawns(String arena);
+
+	public List<Location> getSpecspawns(String arena);
+
+	public List<Location> getLobbyspawns();
+
+	// SET
+
+	public void setArenaActive(String arena);
+
+	public void setArenaNotActive(String arena);
+
+	public void addArenaStats(String arena, Map<ArenaStat, Integer> stats);
+
+	public void setArenaStats(String arena, Map<ArenaStat, Integer> stats);
+
+	public void setArenaSettings(String arena, Map<ArenaSetting, Integer> settings);
+
+	// REMOVE
+
+	public void removeArena(String arena);
+
+	public void removeRedspawns(String arena);
+
+	public void removeBluespawns(String arena);
+
+	public void removeSpecspawns(String arena);
+
+	public void removeLobbyspawns();
+
+	// ADD NEW
+
+	public void addNewArena(String arena);
+
+	public void addLobbyspawn(Location loc);
+
+	public void addRedspawn(Location loc, String arena);
+
+	public void addBluespawn(Location loc, String arena);
+
+	public void addSpecspawn(Location loc, String arena);
+}
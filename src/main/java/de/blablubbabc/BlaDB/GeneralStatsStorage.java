@@ -0,0 +1,24 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import java.util.Map;
+
+import de.blablubbabc.paintball.statistics.general.GeneralStat;
+
+/**
+ * The stored general stats of the server.
+ */
+public interface GeneralStatsStorage {
+
+	public Map<GeneralStat, Integer> getStats();
+
+	public void addStats(Map<GeneralStat, Integer> stats);
+
+	public void setStats(Map<GeneralStat, Integer> stats);
+
+	// adds the stats of an ended match, and updates the average and maximum number of players
+	public void addStatsMatchEnd(Map<GeneralStat, Integer> stats, int playerAmount);
+}
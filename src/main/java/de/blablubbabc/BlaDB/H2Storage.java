@@ -0,0 +1,24 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import java.io.File;
+
+/**
+ * A storage in an embedded H2 database file, in H2's MySQL compatibility mode. The H2 driver is not
+ * provided by the server, and has to be added to the server's classpath.
+ */
+public class H2Storage extends JdbcStorage {
+
+	public H2Storage(File dataFolder, int busyTimeoutMillis, int readConnections) {
+		// H2 appends its own file extension:
+		this("jdbc:h2:file:" + new File(dataFolder, "pbdata_130").getAbsolutePath(), busyTimeoutMillis, readConnections);
+	}
+
+	// url: without the settings of the compatibility mode
+	public H2Storage(String url, int busyTimeoutMillis, int readConnections) {
+		super(StorageType.H2, url + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=" + busyTimeoutMillis, null, null, readConnections, busyTimeoutMillis);
+	}
+}
@@ -0,0 +1,383 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map.Entry;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import de.blablubbabc.paintball.utils.Log;
+
+/**
+ * A storage in a SQL database, accessed through one writer connection, and optionally a few read
+ * connections. The subclasses connect to the different databases.
+ */
+public abstract class JdbcStorage implements Storage {
+
+	private final StorageType storageType;
+	private final String url;
+	private final String user;
+	private final String password;
+	private Connection connection;
+	// prepared statements of the current connection:
+	private final PreparedStatementCache preparedStatements = new PreparedStatementCache(64);
+
+	// how long a connection waits for a locked database
+	private final int busyTimeoutMillis;
+
+	// read-only connections, used next to the writer connection (null if disabled):
+	private final ReadConnectionPool readPool;
+
+	// commit latency measurement:
+	private long commitCount = 0L;
+	private long commitNanosTotal = 0L;
+	private long commitNanosMax = 0L;
+
+	private SQLArenaLobby arenas;
+	private SQLPlayers players;
+	private SQLGeneralStats generalStats;
+
+	protected JdbcStorage(StorageType storageType, String url, String user, String password, int readConnections, int busyTimeoutMillis) {
+		this.storageType = storageType;
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.busyTimeoutMillis = busyTimeoutMillis;
+		this.readPool = (readConnections > 0 ? new ReadConnectionPool(this, readConnections) : null);
+	}
+
+	// loads the driver of the given storage type, returns false if it is missing
+	public static boolean loadDriver(StorageType storageType) {
+		try {
+			Class.forName(storageType.getDriverClass());
+			return true;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public StorageType getStorageType() {
+		return storageType;
+	}
+
+	public int getBusyTimeoutMillis() {
+		return busyTimeoutMillis;
+	}
+
+	// This creates the database (if needed) and the tables:
+	@Override
+	public boolean open() {
+		this.refreshConnection();
+		if (!this.isConnected()) return false;
+		arenas = new SQLArenaLobby(this);
+		players = new SQLPlayers(this);
+		generalStats = new SQLGeneralStats(this);
+		return true;
+	}
+
+	@Override
+	public PlayerStorage getPlayers() {
+		return players;
+	}
+
+	@Override
+	public ArenaStorage getArenas() {
+		return arenas;
+	}
+
+	@Override
+	public GeneralStatsStorage getGeneralStats() {
+		return generalStats;
+	}
+
+	@Override
+	public synchronized void close() {
+		if (readPool != null) readPool.close();
+		this.closePreparedStatements();
+		try {
+			if (isConnected()) connection.close();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	public boolean isConnected() {
+		try {
+			return connection != null && !connection.isClosed();
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	public synchronized void refreshConnection() {
+		if (!isConnected()) {
+			// statements of a previous connection can't be reused:
+			this.closePreparedStatements();
+			if (!initialise()) return;
+			this.configureConnection(connection);
+			// open the readers after the writer has set up the database:
+			if (readPool != null) {
+				readPool.close();
+				readPool.open();
+			}
+		}
+	}
+
+	protected Connection connect() throws SQLException {
+		if (user != null) {
+			return DriverManager.getConnection(url, user, password);
+		} else {
+			return DriverManager.getConnection(url);
+		}
+	}
+
+	// applies the settings of the storage to a new writer connection
+	protected void configureConnection(Connection connection) {
+	}
+
+	// opens a new connection for the read connection pool
+	Connection openReadConnection() throws SQLException {
+		Connection readConnection = this.connect();
+		readConnection.setReadOnly(true);
+		return readConnection;
+	}
+
+	@Override
+	public void startMaintenanceTask(Plugin plugin, int intervalSeconds) {
+	}
+
+	private boolean initialise() {
+		try {
+			connection = this.connect();
+			return true;
+		} catch (SQLException ex) {
+			Log.severe("ERROR: SQL Exception!", true);
+			ex.printStackTrace();
+		}
+		return false;
+	}
+
+	// returns the number of changed rows
+	public synchronized int updateQueryRaw(String query) throws SQLException {
+		this.refreshConnection();
+		Statement statement = this.connection.createStatement();
+		try {
+			return statement.executeUpdate(query);
+		} finally {
+			statement.close();
+		}
+	}
+
+	public synchronized int updateQuery(String query) {
+		try {
+			return this.updateQueryRaw(query);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return -1;
+		}
+	}
+
+	@Override
+	public synchronized void runTransaction(Transaction transaction) throws SQLException {
+		this.refreshConnection();
+		boolean auto = this.connection.getAutoCommit();
+		this.connection.setAutoCommit(false);
+		try {
+			transaction.run();
+			this.commitRaw();
+		} catch (SQLException | RuntimeException e) {
+			this.rollback();
+			throw e;
+		} finally {
+			if (this.isConnected()) this.connection.setAutoCommit(auto);
+		}
+	}
+
+	private void commitRaw() throws SQLException {
+		long start = System.nanoTime();
+		this.connection.commit();
+		long duration = System.nanoTime() - start;
+		commitCount++;
+		commitNanosTotal += duration;
+		if (duration > commitNanosMax) commitNanosMax = duration;
+	}
+
+	private void rollback() {
+		try {
+			this.connection.rollback();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
+	// the storage type and its settings, for the commit latency info
+	protected String getDescription() {
+		return storageType.name();
+	}
+
+	@Override
+	public synchronized String getCommitLatencyInfo() {
+		String info = "Database: " + this.getDescription() + ", commits: " + commitCount;
+		if (commitCount > 0) {
+			info += ", average: " + (commitNanosTotal / commitCount / 1000L) + " us, max: " + (commitNanosMax / 1000L) + " us";
+		}
+		return info;
+	}
+
+	// PREPARED STATEMENTS
+	// Prepared statements get cached per query string and connection, and are reused by later
+	// calls. Values get bound as parameters ('?') instead of being inlined into the query.
+
+	// removes the statement from the cache while it is in use
+	private synchronized PreparedStatement takePreparedStatement(String query) throws SQLException {
+		this.refreshConnection();
+		return preparedStatements.take(this.connection, query);
+	}
+
+	private synchronized void releasePreparedStatement(String query, PreparedStatement statement) {
+		preparedStatements.release(this.connection, query, statement);
+	}
+
+	private void closePreparedStatements() {
+		preparedStatements.close();
+	}
+
+	private void bindParameters(PreparedStatement statement, Object... parameters) throws SQLException {
+		for (int i = 0; i < parameters.length; i++) {
+			statement.setObject(i + 1, parameters[i]);
+		}
+	}
+
+	// returns the number of changed rows
+	public synchronized int updatePreparedRaw(String query, Object... parameters) throws SQLException {
+		PreparedStatement statement = this.takePreparedStatement(query);
+		try {
+			this.bindParameters(statement, parameters);
+			return statement.executeUpdate();
+		} finally {
+			this.releasePreparedStatement(query, statement);
+		}
+	}
+
+	public synchronized int updatePrepared(String query, Object... parameters) {
+		try {
+			return this.updatePreparedRaw(query, parameters);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return -1;
+		}
+	}
+
+	// returns the generated key of the inserted row
+	// these statements don't get cached, because they have to be prepared to return generated keys
+	public synchronized int insertPreparedRaw(String query, Object... parameters) throws SQLException {
+		this.refreshConnection();
+		PreparedStatement statement = this.connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+		try {
+			this.bindParameters(statement, parameters);
+			statement.executeUpdate();
+			ResultSet keys = statement.getGeneratedKeys();
+			int row = (keys != null && keys.next()) ? keys.getInt(1) : 0;
+			if (keys != null) keys.close();
+			return row;
+		} finally {
+			statement.close();
+		}
+	}
+
+	public synchronized int insertPrepared(String query, Object... parameters) {
+		try {
+			return this.insertPreparedRaw(query, parameters);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return -1;
+		}
+	}
+
+	// the statement gets returned to the cache once the result is closed
+	public synchronized Result resultPrepared(String query, Object... parameters) {
+		try {
+			PreparedStatement statement = this.takePreparedStatement(query);
+			try {
+				this.bindParameters(statement, parameters);
+				ResultSet result = statement.executeQuery();
+				return new Result(statement, result, () -> this.releasePreparedStatement(query, statement));
+			} catch (SQLException e) {
+				this.releasePreparedStatement(query, statement);
+				throw e;
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	// Runs the given parameterized query on one of the read connections, so that it doesn't have to
+	// wait for running writes. Falls back to the writer connection if there are no read connections,
+	// or none gets idle in time. The main thread doesn't wait for a read connection at all.
+	// The results don't include changes of uncommitted transactions.
+	public Result readQuery(String query, Object... parameters) {
+		if (readPool != null && readPool.isOpen()) {
+			// without a server (in tests), there is no main thread:
+			boolean mainThread = (Bukkit.getServer() != null && Bukkit.isPrimaryThread());
+			long timeoutMillis = mainThread ? 0L : busyTimeoutMillis + 1000L;
+			try {
+				Result result = readPool.resultPrepared(timeoutMillis, query, parameters);
+				if (result != null) return result;
+			} catch (SQLException e) {
+				e.printStackTrace();
+				return null;
+			}
+		}
+		return this.resultPrepared(query, parameters);
+	}
+
+	public synchronized Result resultQuery(String query) {
+		this.refreshConnection();
+		try {
+			Statement statement = this.connection.createStatement();
+			ResultSet result = statement.executeQuery(query);
+
+			return new Result(statement, result);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	// ///////////////////////////
+	// PAINTBALL SPECIFIC
+
+	public void createDefaultTable(String name, String query, String indexOn) {
+		if (indexOn != null && !storageType.supportsCreateIndexIfNotExists()) {
+			// declare the unique index together with the table:
+			this.updateQuery("CREATE TABLE IF NOT EXISTS " + name + "(" + query + ", UNIQUE (" + indexOn + "));");
+			return;
+		}
+		this.updateQuery("CREATE TABLE IF NOT EXISTS " + name + "(" + query + ");");
+		if (indexOn != null) {
+			// without the quotes of a quoted column:
+			String indexName = name + "_" + indexOn.replaceAll("\\W", "");
+			this.updateQuery("CREATE UNIQUE INDEX IF NOT EXISTS " + indexName + " ON " + name + "(" + indexOn + ");");
+		}
+	}
+
+	public void createDefaultTable(String name, HashMap<String, String> content, String indexOn) {
+		String query = "";
+		for (Entry<String, String> entry : content.entrySet()) {
+			query += entry.getKey() + " " + entry.getValue().toUpperCase() + ", ";
+		}
+		if (query.length() > 2) {
+			query = query.substring(0, query.length() - 2);
+			this.createDefaultTable(name, query, indexOn);
+		}
+	}
+}
@@ -0,0 +1,20 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+/**
+ * A storage on a MySQL database server.
+ */
+public class MySQLStorage extends JdbcStorage {
+
+	public MySQLStorage(String host, int port, String database, String user, String password, int busyTimeoutMillis, int readConnections) {
+		this("jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false", user, password, busyTimeoutMillis, readConnections);
+	}
+
+	// url: for servers which can't be reached through host and port alone
+	public MySQLStorage(String url, String user, String password, int busyTimeoutMillis, int readConnections) {
+		super(StorageType.MYSQL, url, user, password, readConnections, busyTimeoutMillis);
+	}
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import de.blablubbabc.paintball.statistics.player.LeaderboardEntry;
+import de.blablubbabc.paintball.statistics.player.PlayerStat;
+
+/**
+ * The stored players and their stats.
+ */
+public interface PlayerStorage {
+
+	// GET
+
+	public int getRank(UUID playerUUID, PlayerStat stat);
+
+	public int getPlayerCount();
+
+	public int getPlayersEverPlayedCount();
+
+	public boolean isPlayerExisting(UUID playerUUID);
+
+	// empty if the player is not existing
+	public Map<PlayerStat, Integer> getPlayerStats(UUID playerUUID);
+
+	// the stat values of all players, by stat ordinal
+	public Map<UUID, int[]> getAllPlayerStatValues();
+
+	// sorted by the given stat, the best first
+	public List<LeaderboardEntry> getTopEntries(PlayerStat stat, int limit);
+
+	// SET
+
+	public void addPlayerStats(UUID playerUUID, Map<PlayerStat, Integer> stats);
+
+	public void setPlayerStats(UUID playerUUID, Map<PlayerStat, Integer> stats);
+
+	public void updatePlayerStats(UUID playerUUID, Map<PlayerStat, Integer> addStats, Map<PlayerStat, Integer> setStats);
+
+	// Adds the deltas of the first map, and sets the values of the second map, in one update. A stat
+	// can't be in both maps.
+	public void updatePlayerStatsRaw(UUID playerUUID, Map<PlayerStat, Integer> addStats, Map<PlayerStat, Integer> setStats) throws SQLException;
+
+	public void resetAllPlayerStats();
+
+	public void resetPlayerStats(UUID playerUUID);
+
+	// REMOVE
+
+	public void removePlayer(UUID playerUUID);
+
+	// ADD NEW
+
+	// adds the player if needed, and updates its name
+	public void initPlayer(UUID playerUUID, String playerName);
+}
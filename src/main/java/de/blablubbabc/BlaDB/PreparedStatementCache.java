@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The prepared statements of one connection, keyed by their query string. Statements are removed
+ * from the cache while they are in use, and the least recently used statements get closed once the
+ * cache is full, so that queries built from varying columns can't fill it.
+ * <p>
+ * Not thread-safe: the users synchronize the access themselves.
+ */
+class PreparedStatementCache {
+
+	private final Map<String, PreparedStatement> statements;
+
+	PreparedStatementCache(final int capacity) {
+		this.statements = new LinkedHashMap<String, PreparedStatement>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+				if (this.size() <= capacity) return false;
+				closeStatement(eldest.getValue());
+				return true;
+			}
+		};
+	}
+
+	int size() {
+		return statements.size();
+	}
+
+	// returns the cached statement for the query, or prepares a new one
+	PreparedStatement take(Connection connection, String query) throws SQLException {
+		PreparedStatement statement = statements.remove(query);
+		if (statement == null || statement.isClosed()) {
+			statement = connection.prepareStatement(query);
+		}
+		return statement;
+	}
+
+	void release(Connection connection, String query, PreparedStatement statement) {
+		try {
+			// only keep statements of the given connection, and one per query:
+			if (!statement.isClosed() && statement.getConnection() == connection && !statements.containsKey(query)) {
+				statement.clearParameters();
+				statements.put(query, statement);
+			} else {
+				statement.close();
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
+	void close() {
+		for (PreparedStatement statement : statements.values()) {
+			closeStatement(statement);
+		}
+		statements.clear();
+	}
+
+	private static void closeStatement(PreparedStatement statement) {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+}
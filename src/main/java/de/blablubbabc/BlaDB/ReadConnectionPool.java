@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import de.blablubbabc.paintball.utils.Log;
+
+/**
+ * A small pool of read-only connections, which are used next to the single writer connection of
+ * {@link JdbcStorage}, so that lookups don't have to wait for running writes. For SQLite this only
+ * makes sense for a database in WAL mode: with a rollback journal, readers and the writer block
+ * each other anyways.
+ */
+class ReadConnectionPool {
+
+	private static class ReadConnection {
+
+		private final Connection connection;
+		// prepared statements of this connection:
+		private final PreparedStatementCache preparedStatements = new PreparedStatementCache(64);
+
+		private ReadConnection(Connection connection) {
+			this.connection = connection;
+		}
+
+		private void close() {
+			preparedStatements.close();
+			try {
+				connection.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private final JdbcStorage storage;
+	private final int size;
+
+	private final List<ReadConnection> connections = new ArrayList<ReadConnection>();
+	private final BlockingQueue<ReadConnection> idle;
+	private boolean open = false;
+
+	ReadConnectionPool(JdbcStorage storage, int size) {
+		this.storage = storage;
+		this.size = size;
+		this.idle = new ArrayBlockingQueue<ReadConnection>(size);
+	}
+
+	synchronized boolean isOpen() {
+		return open;
+	}
+
+	synchronized void open() {
+		if (open) return;
+		try {
+			for (int i = 0; i < size; i++) {
+				Connection connection = storage.openReadConnection();
+				ReadConnection readConnection = new ReadConnection(connection);
+				connections.add(readConnection);
+				idle.add(readConnection);
+			}
+			open = true;
+		} catch (SQLException e) {
+			Log.severe("Could not open the read connections. Reading from the writer connection now.");
+			e.printStackTrace();
+			this.close();
+		}
+	}
+
+	// connections which are currently in use get closed once they are released
+	synchronized void close() {
+		open = false;
+		for (ReadConnection readConnection : idle) {
+			readConnection.close();
+		}
+		idle.clear();
+		connections.clear();
+	}
+
+	// Waits up to the given time for an idle read connection. Returns null if there is none.
+	Result resultPrepared(long timeoutMillis, String query, Object... parameters) throws SQLException {
+		final ReadConnection readConnection;
+		try {
+			readConnection = (timeoutMillis <= 0L ? idle.poll() : idle.poll(timeoutMillis, TimeUnit.MILLISECONDS));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a read connection.");
+		}
+		if (readConnection == null) return null;
+
+		PreparedStatement statement = null;
+		try {
+			statement = readConnection.preparedStatements.take(readConnection.connection, query);
+			for (int i = 0; i < parameters.length; i++) {
+				statement.setObject(i + 1, parameters[i]);
+			}
+			ResultSet result = statement.executeQuery();
+			final PreparedStatement usedStatement = statement;
+			return new Result(statement, result, () -> this.release(readConnection, query, usedStatement));
+		} catch (SQLException e) {
+			this.release(readConnection, query, statement);
+			throw e;
+		}
+	}
+
+	private synchronized void release(ReadConnection readConnection, String query, PreparedStatement statement) {
+		if (statement != null) {
+			readConnection.preparedStatements.release(readConnection.connection, query, statement);
+		}
+
+		if (open && connections.contains(readConnection)) {
+			idle.add(readConnection);
+		} else {
+			// the pool got closed in the meantime:
+			readConnection.close();
+		}
+	}
+}
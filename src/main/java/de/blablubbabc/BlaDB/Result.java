@@ -13,19 +13,32 @@ public class Result {
 	private ResultSet resultSet;
 	private Statement statement;
 
+	// set for results of cached statements, which don't get closed:
+	private Runnable release = null;
+
 	public Result(Statement statement, ResultSet resultSet) {
 		this.statement = statement;
 		this.resultSet = resultSet;
 	}
 
+	Result(Statement statement, ResultSet resultSet, Runnable release) {
+		this(statement, resultSet);
+		this.release = release;
+	}
+
 	public ResultSet getResultSet() {
 		return this.resultSet;
 	}
 
 	public void close() {
 		try {
-			this.statement.close();
 			this.resultSet.close();
+			if (release != null) {
+				// return the statement to its cache:
+				release.run();
+			} else {
+				this.statement.close();
+			}
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
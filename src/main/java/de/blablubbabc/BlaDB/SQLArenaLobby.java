@@ -21,23 +21,25 @@ import de.blablubbabc.paintball.statistics.arena.ArenaSetting;
 import de.blablubbabc.paintball.statistics.arena.ArenaStat;
 import de.blablubbabc.paintball.utils.Log;
 
-public class SQLArenaLobby {
+public class SQLArenaLobby implements ArenaStorage {
 
-	private static BlaSQLite sql;
+	private final JdbcStorage sql;
+	private final StorageType storageType;
 
-	public SQLArenaLobby(BlaSQLite blasql) {
-		sql = blasql;
+	public SQLArenaLobby(JdbcStorage sql) {
+		this.sql = sql;
+		storageType = sql.getStorageType();
 
 		createDefaultTables();
 	}
 
 	private void createDefaultTables() {
 		// arenas
-		String arenasQuery = "name TEXT, active INTEGER";
+		String arenasQuery = "name " + storageType.keyTextType() + ", active INTEGER";
 		sql.createDefaultTable("arenas", arenasQuery, "name");
 		// arenasettings
 		HashMap<String, String> arenasettings = new HashMap<String, String>();
-		arenasettings.put("name", "TEXT");
+		arenasettings.put("name", storageType.keyTextType());
 		for (String key : ArenaSetting.getKeys()) {
 			arenasettings.put(key, "INTEGER");
 		}
@@ -45,14 +47,14 @@ public class SQLArenaLobby {
 
 		// arenastats
 		HashMap<String, String> arenastats = new HashMap<String, String>();
-		arenastats.put("name", "TEXT");
+		arenastats.put("name", storageType.keyTextType());
 		for (String key : ArenaStat.getKeys()) {
 			arenastats.put(key, "INTEGER");
 		}
 		sql.createDefaultTable("arenastats", arenastats, "name");
 
 		// locations
-		String locationsQuery = "id INTEGER PRIMARY KEY, world TEXT, x INTEGER, y INTEGER, z INTEGER, yaw REAL, pitch REAL";
+		String locationsQuery = "id " + storageType.autoIncrementKey() + ", world TEXT, x INTEGER, y INTEGER, z INTEGER, yaw REAL, pitch REAL";
 		sql.createDefaultTable("locations", locationsQuery, null);
 
 		// red/blue/spec/lobby spawns
@@ -66,7 +68,7 @@ public class SQLArenaLobby {
 
 		// INIT RESET
 		for (String arena : this.getAllArenaNames()) {
-			sql.updateQuery("UPDATE OR IGNORE arenas SET active=0 WHERE name='" + arena + "';");
+			sql.updatePrepared(storageType.update() + " arenas SET active=0 WHERE name=?;", arena);
 		}
 	}
 
@@ -75,7 +77,7 @@ public class SQLArenaLobby {
 	public List<String> getAllArenaNames() {
 		List<String> arenas = new ArrayList<String>();
 
-		Result r = sql.resultQuery("SELECT name FROM arenas;");
+		Result r = sql.readQuery("SELECT name FROM arenas;");
 		ResultSet rs = r.getResultSet();
 		try {
 			if (rs != null) {
@@ -93,7 +95,7 @@ public class SQLArenaLobby {
 
 	public Map<ArenaStat, Integer> getArenaStats(String arena) {
 		Map<ArenaStat, Integer> data = new LinkedHashMap<ArenaStat, Integer>();
-		Result r = sql.resultQuery("SELECT * FROM arenastats WHERE name='" + arena + "' LIMIT 1;");
+		Result r = sql.readQuery("SELECT * FROM arenastats WHERE name=? LIMIT 1;", arena);
 		ResultSet rs = r.getResultSet();
 		try {
 			if (rs != null && rs.next()) {
@@ -111,7 +113,7 @@ public class SQLArenaLobby {
 
 	public Map<ArenaSetting, Integer> getArenaSettings(String arena) {
 		Map<ArenaSetting, Integer> data = new LinkedHashMap<ArenaSetting, Integer>();
-		Result r = sql.resultQuery("SELECT * FROM arenasettings WHERE name='" + arena + "' LIMIT 1;");
+		Result r = sql.readQuery("SELECT * FROM arenasettings WHERE name=? LIMIT 1;", arena);
 		ResultSet rs = r.getResultSet();
 		try {
 			if (rs != null && rs.next()) {
@@ -130,12 +132,7 @@ public class SQLArenaLobby {
 	private List<Location> getLocations(List<Integer> ids) {
 		List<Location> locs = new ArrayList<Location>();
 		if (ids.size() > 0) {
-			String idss = "";
-			for (int id : ids) {
-				idss += "id='" + id + "' OR ";
-			}
-			idss = idss.substring(0, idss.length() - 4);
-			Result r = sql.resultQuery("SELECT * FROM locations WHERE " + idss + ";");
+			Result r = sql.resultPrepared("SELECT * FROM locations WHERE id IN (" + parameterList(ids.size()) + ");", ids.toArray());
 			ResultSet rs = r.getResultSet();
 			try {
 				if (rs != null) {
@@ -169,21 +166,26 @@ public class SQLArenaLobby {
 
 	private void removeLocations(List<Integer> ids) {
 		if (ids.size() > 0) {
-			String idss = "";
-			for (int id : ids) {
-				idss += "id='" + id + "' OR ";
-			}
-			idss = idss.substring(0, idss.length() - 4);
-			sql.updateQuery("DELETE FROM locations WHERE " + idss + ";");
+			sql.updatePrepared("DELETE FROM locations WHERE id IN (" + parameterList(ids.size()) + ");", ids.toArray());
+		}
+	}
+
+	// "?,?,..." with the given number of parameters
+	private static String parameterList(int count) {
+		StringBuilder builder = new StringBuilder(count * 2);
+		for (int i = 0; i < count; i++) {
+			if (i > 0) builder.append(',');
+			builder.append('?');
 		}
+		return builder.toString();
 	}
 
 	public boolean isArenaExisting(String arena) {
-		Result r = sql.resultQuery("SELECT EXISTS(SELECT 1 FROM arenas WHERE name='" + arena + "' LIMIT 1);");
+		Result r = sql.readQuery("SELECT EXISTS(SELECT 1 FROM arenas WHERE name=? LIMIT 1);", arena);
 		ResultSet rs = r.getResultSet();
 		boolean b = false;
 		try {
-			if (rs != null) {
+			if (rs != null && rs.next()) {
 				b = (rs.getInt(1) == 1);
 			}
 		} catch (SQLException e) {
@@ -197,11 +199,11 @@ public class SQLArenaLobby {
 	}
 
 	public int getRedspawnsSize(String arena) {
-		Result r = sql.resultQuery("SELECT COUNT(*) FROM redspawns WHERE arena = '" + arena + "';");
+		Result r = sql.readQuery("SELECT COUNT(*) FROM redspawns WHERE arena = ?;", arena);
 		ResultSet rs = r.getResultSet();
 		int a = 0;
 		try {
-			if (rs != null) {
+			if (rs != null && rs.next()) {
 				a = rs.getInt(1);
 			}
 		} catch (SQLException e) {
@@ -213,11 +215,11 @@ public class SQLArenaLobby {
 	}
 
 	public int getBluespawnsSize(String arena) {
-		Result r = sql.resultQuery("SELECT COUNT(*) FROM bluespawns WHERE arena = '" + arena + "';");
+		Result r = sql.readQuery("SELECT COUNT(*) FROM bluespawns WHERE arena = ?;", arena);
 		ResultSet rs = r.getResultSet();
 		int a = 0;
 		try {
-			if (rs != null) {
+			if (rs != null && rs.next()) {
 				a = rs.getInt(1);
 			}
 		} catch (SQLException e) {
@@ -229,11 +231,11 @@ public class SQLArenaLobby {
 	}
 
 	public int getSpecspawnsSize(String arena) {
-		Result r = sql.resultQuery("SELECT COUNT(*) FROM specspawns WHERE arena = '" + arena + "';");
+		Result r = sql.readQuery("SELECT COUNT(*) FROM specspawns WHERE arena = ?;", arena);
 		ResultSet rs = r.getResultSet();
 		int a = 0;
 		try {
-			if (rs != null) {
+			if (rs != null && rs.next()) {
 				a = rs.getInt(1);
 			}
 		} catch (SQLException e) {
@@ -245,11 +247,11 @@ public class SQLArenaLobby {
 	}
 
 	public int getLobbyspawnsSize() {
-		Result r = sql.resultQuery("SELECT COUNT(*) FROM lobbyspawns;");
+		Result r = sql.readQuery("SELECT COUNT(*) FROM lobbyspawns;");
 		ResultSet rs = r.getResultSet();
 		int a = 0;
 		try {
-			if (rs != null) {
+			if (rs != null && rs.next()) {
 				a = rs.getInt(1);
 			}
 		} catch (SQLException e) {
@@ -262,7 +264,7 @@ public class SQLArenaLobby {
 
 	private List<Integer> getRedspawnsIds(String arena) {
 		List<Integer> ids = new ArrayList<Integer>();
-		Result r = sql.resultQuery("SELECT location_id FROM redspawns WHERE arena = '" + arena + "';");
+		Result r = sql.readQuery("SELECT location_id FROM redspawns WHERE arena = ?;", arena);
 		ResultSet rs = r.getResultSet();
 		try {
 			if (rs != null) {
@@ -280,7 +282,7 @@ public class SQLArenaLobby {
 
 	private List<Integer> getBluespawnsIds(String arena) {
 		List<Integer> ids = new ArrayList<Integer>();
-		Result r = sql.resultQuery("SELECT location_id FROM bluespawns WHERE arena = '" + arena + "';");
+		Result r = sql.readQuery("SELECT location_id FROM bluespawns WHERE arena = ?;", arena);
 		ResultSet rs = r.getResultSet();
 		try {
 			if (rs != null) {
@@ -298,7 +300,7 @@ public class SQLArenaLobby {
 
 	private List<Integer> getSpecspawnsIds(String arena) {
 		List<Integer> ids = new ArrayList<Integer>();
-		Result r = sql.resultQuery("SELECT location_id FROM specspawns WHERE arena = '" + arena + "';");
+		Result r = sql.readQuery("SELECT location_id FROM specspawns WHERE arena = ?;", arena);
 		ResultSet rs = r.getResultSet();
 		try {
 			if (rs != null) {
@@ -316,7 +318,7 @@ public class SQLArenaLobby {
 
 	private List<Integer> getLobbyspawnsIds() {
 		List<Integer> ids = new ArrayList<Integer>();
-		Result r = sql.resultQuery("SELECT location_id FROM lobbyspawns;");
+		Result r = sql.readQuery("SELECT location_id FROM lobbyspawns;");
 		ResultSet rs = r.getResultSet();
 		try {
 			if (rs != null) {
@@ -349,7 +351,7 @@ public class SQLArenaLobby {
 	}
 
 	public boolean isArenaActive(String arena) {
-		Result r = sql.resultQuery("SELECT active FROM arenas WHERE name='" + arena + "' LIMIT 1;");
+		Result r = sql.readQuery("SELECT active FROM arenas WHERE name=? LIMIT 1;", arena);
 		ResultSet rs = r.getResultSet();
 		boolean active = false;
 		try {
@@ -366,54 +368,61 @@ public class SQLArenaLobby {
 
 	// SET
 	public void setArenaActive(String arena) {
-		sql.updateQuery("UPDATE OR IGNORE arenas SET active=1 WHERE name='" + arena + "';");
+		sql.updatePrepared(storageType.update() + " arenas SET active=1 WHERE name=?;", arena);
 	}
 
 	public void setArenaNotActive(String arena) {
-		sql.updateQuery("UPDATE OR IGNORE arenas SET active=0 WHERE name='" + arena + "';");
+		sql.updatePrepared(storageType.update() + " arenas SET active=0 WHERE name=?;", arena);
 	}
 
 	public void addArenaStats(String arena, Map<ArenaStat, Integer> stats) {
-		String query = "";
+		StringBuilder query = new StringBuilder();
+		Object[] parameters = new Object[stats.size() + 1];
+		int index = 0;
 		for (Entry<ArenaStat, Integer> entry : stats.entrySet()) {
 			String key = entry.getKey().getKey();
-			query += key + "=" + key + "+'" + entry.getValue() + "',";
-		}
-		if (query.length() > 0) {
-			query = query.substring(0, query.length() - 1);
-			sql.updateQuery("UPDATE OR IGNORE arenastats SET " + query + " WHERE name='" + arena + "';");
+			query.append(key).append('=').append(key).append("+?,");
+			parameters[index++] = entry.getValue();
 		}
+		this.updateArenaRow("arenastats", query, parameters, arena);
 	}
 
 	public void setArenaStats(String arena, Map<ArenaStat, Integer> stats) {
-		String query = "";
+		StringBuilder query = new StringBuilder();
+		Object[] parameters = new Object[stats.size() + 1];
+		int index = 0;
 		for (Entry<ArenaStat, Integer> entry : stats.entrySet()) {
-			String key = entry.getKey().getKey();
-			query += key + "='" + entry.getValue() + "',";
-		}
-		if (query.length() > 0) {
-			query = query.substring(0, query.length() - 1);
-			sql.updateQuery("UPDATE OR IGNORE arenastats SET " + query + " WHERE name='" + arena + "';");
+			query.append(entry.getKey().getKey()).append("=?,");
+			parameters[index++] = entry.getValue();
 		}
+		this.updateArenaRow("arenastats", query, parameters, arena);
 	}
 
 	public void setArenaSettings(String arena, Map<ArenaSetting, Integer> settings) {
-		String query = "";
+		StringBuilder query = new StringBuilder();
+		Object[] parameters = new Object[settings.size() + 1];
+		int index = 0;
 		for (Entry<ArenaSetting, Integer> entry : settings.entrySet()) {
-			String key = entry.getKey().getKey();
-			query += key + "='" + entry.getValue() + "',";
+			query.append(entry.getKey().getKey()).append("=?,");
+			parameters[index++] = entry.getValue();
 		}
+		this.updateArenaRow("arenasettings", query, parameters, arena);
+	}
+
+	// query: comma-terminated assignments; the last parameter slot is reserved for the arena name
+	private void updateArenaRow(String table, StringBuilder query, Object[] parameters, String arena) {
 		if (query.length() > 0) {
-			query = query.substring(0, query.length() - 1);
-			sql.updateQuery("UPDATE OR IGNORE arenasettings SET " + query + " WHERE name='" + arena + "';");
+			query.setLength(query.length() - 1);
+			parameters[parameters.length - 1] = arena;
+			sql.updatePrepared(storageType.update() + " " + table + " SET " + query + " WHERE name=?;", parameters);
 		}
 	}
 
 	// REMOVE
 	public void removeArena(String arena) {
-		sql.updateQuery("DELETE FROM arenas WHERE name='" + arena + "';");
-		sql.updateQuery("DELETE FROM arenasettings WHERE name='" + arena + "';");
-		sql.updateQuery("DELETE FROM arenastats WHERE name='" + arena + "';");
+		sql.updatePrepared("DELETE FROM arenas WHERE name=?;", arena);
+		sql.updatePrepared("DELETE FROM arenasettings WHERE name=?;", arena);
+		sql.updatePrepared("DELETE FROM arenastats WHERE name=?;", arena);
 		removeRedspawns(arena);
 		removeBluespawns(arena);
 		removeSpecspawns(arena);
@@ -421,17 +430,17 @@ public class SQLArenaLobby {
 
 	public void removeRedspawns(String arena) {
 		removeLocations(getRedspawnsIds(arena));
-		sql.updateQuery("DELETE FROM redspawns WHERE arena='" + arena + "';");
+		sql.updatePrepared("DELETE FROM redspawns WHERE arena=?;", arena);
 	}
 
 	public void removeBluespawns(String arena) {
 		removeLocations(getBluespawnsIds(arena));
-		sql.updateQuery("DELETE FROM bluespawns WHERE arena='" + arena + "';");
+		sql.updatePrepared("DELETE FROM bluespawns WHERE arena=?;", arena);
 	}
 
 	public void removeSpecspawns(String arena) {
 		removeLocations(getSpecspawnsIds(arena));
-		sql.updateQuery("DELETE FROM specspawns WHERE arena='" + arena + "';");
+		sql.updatePrepared("DELETE FROM specspawns WHERE arena=?;", arena);
 	}
 
 	public void removeLobbyspawns() {
@@ -440,13 +449,14 @@ public class SQLArenaLobby {
 	}
 
 	// ADD NEW
-	public int addLocation(Location loc) {
-		return sql.updateQuery("INSERT OR IGNORE INTO locations(world, x, y, z, yaw, pitch) VALUES('" + loc.getWorld().getName() + "','" + loc.getX() + "','" + loc.getY() + "','" + loc.getZ() + "','" + loc.getYaw() + "','" + loc.getPitch() + "');");
+	private int addLocation(Location loc) {
+		return sql.insertPrepared(storageType.insertIgnore() + " INTO locations(world, x, y, z, yaw, pitch) VALUES(?,?,?,?,?,?);",
+				loc.getWorld().getName(), loc.getX(), loc.getY(), loc.getZ(), loc.getYaw(), loc.getPitch());
 	}
 
 	public void addNewArena(String arena) {
 		// ARENAS name TEXT, active INTEGER
-		sql.updateQuery("INSERT OR IGNORE INTO arenas(name, active) VALUES('" + arena + "','0');");
+		sql.updatePrepared(storageType.insertIgnore() + " INTO arenas(name, active) VALUES(?,'0');", arena);
 		// ARENASETTINGS
 		String settingsQuery = "";
 		String settingsValues = "";
@@ -454,7 +464,7 @@ public class SQLArenaLobby {
 			settingsQuery += "," + key;
 			settingsValues += ",'0'";
 		}
-		sql.updateQuery("INSERT OR IGNORE INTO arenasettings(name" + settingsQuery + ") VALUES('" + arena + "'" + settingsValues + ");");
+		sql.updatePrepared(storageType.insertIgnore() + " INTO arenasettings(name" + settingsQuery + ") VALUES(?" + settingsValues + ");", arena);
 
 		// ARENASTATS
 		String statsQuery = "";
@@ -463,26 +473,26 @@ public class SQLArenaLobby {
 			statsQuery += "," + key;
 			statsValues += ",'0'";
 		}
-		sql.updateQuery("INSERT OR IGNORE INTO arenastats(name" + statsQuery + ") VALUES('" + arena + "'" + statsValues + ");");
+		sql.updatePrepared(storageType.insertIgnore() + " INTO arenastats(name" + statsQuery + ") VALUES(?" + statsValues + ");", arena);
 	}
 
 	public void addLobbyspawn(Location loc) {
 		int row = this.addLocation(loc);
-		sql.updateQuery("INSERT OR IGNORE INTO lobbyspawns(location_id) VALUES('" + row + "');");
+		sql.updatePrepared(storageType.insertIgnore() + " INTO lobbyspawns(location_id) VALUES(?);", row);
 	}
 
 	public void addRedspawn(Location loc, String arena) {
 		int row = addLocation(loc);
-		sql.updateQuery("INSERT OR IGNORE INTO redspawns(arena, location_id) VALUES('" + arena + "','" + row + "');");
+		sql.updatePrepared(storageType.insertIgnore() + " INTO redspawns(arena, location_id) VALUES(?,?);", arena, row);
 	}
 
 	public void addBluespawn(Location loc, String arena) {
 		int row = addLocation(loc);
-		sql.updateQuery("INSERT OR IGNORE INTO bluespawns(arena, location_id) VALUES('" + arena + "','" + row + "');");
+		sql.updatePrepared(storageType.insertIgnore() + " INTO bluespawns(arena, location_id) VALUES(?,?);", arena, row);
 	}
 
 	public void addSpecspawn(Location loc, String arena) {
 		int row = addLocation(loc);
-		sql.updateQuery("INSERT OR IGNORE INTO specspawns(arena, location_id) VALUES('" + arena + "','" + row + "');");
+		sql.updatePrepared(storageType.insertIgnore() + " INTO specspawns(arena, location_id) VALUES(?,?);", arena, row);
 	}
 }
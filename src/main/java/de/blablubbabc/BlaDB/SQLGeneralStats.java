@@ -8,26 +8,46 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import de.blablubbabc.paintball.statistics.general.GeneralStat;
 
-public class SQLGeneralStats {
+public class SQLGeneralStats implements GeneralStatsStorage {
 
-	private static BlaSQLite sql;
+	private final JdbcStorage sql;
+	private final StorageType storageType;
 
-	public SQLGeneralStats(BlaSQLite blasql) {
-		sql = blasql;
+	// 'key' and 'value' are keywords in some dialects:
+	private final String keyColumn;
+	private final String valueColumn;
+	private final String queryAddStat;
+	private final String queryAveragePlayers;
+	private final String queryMaxPlayers;
+
+	public SQLGeneralStats(JdbcStorage sql) {
+		this.sql = sql;
+		storageType = sql.getStorageType();
+		keyColumn = storageType.quote("key");
+		valueColumn = storageType.quote("value");
+		queryAddStat = storageType.update() + " general_stats SET " + valueColumn + "=" + valueColumn + "+? WHERE " + keyColumn + "=?;";
+		// not every dialect allows to select from the updated table inside the update, but all of
+		// them allow it through a derived table (which MySQL only doesn't merge due to the limit):
+		String rounds = "(SELECT r." + valueColumn + " FROM (SELECT " + valueColumn + " FROM general_stats WHERE " + keyColumn + "='rounds' LIMIT 1) r)";
+		// the rounds already include the ended match:
+		queryAveragePlayers = storageType.update() + " general_stats SET " + valueColumn + "=(" + valueColumn + "*(" + rounds + "-1)+?)/" + rounds
+				+ " WHERE " + keyColumn + "='average_players' AND " + rounds + ">0;";
+		queryMaxPlayers = storageType.update() + " general_stats SET " + valueColumn + "=(CASE WHEN " + valueColumn + ">=? THEN " + valueColumn + " ELSE ? END) WHERE " + keyColumn + "='max_players';";
 
 		createDefaultTables();
 	}
 
 	private void createDefaultTables() {
 		// general stats
-		sql.createDefaultTable("general_stats", "key TEXT, value INTEGER", "key");
+		sql.createDefaultTable("general_stats", keyColumn + " " + storageType.keyTextType() + ", " + valueColumn + " INTEGER", keyColumn);
 
 		// DEFAULT VALUES:
 		for (String key : GeneralStat.getKeys()) {
-			sql.updateQuery("INSERT OR IGNORE INTO general_stats (key,value) VALUES('" + key + "','0');");
+			sql.updatePrepared(storageType.insertIgnore() + " INTO general_stats (" + keyColumn + "," + valueColumn + ") VALUES(?,'0');", key);
 		}
 	}
 
@@ -35,7 +55,7 @@ public class SQLGeneralStats {
 
 	public Map<GeneralStat, Integer> getStats() {
 		Map<GeneralStat, Integer> data = new LinkedHashMap<GeneralStat, Integer>();
-		Result r = sql.resultQuery("SELECT * FROM general_stats;");
+		Result r = sql.readQuery("SELECT * FROM general_stats;");
 		ResultSet rs = r.getResultSet();
 		try {
 			if (rs != null) {
@@ -54,30 +74,24 @@ public class SQLGeneralStats {
 	// SET
 
 	public void addStats(Map<GeneralStat, Integer> stats) {
-		for (GeneralStat stat : stats.keySet()) {
-			String query = "value=value+'" + stats.get(stat) + "'";
-			sql.updateQuery("UPDATE OR IGNORE general_stats SET " + query + " WHERE key='" + stat.getKey() + "';");
+		for (Entry<GeneralStat, Integer> entry : stats.entrySet()) {
+			sql.updatePrepared(queryAddStat, entry.getValue(), entry.getKey().getKey());
 		}
 	}
 
 	public void setStats(Map<GeneralStat, Integer> stats) {
-		for (GeneralStat stat : stats.keySet()) {
-			String query = "value=value+'" + stats.get(stat) + "'";
-			sql.updateQuery("UPDATE OR IGNORE general_stats SET " + query + " WHERE key='" + stat.getKey() + "';");
+		for (Entry<GeneralStat, Integer> entry : stats.entrySet()) {
+			sql.updatePrepared(queryAddStat, entry.getValue(), entry.getKey().getKey());
 		}
 	}
 
 	public void addStatsMatchEnd(Map<GeneralStat, Integer> stats, int playerAmount) {
-		for (GeneralStat stat : stats.keySet()) {
-			String query = "value=value+'" + stats.get(stat) + "'";
-			sql.updateQuery("UPDATE OR IGNORE general_stats SET " + query + " WHERE key='" + stat.getKey() + "';");
+		for (Entry<GeneralStat, Integer> entry : stats.entrySet()) {
+			sql.updatePrepared(queryAddStat, entry.getValue(), entry.getKey().getKey());
 		}
 		// CALCULATE AVERAGE PLAYERS + MAX PLAYERS
-		String queryC = "value=value+((" + playerAmount + "-value)/(SELECT value FROM general_stats WHERE key='rounds'))";
-		sql.updateQuery("UPDATE OR IGNORE general_stats SET " + queryC + " WHERE key='average_players';");
-
-		String queryMax = "value=(CASE WHEN value>='" + playerAmount + "' THEN value ELSE '" + playerAmount + "' END)";
-		sql.updateQuery("UPDATE OR IGNORE general_stats SET " + queryMax + " WHERE key='max_players';");
+		sql.updatePrepared(queryAveragePlayers, playerAmount);
+		sql.updatePrepared(queryMaxPlayers, playerAmount, playerAmount);
 	}
 
 	// REMOVE
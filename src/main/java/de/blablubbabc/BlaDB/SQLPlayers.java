@@ -6,21 +6,52 @@ package de.blablubbabc.BlaDB;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.UUID;
 
+import de.blablubbabc.paintball.statistics.player.LeaderboardEntry;
 import de.blablubbabc.paintball.statistics.player.PlayerStat;
 
-public class SQLPlayers {
+public class SQLPlayers implements PlayerStorage {
 
-	private static BlaSQLite sql;
+	private final JdbcStorage sql;
+	private final StorageType storageType;
 
-	public SQLPlayers(BlaSQLite blasql) {
-		sql = blasql;
+	// fixed query strings, so that the prepared statements for them get reused:
+	private final String querySetAllStats;
+	private final String queryAddAllStats;
+	private final String queryResetStats;
+	private final String queryInsertPlayer;
+
+	public SQLPlayers(JdbcStorage sql) {
+		this.sql = sql;
+		storageType = sql.getStorageType();
+
+		String setQuery = "";
+		String addQuery = "";
+		String resetQuery = "";
+		String insertColumns = "";
+		String insertValues = "";
+		for (String key : PlayerStat.getKeys()) {
+			setQuery += key + "=?,";
+			addQuery += key + "=" + key + "+?,";
+			resetQuery += key + "=0,";
+			insertColumns += "," + key;
+			insertValues += ",0";
+		}
+		setQuery = setQuery.substring(0, setQuery.length() - 1);
+		addQuery = addQuery.substring(0, addQuery.length() - 1);
+		resetQuery = resetQuery.substring(0, resetQuery.length() - 1);
+
+		querySetAllStats = storageType.update() + " players SET " + setQuery + " WHERE uuid=?;";
+		queryAddAllStats = storageType.update() + " players SET " + addQuery + " WHERE uuid=?;";
+		queryResetStats = storageType.update() + " players SET " + resetQuery + " WHERE uuid=?;";
+		queryInsertPlayer = storageType.insertIgnore() + " INTO players (uuid,name" + insertColumns + ") VALUES(?,?" + insertValues + ");";
 
 		createDefaultTables();
 	}
@@ -28,7 +59,7 @@ public class SQLPlayers {
 	private void createDefaultTables() {
 		// playerstats
 		HashMap<String, String> players = new HashMap<String, String>();
-		players.put("uuid", "TEXT");
+		players.put("uuid", storageType.keyTextType());
 		players.put("name", "TEXT");
 		for (String key : PlayerStat.getKeys()) {
 			players.put(key, "INTEGER");
@@ -41,7 +72,7 @@ public class SQLPlayers {
 	public int getRank(UUID playerUUID, PlayerStat stat) {
 		String key = stat.getKey();
 		int rank = 0;
-		Result r = sql.resultQuery("SELECT COUNT(*) FROM players WHERE " + key + " > (SELECT " + key + " from players WHERE uuid='" + playerUUID.toString() + "');");
+		Result r = sql.readQuery("SELECT COUNT(*) FROM players WHERE " + key + " > (SELECT " + key + " from players WHERE uuid=?);", playerUUID.toString());
 		ResultSet rs = r.getResultSet();
 		try {
 			if (rs != null && rs.next()) {
@@ -56,11 +87,11 @@ public class SQLPlayers {
 	}
 
 	public int getPlayerCount() {
-		Result r = sql.resultQuery("SELECT COUNT(*) FROM players;");
+		Result r = sql.readQuery("SELECT COUNT(*) FROM players;");
 		ResultSet rs = r.getResultSet();
 		int a = 0;
 		try {
-			if (rs != null) {
+			if (rs != null && rs.next()) {
 				a = rs.getInt(1);
 			}
 		} catch (SQLException e) {
@@ -72,7 +103,7 @@ public class SQLPlayers {
 	}
 
 	public int getPlayersEverPlayedCount() {
-		Result r = sql.resultQuery("SELECT COUNT(*) FROM players WHERE rounds > 0;");
+		Result r = sql.readQuery("SELECT COUNT(*) FROM players WHERE rounds > 0;");
 		ResultSet rs = r.getResultSet();
 		int result = 0;
 		try {
@@ -90,11 +121,11 @@ public class SQLPlayers {
 	}
 
 	public boolean isPlayerExisting(UUID playerUUID) {
-		Result r = sql.resultQuery("SELECT EXISTS(SELECT 1 FROM players WHERE uuid='" + playerUUID.toString() + "' LIMIT 1);");
+		Result r = sql.readQuery("SELECT EXISTS(SELECT 1 FROM players WHERE uuid=? LIMIT 1);", playerUUID.toString());
 		ResultSet rs = r.getResultSet();
 		boolean b = false;
 		try {
-			if (rs != null) {
+			if (rs != null && rs.next()) {
 				b = (rs.getInt(1) == 1);
 			}
 		} catch (SQLException e) {
@@ -108,7 +139,7 @@ public class SQLPlayers {
 
 	public Map<PlayerStat, Integer> getPlayerStats(UUID playerUUID) {
 		Map<PlayerStat, Integer> data = new LinkedHashMap<PlayerStat, Integer>();
-		Result r = sql.resultQuery("SELECT * FROM players WHERE uuid='" + playerUUID.toString() + "' LIMIT 1;");
+		Result r = sql.resultPrepared("SELECT * FROM players WHERE uuid=? LIMIT 1;", playerUUID.toString());
 		ResultSet rs = r.getResultSet();
 		try {
 			if (rs != null && rs.next()) {
@@ -124,28 +155,102 @@ public class SQLPlayers {
 		return data;
 	}
 
+	// the stat values of all players, by stat ordinal
+	public Map<UUID, int[]> getAllPlayerStatValues() {
+		Map<UUID, int[]> data = new HashMap<UUID, int[]>();
+		PlayerStat[] stats = PlayerStat.values();
+		Result r = sql.readQuery("SELECT * FROM players;");
+		ResultSet rs = r.getResultSet();
+		try {
+			if (rs != null) {
+				while (rs.next()) {
+					int[] values = new int[stats.length];
+					for (PlayerStat stat : stats) {
+						values[stat.ordinal()] = rs.getInt(stat.getKey());
+					}
+					data.put(UUID.fromString(rs.getString("uuid")), values);
+				}
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			r.close();
+		}
+		return data;
+	}
+
 	// SET
 	public void addPlayerStats(UUID playerUUID, Map<PlayerStat, Integer> stats) {
-		String query = "";
-		for (Entry<PlayerStat, Integer> entry : stats.entrySet()) {
-			String key = entry.getKey().getKey();
-			query += key + "=" + key + "+'" + entry.getValue() + "',";
+		this.updatePlayerStats(playerUUID, stats, Collections.<PlayerStat, Integer> emptyMap());
+	}
+
+	public void setPlayerStats(UUID playerUUID, Map<PlayerStat, Integer> stats) {
+		this.updatePlayerStats(playerUUID, Collections.<PlayerStat, Integer> emptyMap(), stats);
+	}
+
+	public void updatePlayerStats(UUID playerUUID, Map<PlayerStat, Integer> addStats, Map<PlayerStat, Integer> setStats) {
+		try {
+			this.updatePlayerStatsRaw(playerUUID, addStats, setStats);
+		} catch (SQLException e) {
+			e.printStackTrace();
 		}
-		if (query.length() > 0) {
-			query = query.substring(0, query.length() - 1);
-			sql.updateQuery("UPDATE OR IGNORE players SET " + query + " WHERE uuid='" + playerUUID.toString() + "';");
+	}
+
+	// Adds the deltas of the first map, and sets the values of the second map, in one update. A stat
+	// can't be in both maps.
+	public void updatePlayerStatsRaw(UUID playerUUID, Map<PlayerStat, Integer> addStats, Map<PlayerStat, Integer> setStats) throws SQLException {
+		checkDisjoint(addStats, setStats);
+		int count = addStats.size() + setStats.size();
+		if (count == 0) return;
+		PlayerStat[] allStats = PlayerStat.values();
+		if (count == allStats.length && (addStats.isEmpty() || setStats.isEmpty())) {
+			// all stats: use the fixed query, with the parameters in stat order
+			boolean add = setStats.isEmpty();
+			Map<PlayerStat, Integer> stats = add ? addStats : setStats;
+			Object[] parameters = new Object[allStats.length + 1];
+			for (PlayerStat stat : allStats) {
+				parameters[stat.ordinal()] = stats.get(stat);
+			}
+			parameters[allStats.length] = playerUUID.toString();
+			sql.updatePreparedRaw(add ? queryAddAllStats : querySetAllStats, parameters);
+		} else {
+			List<Object> parameters = new ArrayList<Object>(count + 1);
+			String query = buildUpdateQuery(storageType, playerUUID, addStats, setStats, parameters);
+			sql.updatePreparedRaw(query, parameters.toArray());
 		}
 	}
 
-	public void setPlayerStats(UUID playerUUID, Map<PlayerStat, Integer> stats) {
-		String query = "";
-		for (Entry<PlayerStat, Integer> entry : stats.entrySet()) {
-			String key = entry.getKey().getKey();
-			query += key + "='" + entry.getValue() + "',";
+	// Builds the update of the given stats, with the columns in stat order, so that the same
+	// combination of stats results in the same query. Adds the values to the given parameters,
+	// followed by the uuid.
+	static String buildUpdateQuery(StorageType storageType, UUID playerUUID, Map<PlayerStat, Integer> addStats, Map<PlayerStat, Integer> setStats,
+			List<Object> parameters) {
+		checkDisjoint(addStats, setStats);
+		StringBuilder query = new StringBuilder(storageType.update()).append(" players SET ");
+		boolean first = true;
+		for (PlayerStat stat : PlayerStat.values()) {
+			Integer value = addStats.get(stat);
+			boolean add = (value != null);
+			if (!add) value = setStats.get(stat);
+			if (value == null) continue;
+			String key = stat.getKey();
+			if (!first) query.append(',');
+			first = false;
+			query.append(key).append('=');
+			if (add) query.append(key).append('+');
+			query.append('?');
+			parameters.add(value);
 		}
-		if (query.length() > 0) {
-			query = query.substring(0, query.length() - 1);
-			sql.updateQuery("UPDATE OR IGNORE players SET " + query + " WHERE uuid='" + playerUUID + "';");
+		query.append(" WHERE uuid=?;");
+		parameters.add(playerUUID.toString());
+		return query.toString();
+	}
+
+	private static void checkDisjoint(Map<PlayerStat, Integer> addStats, Map<PlayerStat, Integer> setStats) {
+		for (PlayerStat stat : addStats.keySet()) {
+			if (setStats.containsKey(stat)) {
+				throw new IllegalArgumentException("Stat '" + stat.getKey() + "' can't be added and set in the same update!");
+			}
 		}
 	}
 
@@ -156,39 +261,27 @@ public class SQLPlayers {
 		}
 		if (query.length() > 0) {
 			query = query.substring(0, query.length() - 1);
-			sql.updateQuery("UPDATE OR IGNORE players SET " + query + ";");
+			sql.updateQuery(storageType.update() + " players SET " + query + ";");
 		}
 	}
 
 	public void resetPlayerStats(UUID playerUUID) {
-		String query = "";
-		for (String stat : PlayerStat.getKeys()) {
-			query += stat + "='0',";
-		}
-		if (query.length() > 0) {
-			query = query.substring(0, query.length() - 1);
-			sql.updateQuery("UPDATE OR IGNORE players SET " + query + " WHERE uuid='" + playerUUID.toString() + "';");
-		}
+		sql.updatePrepared(queryResetStats, playerUUID.toString());
 	}
 
 	// REMOVE
 	public void removePlayer(UUID playerUUID) {
-		sql.updateQuery("DELETE FROM players WHERE uuid='" + playerUUID.toString() + "';");
+		sql.updatePrepared("DELETE FROM players WHERE uuid=?;", playerUUID.toString());
 	}
 
 	// ADD NEW
 	public void initPlayer(UUID playerUUID, String playerName) {
+		String uuid = playerUUID.toString();
 		// update player name, if already existing:
-		sql.updateQuery("UPDATE OR IGNORE players SET name='" + playerName + "' WHERE uuid='" + playerUUID.toString() + "';");
+		sql.updatePrepared(storageType.update() + " players SET name=? WHERE uuid=?;", playerName, uuid);
 
 		// insert player if needed:
-		String query = "";
-		String queryV = "";
-		for (String s : PlayerStat.getKeys()) {
-			query += "," + s;
-			queryV += ",'0'";
-		}
-		sql.updateQuery("INSERT OR IGNORE INTO players (uuid,name" + query + ") VALUES('" + playerUUID.toString() + "'," + "'" + playerName + "'" + queryV + ");");
+		sql.updatePrepared(queryInsertPlayer, uuid, playerName);
 	}
 
 	// STATS, RANGLISTEN, TOP
@@ -206,34 +299,16 @@ public class SQLPlayers {
 	 * }
 	 */
 
-	public LinkedHashMap<PlayerStat, SimpleEntry<String, Integer>> getTopStats() {
-		LinkedHashMap<PlayerStat, SimpleEntry<String, Integer>> topStats = new LinkedHashMap<PlayerStat, SimpleEntry<String, Integer>>();
-		for (PlayerStat stat : PlayerStat.values()) {
-			String key = stat.getKey();
-			Result r = sql.resultQuery("SELECT name," + key + " FROM players ORDER BY " + key + " DESC LIMIT 1");
-			ResultSet rs = r.getResultSet();
-			try {
-				if (rs != null && rs.next()) {
-					topStats.put(stat, new SimpleEntry<String, Integer>(rs.getString("name"), rs.getInt(key)));
-				}
-			} catch (Exception e) {
-				e.printStackTrace();
-			} finally {
-				r.close();
-			}
-		}
-		return topStats;
-	}
-
-	public LinkedHashMap<String, Integer> getTop10Stats(PlayerStat stat) {
+	// sorted by the given stat, the best first
+	public List<LeaderboardEntry> getTopEntries(PlayerStat stat, int limit) {
 		String key = stat.getKey();
-		LinkedHashMap<String, Integer> topStats = new LinkedHashMap<String, Integer>();
-		Result r = sql.resultQuery("SELECT name," + stat + " FROM players ORDER BY " + stat + " DESC LIMIT 10");
+		List<LeaderboardEntry> entries = new ArrayList<LeaderboardEntry>(limit);
+		Result r = sql.readQuery("SELECT uuid,name," + key + " FROM players ORDER BY " + key + " DESC LIMIT ?;", limit);
 		ResultSet rs = r.getResultSet();
 		try {
 			if (rs != null) {
 				while (rs.next()) {
-					topStats.put(rs.getString("name"), rs.getInt(key));
+					entries.add(new LeaderboardEntry(UUID.fromString(rs.getString("uuid")), rs.getString("name"), rs.getInt(key)));
 				}
 			}
 		} catch (Exception e) {
@@ -241,6 +316,6 @@ public class SQLPlayers {
 		} finally {
 			r.close();
 		}
-		return topStats;
+		return entries;
 	}
 }
@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+public enum SQLiteProfile {
+
+	// rollback journal, every commit gets synced to disk (SQLite's default)
+	SAFE("DELETE", "FULL"),
+	// write-ahead log, only checkpoints get synced to disk: a power loss may roll back the latest
+	// commits, but the database stays consistent
+	BALANCED("WAL", "NORMAL"),
+	// write-ahead log, nothing gets synced: an os crash or power loss may corrupt the database
+	FAST("WAL", "OFF");
+
+	private final String journalMode;
+	private final String synchronous;
+
+	private SQLiteProfile(String journalMode, String synchronous) {
+		this.journalMode = journalMode;
+		this.synchronous = synchronous;
+	}
+
+	public String getJournalMode() {
+		return journalMode;
+	}
+
+	public String getSynchronous() {
+		return synchronous;
+	}
+
+	public boolean isWAL() {
+		return journalMode.equals("WAL");
+	}
+
+	public static SQLiteProfile getFromName(String name) {
+		for (SQLiteProfile profile : values()) {
+			if (profile.name().equalsIgnoreCase(name)) return profile;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import java.sql.SQLException;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * The storage of the plugin's data: players, arenas and general stats.
+ */
+public interface Storage {
+
+	// writes which get committed together
+	public interface Transaction {
+
+		public void run() throws SQLException;
+	}
+
+	public StorageType getStorageType();
+
+	// Connects and creates the missing tables. Returns false if the storage can't be used.
+	public boolean open();
+
+	public boolean isConnected();
+
+	public void close();
+
+	public PlayerStorage getPlayers();
+
+	public ArenaStorage getArenas();
+
+	public GeneralStatsStorage getGeneralStats();
+
+	// Runs the given writes in one transaction, without other writes getting mixed into it. The
+	// transaction gets rolled back if the writes fail.
+	public void runTransaction(Transaction transaction) throws SQLException;
+
+	// returns a summary of the commit latencies measured since the storage got opened
+	public String getCommitLatencyInfo();
+
+	// starts the periodic maintenance of the storage, if it needs any
+	public void startMaintenanceTask(Plugin plugin, int intervalSeconds);
+}
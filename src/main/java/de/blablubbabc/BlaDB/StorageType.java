@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+/**
+ * The supported storage backends, together with the parts of their SQL dialects which differ from
+ * each other.
+ */
+public enum StorageType {
+
+	// single database file, the driver is provided by the server
+	SQLITE("org.sqlite.JDBC", "INSERT OR IGNORE", "UPDATE OR IGNORE", "TEXT", "INTEGER PRIMARY KEY", '"', true),
+	// embedded database file, the driver has to be added to the server's classpath
+	H2("org.h2.Driver", "INSERT IGNORE", "UPDATE", "VARCHAR(128)", "INTEGER AUTO_INCREMENT PRIMARY KEY", '"', true),
+	// database server, the driver is provided by the server
+	MYSQL("com.mysql.jdbc.Driver", "INSERT IGNORE", "UPDATE", "VARCHAR(128)", "INTEGER AUTO_INCREMENT PRIMARY KEY", '`', false);
+
+	private final String driverClass;
+	private final String insertIgnore;
+	private final String update;
+	private final String keyTextType;
+	private final String autoIncrementKey;
+	private final char identifierQuote;
+	private final boolean createIndexIfNotExists;
+
+	private StorageType(String driverClass, String insertIgnore, String update, String keyTextType, String autoIncrementKey, char identifierQuote,
+			boolean createIndexIfNotExists) {
+		this.driverClass = driverClass;
+		this.insertIgnore = insertIgnore;
+		this.update = update;
+		this.keyTextType = keyTextType;
+		this.autoIncrementKey = autoIncrementKey;
+		this.identifierQuote = identifierQuote;
+		this.createIndexIfNotExists = createIndexIfNotExists;
+	}
+
+	public String getDriverClass() {
+		return driverClass;
+	}
+
+	// insert, which skips rows violating a unique constraint
+	public String insertIgnore() {
+		return insertIgnore;
+	}
+
+	public String update() {
+		return update;
+	}
+
+	// type of text columns which are part of an unique index
+	public String keyTextType() {
+		return keyTextType;
+	}
+
+	// column definition of an integer primary key, which gets assigned automatically
+	public String autoIncrementKey() {
+		return autoIncrementKey;
+	}
+
+	// quotes identifiers which are keywords in some dialects (like 'key' and 'value')
+	public String quote(String identifier) {
+		return identifierQuote + identifier + identifierQuote;
+	}
+
+	public boolean supportsCreateIndexIfNotExists() {
+		return createIndexIfNotExists;
+	}
+
+	public static StorageType getFromName(String name) {
+		for (StorageType type : values()) {
+			if (type.name().equalsIgnoreCase(name)) return type;
+		}
+		return null;
+	}
+}
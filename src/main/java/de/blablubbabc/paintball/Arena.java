@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Location;
+
+import de.blablubbabc.paintball.statistics.arena.ArenaSetting;
+
+/**
+ * Immutable snapshot of an arena's spawns, settings and active state. Changes create a modified
+ * copy, which replaces this snapshot inside the {@link ArenaManager}.
+ */
+public final class Arena {
+
+	private final String name;
+	private final boolean active;
+	private final List<Location> redSpawns;
+	private final List<Location> blueSpawns;
+	private final List<Location> specSpawns;
+	private final Map<ArenaSetting, Integer> settings;
+
+	Arena(String name, boolean active, List<Location> redSpawns, List<Location> blueSpawns, List<Location> specSpawns, Map<ArenaSetting, Integer> settings) {
+		this.name = name;
+		this.active = active;
+		this.redSpawns = copyLocations(redSpawns);
+		this.blueSpawns = copyLocations(blueSpawns);
+		this.specSpawns = copyLocations(specSpawns);
+		Map<ArenaSetting, Integer> settingsCopy = new EnumMap<ArenaSetting, Integer>(ArenaSetting.class);
+		for (ArenaSetting setting : ArenaSetting.values()) {
+			Integer value = settings.get(setting);
+			settingsCopy.put(setting, value != null ? value : 0);
+		}
+		this.settings = Collections.unmodifiableMap(settingsCopy);
+	}
+
+	private static List<Location> copyLocations(List<Location> locations) {
+		List<Location> copy = new ArrayList<Location>(locations.size());
+		for (Location location : locations) {
+			copy.add(location.clone());
+		}
+		return Collections.unmodifiableList(copy);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isActive() {
+		return active;
+	}
+
+	// the returned locations must not be modified
+	public List<Location> getRedSpawns() {
+		return redSpawns;
+	}
+
+	public List<Location> getBlueSpawns() {
+		return blueSpawns;
+	}
+
+	public List<Location> getSpecSpawns() {
+		return specSpawns;
+	}
+
+	public Map<ArenaSetting, Integer> getSettings() {
+		return settings;
+	}
+
+	public boolean hasAllSpawns() {
+		return !redSpawns.isEmpty() && !blueSpawns.isEmpty() && !specSpawns.isEmpty();
+	}
+
+	// MODIFIED COPIES
+
+	Arena withActive(boolean active) {
+		return new Arena(name, active, redSpawns, blueSpawns, specSpawns, settings);
+	}
+
+	Arena withRedSpawns(List<Location> redSpawns) {
+		return new Arena(name, active, redSpawns, blueSpawns, specSpawns, settings);
+	}
+
+	Arena withBlueSpawns(List<Location> blueSpawns) {
+		return new Arena(name, active, redSpawns, blueSpawns, specSpawns, settings);
+	}
+
+	Arena withSpecSpawns(List<Location> specSpawns) {
+		return new Arena(name, active, redSpawns, blueSpawns, specSpawns, settings);
+	}
+
+	Arena withSettings(Map<ArenaSetting, Integer> changedSettings) {
+		Map<ArenaSetting, Integer> newSettings = new EnumMap<ArenaSetting, Integer>(settings);
+		newSettings.putAll(changedSettings);
+		return new Arena(name, active, redSpawns, blueSpawns, specSpawns, newSettings);
+	}
+
+	static List<Location> with(List<Location> locations, Location location) {
+		List<Location> newLocations = new ArrayList<Location>(locations);
+		newLocations.add(location);
+		return newLocations;
+	}
+}
@@ -5,17 +5,28 @@
 package de.blablubbabc.paintball;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 
 import de.blablubbabc.paintball.statistics.arena.ArenaSetting;
 import de.blablubbabc.paintball.statistics.arena.ArenaStat;
+import de.blablubbabc.paintball.utils.Log;
 import de.blablubbabc.paintball.utils.Translator;
 import de.blablubbabc.paintball.utils.Utils;
 
+/**
+ * Arenas, their spawns, settings and active state are kept in memory, and changes get written
+ * through to the database. Only the arena stats are read from the database.
+ */
 public class ArenaManager {
 
 	private final Paintball plugin;
@@ -23,32 +34,85 @@ public class ArenaManager {
 	private int current = 0;
 	private String nextArenaForce;
 
+	// replaced as a whole on every change, so it can be read from any thread:
+	private volatile Map<String, Arena> arenas = Collections.emptyMap();
+	// writes the active state in the order of the changes:
+	private final ExecutorService activeWriter = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "Paintball Arena Writer");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
 	public ArenaManager(Paintball pl) {
 		plugin = pl;
 		nextArenaForce = null;
+		this.loadArenas();
+	}
+
+	// writes the remaining changes of the active state (blocking)
+	public void shutdown() {
+		activeWriter.shutdown();
+		try {
+			if (!activeWriter.awaitTermination(10, TimeUnit.SECONDS)) {
+				Log.warning("Could not write the active state of all arenas!");
+			}
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void loadArenas() {
+		Map<String, Arena> loaded = new LinkedHashMap<String, Arena>();
+		for (String name : plugin.storage.getArenas().getAllArenaNames()) {
+			// arenas are set to not active on startup:
+			loaded.put(name, new Arena(name, false, plugin.storage.getArenas().getRedspawns(name), plugin.storage.getArenas().getBluespawns(name),
+					plugin.storage.getArenas().getSpecspawns(name), plugin.storage.getArenas().getArenaSettings(name)));
+		}
+		arenas = Collections.unmodifiableMap(loaded);
+	}
+
+	private synchronized void putArena(Arena arena) {
+		Map<String, Arena> newArenas = new LinkedHashMap<String, Arena>(arenas);
+		newArenas.put(arena.getName(), arena);
+		arenas = Collections.unmodifiableMap(newArenas);
+	}
+
+	private synchronized void removeArena(String name) {
+		Map<String, Arena> newArenas = new LinkedHashMap<String, Arena>(arenas);
+		newArenas.remove(name);
+		arenas = Collections.unmodifiableMap(newArenas);
+	}
+
+	// returns null if there is no such arena
+	public Arena getArena(String name) {
+		return arenas.get(name);
 	}
 
 	// METHODS
 
 	public boolean existing(String name) {
-		return plugin.sql.sqlArenaLobby.isArenaExisting(name);
+		return arenas.containsKey(name);
 	}
 
 	// GETTER
 	public List<String> getAllArenaNames() {
-		return plugin.sql.sqlArenaLobby.getAllArenaNames();
+		return new ArrayList<String>(arenas.keySet());
 	}
 
 	public boolean isReady() {
-		for (String arena : getAllArenaNames()) {
+		for (String arena : arenas.keySet()) {
 			if (isReady(arena)) return true;
 		}
 		return false;
 	}
 
-	public boolean hasAllSpawns(String arena) {
-		if (getBlueSpawnsSize(arena) > 0 && getRedSpawnsSize(arena) > 0 && getSpecSpawnsSize(arena) > 0) return true;
-		else return false;
+	public boolean hasAllSpawns(String name) {
+		Arena arena = arenas.get(name);
+		return arena != null && arena.hasAllSpawns();
 	}
 
 	public String getArenaStatus(String name) {
@@ -70,8 +134,9 @@ public class ArenaManager {
 		return false;
 	}
 
-	public boolean inUse(String arena) {
-		return plugin.sql.sqlArenaLobby.isArenaActive(arena);
+	public boolean inUse(String name) {
+		Arena arena = arenas.get(name);
+		return arena != null && arena.isActive();
 	}
 
 	public boolean isDisabled(String arena) {
@@ -93,19 +158,38 @@ public class ArenaManager {
 
 	public List<String> getReadyArenas() {
 		List<String> arenas = new ArrayList<String>();
-		for (String arena : getAllArenaNames()) {
+		for (String arena : this.arenas.keySet()) {
 			if (!inUse(arena) && isReady(arena)) arenas.add(arena);
 		}
 		return arenas;
 	}
 
 	// SETTER
-	public void setNotActive(String arena) {
-		plugin.sql.sqlArenaLobby.setArenaNotActive(arena);
+	public void setNotActive(final String name) {
+		this.setActive(name, false);
 	}
 
-	public void setActive(String arena) {
-		plugin.sql.sqlArenaLobby.setArenaActive(arena);
+	public void setActive(final String name) {
+		this.setActive(name, true);
+	}
+
+	private void setActive(final String name, final boolean active) {
+		Arena arena = arenas.get(name);
+		if (arena == null || arena.isActive() == active) return;
+		this.putArena(arena.withActive(active));
+
+		Paintball.addAsyncTask();
+		activeWriter.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					if (active) plugin.storage.getArenas().setArenaActive(name);
+					else plugin.storage.getArenas().setArenaNotActive(name);
+				} finally {
+					Paintball.removeAsyncTask();
+				}
+			}
+		});
 	}
 
 	// return true, if arena was NOT disabled before and is now disabled
@@ -184,42 +268,61 @@ public class ArenaManager {
 	// ///////////////////////////
 
 	public Map<ArenaStat, Integer> getArenaStats(String name) {
-		return plugin.sql.sqlArenaLobby.getArenaStats(name);
+		return plugin.storage.getArenas().getArenaStats(name);
 	}
 
 	public Map<ArenaSetting, Integer> getArenaSettings(String name) {
-		return plugin.sql.sqlArenaLobby.getArenaSettings(name);
+		Arena arena = arenas.get(name);
+		if (arena == null) return new LinkedHashMap<ArenaSetting, Integer>();
+		return new LinkedHashMap<ArenaSetting, Integer>(arena.getSettings());
 	}
 
 	// SPAWNS
 	public int getBlueSpawnsSize(String name) {
-		return plugin.sql.sqlArenaLobby.getBluespawnsSize(name);
+		Arena arena = arenas.get(name);
+		return arena == null ? 0 : arena.getBlueSpawns().size();
 	}
 
 	public int getRedSpawnsSize(String name) {
-		return plugin.sql.sqlArenaLobby.getRedspawnsSize(name);
+		Arena arena = arenas.get(name);
+		return arena == null ? 0 : arena.getRedSpawns().size();
 	}
 
 	public int getSpecSpawnsSize(String name) {
-		return plugin.sql.sqlArenaLobby.getSpecspawnsSize(name);
+		Arena arena = arenas.get(name);
+		return arena == null ? 0 : arena.getSpecSpawns().size();
 	}
 
 	public List<Location> getBlueSpawns(String name) {
-		return plugin.sql.sqlArenaLobby.getBluespawns(name);
+		Arena arena = arenas.get(name);
+		return arena == null ? new ArrayList<Location>() : copyLocations(arena.getBlueSpawns());
 	}
 
 	public List<Location> getRedSpawns(String name) {
-		return plugin.sql.sqlArenaLobby.getRedspawns(name);
+		Arena arena = arenas.get(name);
+		return arena == null ? new ArrayList<Location>() : copyLocations(arena.getRedSpawns());
 	}
 
 	public List<Location> getSpecSpawns(String name) {
-		return plugin.sql.sqlArenaLobby.getSpecspawns(name);
+		Arena arena = arenas.get(name);
+		return arena == null ? new ArrayList<Location>() : copyLocations(arena.getSpecSpawns());
+	}
+
+	private static List<Location> copyLocations(List<Location> locations) {
+		List<Location> copy = new ArrayList<Location>(locations.size());
+		for (Location location : locations) {
+			copy.add(location.clone());
+		}
+		return copy;
 	}
 
 	// SETTER
 
 	public void addArena(String name) {
-		plugin.sql.sqlArenaLobby.addNewArena(name);
+		plugin.storage.getArenas().addNewArena(name);
+		List<Location> noSpawns = Collections.emptyList();
+		Map<ArenaSetting, Integer> defaultSettings = Collections.emptyMap();
+		this.putArena(new Arena(name, false, noSpawns, noSpawns, noSpawns, defaultSettings));
 	}
 
 	public void setNext(String arena) {
@@ -236,7 +339,7 @@ public class ArenaManager {
 		Bukkit.getScheduler().runTaskAsynchronously(plugin, new Runnable() {
 			@Override
 			public void run() {
-				plugin.sql.sqlArenaLobby.addArenaStats(arena, stats);
+				plugin.storage.getArenas().addArenaStats(arena, stats);
 				Paintball.removeAsyncTask();
 			}
 		});
@@ -247,7 +350,7 @@ public class ArenaManager {
 		Bukkit.getScheduler().runTaskAsynchronously(plugin, new Runnable() {
 			@Override
 			public void run() {
-				plugin.sql.sqlArenaLobby.setArenaStats(arena, stats);
+				plugin.storage.getArenas().setArenaStats(arena, stats);
 				Paintball.removeAsyncTask();
 			}
 		});
@@ -255,11 +358,14 @@ public class ArenaManager {
 
 	// SETTINGS
 	public void setSettings(final String arena, final Map<ArenaSetting, Integer> settings) {
+		Arena current = arenas.get(arena);
+		if (current != null) this.putArena(current.withSettings(settings));
+
 		Paintball.addAsyncTask();
 		Bukkit.getScheduler().runTaskAsynchronously(plugin, new Runnable() {
 			@Override
 			public void run() {
-				plugin.sql.sqlArenaLobby.setArenaSettings(arena, settings);
+				plugin.storage.getArenas().setArenaSettings(arena, settings);
 				Paintball.removeAsyncTask();
 			}
 		});
@@ -267,30 +373,43 @@ public class ArenaManager {
 
 	// SPAWNS
 	public void addBlueSpawn(final String arena, final Location loc) {
-		plugin.sql.sqlArenaLobby.addBluespawn(loc, arena);
+		plugin.storage.getArenas().addBluespawn(loc, arena);
+		Arena current = arenas.get(arena);
+		if (current != null) this.putArena(current.withBlueSpawns(Arena.with(current.getBlueSpawns(), loc)));
 	}
 
 	public void addRedSpawn(final String arena, final Location loc) {
-		plugin.sql.sqlArenaLobby.addRedspawn(loc, arena);
+		plugin.storage.getArenas().addRedspawn(loc, arena);
+		Arena current = arenas.get(arena);
+		if (current != null) this.putArena(current.withRedSpawns(Arena.with(current.getRedSpawns(), loc)));
 	}
 
 	public void addSpecSpawn(final String arena, final Location loc) {
-		plugin.sql.sqlArenaLobby.addSpecspawn(loc, arena);
+		plugin.storage.getArenas().addSpecspawn(loc, arena);
+		Arena current = arenas.get(arena);
+		if (current != null) this.putArena(current.withSpecSpawns(Arena.with(current.getSpecSpawns(), loc)));
 	}
 
 	public void removeBlueSpawns(final String arena) {
-		plugin.sql.sqlArenaLobby.removeBluespawns(arena);
+		plugin.storage.getArenas().removeBluespawns(arena);
+		Arena current = arenas.get(arena);
+		if (current != null) this.putArena(current.withBlueSpawns(Collections.<Location> emptyList()));
 	}
 
 	public void removeRedSpawns(final String arena) {
-		plugin.sql.sqlArenaLobby.removeRedspawns(arena);
+		plugin.storage.getArenas().removeRedspawns(arena);
+		Arena current = arenas.get(arena);
+		if (current != null) this.putArena(current.withRedSpawns(Collections.<Location> emptyList()));
 	}
 
 	public void removeSpecSpawns(final String arena) {
-		plugin.sql.sqlArenaLobby.removeSpecspawns(arena);
+		plugin.storage.getArenas().removeSpecspawns(arena);
+		Arena current = arenas.get(arena);
+		if (current != null) this.putArena(current.withSpecSpawns(Collections.<Location> emptyList()));
 	}
 
 	public void remove(String name) {
-		plugin.sql.sqlArenaLobby.removeArena(name);
+		plugin.storage.getArenas().removeArena(name);
+		this.removeArena(name);
 	}
 }
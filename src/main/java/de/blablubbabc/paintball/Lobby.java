@@ -5,6 +5,7 @@
 package de.blablubbabc.paintball;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -60,7 +61,10 @@ public enum Lobby {
 	public synchronized void addMember(Player player) {
 		if (players.putIfAbsent(player, false) == null) {
 			if (this == Lobby.LOBBY) {
+				ParticipantRegistry.joinLobby(player);
 				onPlayersInLobbyChanged(players.size());
+			} else {
+				ParticipantRegistry.setTeam(player, this, false);
 			}
 		}
 	}
@@ -68,17 +72,26 @@ public enum Lobby {
 	public synchronized void removeMember(Player player) {
 		if (players.remove(player) != null) {
 			if (this == Lobby.LOBBY) {
+				ParticipantRegistry.leaveLobby(player);
 				onPlayersInLobbyChanged(players.size());
+			} else {
+				ParticipantRegistry.removeTeam(player, this);
 			}
 		}
 	}
 
 	public synchronized void setPlaying(Player player) {
-		if (players.containsKey(player)) players.put(player, true);
+		if (players.containsKey(player)) {
+			players.put(player, true);
+			if (this != Lobby.LOBBY) ParticipantRegistry.setTeam(player, this, true);
+		}
 	}
 
 	public synchronized void setWaiting(Player player) {
-		if (players.containsKey(player)) players.put(player, false);
+		if (players.containsKey(player)) {
+			players.put(player, false);
+			if (this != Lobby.LOBBY) ParticipantRegistry.setTeam(player, this, false);
+		}
 	}
 
 	// GETTER
@@ -86,8 +99,21 @@ public enum Lobby {
 		return players.keySet();
 	}
 
-	public synchronized boolean isMember(Player player) {
-		return players.containsKey(player);
+	// copy of the members which are not yet playing
+	public synchronized Set<Player> getWaitingMembers() {
+		Set<Player> waiting = new HashSet<Player>();
+		for (Map.Entry<Player, Boolean> entry : players.entrySet()) {
+			if (!entry.getValue()) waiting.add(entry.getKey());
+		}
+		return waiting;
+	}
+
+	// can be called from any thread
+	public boolean isMember(Player player) {
+		Participant participant = ParticipantRegistry.get(player);
+		if (participant == null) return false;
+		if (this == Lobby.LOBBY) return participant.isInLobby();
+		return participant.getTeam() == this;
 	}
 
 	public synchronized int numberInGame() {
@@ -130,11 +156,12 @@ public enum Lobby {
 		}
 		return null;
 	}*/
-	public synchronized static Lobby getTeam(Player player) {
-		for (Lobby team : Lobby.values()) {
-			if (team.isMember(player) && team != Lobby.LOBBY) return team;
-		}
-		if (Lobby.LOBBY.isMember(player)) return Lobby.LOBBY;
+	// the team lookups can be called from any thread
+	public static Lobby getTeam(Player player) {
+		Participant participant = ParticipantRegistry.get(player);
+		if (participant == null) return null;
+		if (participant.getTeam() != null) return participant.getTeam();
+		if (participant.isInLobby()) return Lobby.LOBBY;
 		return null;
 	}
 
@@ -147,23 +174,21 @@ public enum Lobby {
 		else Lobby.LOBBY.players.put(player, true);
 	}
 
-	public synchronized static boolean inTeam(Player player) {
+	public static boolean inTeam(Player player) {
 		Lobby team = getTeam(player);
 		return team == Lobby.RED || team == Lobby.BLUE || team == Lobby.RANDOM;
 	}
 
-	public synchronized static boolean isPlaying(Player player) {
-		if (inTeam(player)) {
-			if (getTeam(player).players.get(player)) return true;
-		}
-		return false;
+	public static boolean isPlaying(Player player) {
+		Participant participant = ParticipantRegistry.get(player);
+		if (participant == null || !participant.isPlaying()) return false;
+		Lobby team = participant.getTeam();
+		return team == Lobby.RED || team == Lobby.BLUE || team == Lobby.RANDOM;
 	}
 
-	public synchronized static boolean isSpectating(Player player) {
-		if (getTeam(player) == Lobby.SPECTATE) {
-			if (Lobby.SPECTATE.players.get(player)) return true;
-		}
-		return false;
+	public static boolean isSpectating(Player player) {
+		Participant participant = ParticipantRegistry.get(player);
+		return participant != null && participant.isPlaying() && participant.getTeam() == Lobby.SPECTATE;
 	}
 
 	// SETTER
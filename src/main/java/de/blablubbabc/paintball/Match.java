@@ -9,6 +9,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -22,11 +23,10 @@ import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.LeatherArmorMeta;
-import org.bukkit.scoreboard.DisplaySlot;
-import org.bukkit.scoreboard.Objective;
-import org.bukkit.scoreboard.Score;
 import org.bukkit.scoreboard.Scoreboard;
 
+import de.blablubbabc.paintball.scoreboards.PlayerBoard;
+import de.blablubbabc.paintball.scoreboards.ScoreboardEngine;
 import de.blablubbabc.paintball.statistics.arena.ArenaSetting;
 import de.blablubbabc.paintball.statistics.player.PlayerStat;
 import de.blablubbabc.paintball.statistics.player.match.tdm.TDMMatchStat;
@@ -34,6 +34,7 @@ import de.blablubbabc.paintball.statistics.player.match.tdm.TDMMatchStats;
 import de.blablubbabc.paintball.utils.KeyValuePair;
 import de.blablubbabc.paintball.utils.Sounds;
 import de.blablubbabc.paintball.utils.TeleportManager;
+import de.blablubbabc.paintball.utils.TickTask;
 import de.blablubbabc.paintball.utils.Timer;
 import de.blablubbabc.paintball.utils.Translator;
 import de.blablubbabc.paintball.utils.Utils;
@@ -50,8 +51,12 @@ public class Match {
 	private final Set<Player> allPlayers = new HashSet<>();
 	private final Map<Player, Integer> protection = new HashMap<>();
 	private final Map<UUID, Scoreboard> prevScoreboards = new HashMap<>();
-	private final Map<UUID, Scoreboard> scoreboards = new HashMap<>();
+	private final Map<UUID, PlayerBoard> scoreboards = new HashMap<>();
 	private final Set<UUID> justRespawned = new HashSet<>();
+	// AMMO
+	private final Map<UUID, Ammo> ammo = new HashMap<>();
+	private final Set<Player> ammoToSync = new LinkedHashSet<>();
+	private TickTask ammoSyncTask = null;
 	// STATS
 	private Map<UUID, TDMMatchStats> playerMatchStats = new HashMap<>();
 
@@ -87,6 +92,11 @@ public class Match {
 	public Lobby win = null;
 	public Lobby loose = null;
 
+	// only for tests: a match without players, spawns and timers
+	Match(String arena) {
+		this.arena = arena;
+	}
+
 	public Match(
 			final Paintball plugin,
 			Set<Player> red,
@@ -174,7 +184,7 @@ public class Match {
 		this.started = false;
 
 		if (plugin.countdownStart > 0) {
-			startTimer = new Timer(Paintball.getInstance(), 0L, 20L, plugin.countdownStart, new Runnable() {
+			startTimer = new Timer(0L, 20L, plugin.countdownStart, new Runnable() {
 
 				@Override
 				public void run() {
@@ -234,8 +244,8 @@ public class Match {
 		}
 		vars.put("round_time", String.valueOf(setting_round_time));
 
-		plugin.feeder.status(Translator.getString("MATCH_SETTINGS_INFO", vars));
-		plugin.feeder.status(Translator.getString("MATCH_START"));
+		plugin.feeder.status(this, Translator.getString("MATCH_SETTINGS_INFO", vars));
+		plugin.feeder.status(this, Translator.getString("MATCH_START"));
 
 		makeAllVisible();
 		startRoundTimer();
@@ -256,7 +266,7 @@ public class Match {
 	}
 
 	private void startRoundTimer() {
-		roundTimer = new Timer(Paintball.getInstance(), 0L, 20L, setting_round_time, new Runnable() {
+		roundTimer = new Timer(0L, 20L, setting_round_time, new Runnable() {
 
 			@Override
 			public void run() {
@@ -275,8 +285,8 @@ public class Match {
 				}
 				// level bar
 				if (plugin.useXPBar) {
-					for (Player player : Lobby.LOBBY.getMembers()) {
-						player.setLevel(roundTimer.getTime());
+					for (Player player : getAll()) {
+						if (Lobby.LOBBY.isMember(player)) player.setLevel(roundTimer.getTime());
 					}
 				}
 
@@ -287,7 +297,7 @@ public class Match {
 
 			@Override
 			public void run() {
-				plugin.feeder.roundTime(roundTimer.getTime());
+				plugin.feeder.roundTime(Match.this, roundTimer.getTime());
 			}
 		}, new Runnable() {
 
@@ -295,8 +305,8 @@ public class Match {
 			public void run() {
 				// level bar
 				if (plugin.useXPBar) {
-					for (Player player : Lobby.LOBBY.getMembers()) {
-						player.setLevel(roundTimer.getTime());
+					for (Player player : getAll()) {
+						if (Lobby.LOBBY.isMember(player)) player.setLevel(roundTimer.getTime());
 					}
 				}
 				roundTimer = null;
@@ -351,6 +361,7 @@ public class Match {
 		playersLoc.put(playerId, loc);
 		// PLAYER
 		PlayerDataStore.clearPlayer(player, false, false);
+		resetBalls(player);
 		// INVENTORY
 
 		Color color = getTeamLobby(player).colorA();
@@ -454,22 +465,29 @@ public class Match {
 
 	private void initMatchScoreboard(Player player) {
 		if (plugin.scoreboardMatch) {
-			UUID playerId = player.getUniqueId();
-			Scoreboard matchBoard = scoreboards.get(playerId);
+			final UUID playerId = player.getUniqueId();
+			PlayerBoard matchBoard = scoreboards.get(playerId);
 			if (matchBoard == null) {
 				// remember old scoreboard:
 				prevScoreboards.put(playerId, player.getScoreboard());
 				// create new scoreboard:
-				matchBoard = Bukkit.getScoreboardManager().getNewScoreboard();
+				String header = Translator.getString("SCOREBOARD_MATCH_HEADER", new KeyValuePair("round_time", "0:00"));
+				ScoreboardEngine engine = plugin.scoreboardEngine;
+				matchBoard = engine.createBoard(engine.getMatchLayout(), header, values -> {
+					TDMMatchStats stats = playerMatchStats.get(playerId);
+					TDMMatchStat[] matchStats = ScoreboardEngine.MATCH_STATS;
+					for (int i = 0; i < matchStats.length; i++) {
+						values[i] = stats.getStat(matchStats[i]);
+					}
+					// overall points and cash:
+					values[matchStats.length] = stats.getPlayerStats().getStat(PlayerStat.POINTS);
+					values[matchStats.length + 1] = stats.getPlayerStats().getStat(PlayerStat.MONEY);
+				});
 				scoreboards.put(playerId, matchBoard);
+			} else {
+				matchBoard.update();
 			}
-
-			String header = Translator.getString("SCOREBOARD_MATCH_HEADER", new KeyValuePair("round_time", "0:00"));
-			if (header.length() > 32) header = header.substring(0, 32);
-			Objective objective = matchBoard.registerNewObjective("pbMatch", "dummy", header);
-			objective.setDisplaySlot(DisplaySlot.SIDEBAR);
-			updateMatchScoreboard(playerId);
-			player.setScoreboard(matchBoard);
+			player.setScoreboard(matchBoard.getScoreboard());
 		} else {
 			// assign default server scoreboard instead then:
 			player.setScoreboard(Bukkit.getScoreboardManager().getMainScoreboard());
@@ -484,36 +502,18 @@ public class Match {
 			String secondsString = String.valueOf(seconds);
 			String header = Translator.getString("SCOREBOARD_MATCH_HEADER",
 					new KeyValuePair("round_time", String.valueOf(minutes) + ":" + (seconds >= 10 ? secondsString : "0" + secondsString)));
-			if (header.length() > 32) header = header.substring(0, 32);
 
-			for (Scoreboard scoreboard : scoreboards.values()) {
-				scoreboard.getObjective(DisplaySlot.SIDEBAR).setDisplayName(header);
+			for (PlayerBoard board : scoreboards.values()) {
+				board.setHeader(header);
 			}
 		}
 	}
 
+	// the board gets rendered with the next tick
 	public void updateMatchScoreboard(UUID playerId) {
 		if (plugin.scoreboardMatch) {
-			Scoreboard matchBoard = scoreboards.get(playerId);
-			if (matchBoard != null) {
-				Objective objective = matchBoard.getObjective(DisplaySlot.SIDEBAR);
-				TDMMatchStats stats = playerMatchStats.get(playerId);
-				for (TDMMatchStat stat : TDMMatchStat.values()) {
-					// skip airstrikes, grenades and teamattacks count:
-					if (stat == TDMMatchStat.AIRSTRIKES || stat == TDMMatchStat.GRENADES || stat == TDMMatchStat.TEAMATTACKS) continue;
-					String scoreName = Translator.getString("SCOREBOARD_MATCH_" + stat.getPlayerStat().getKey().toUpperCase());
-					Score score = objective.getScore(scoreName.length() > 16 ? scoreName.substring(0, 16) : scoreName);
-					score.setScore(stats.getStat(stat));
-				}
-				// add overall points and cash to scoreboard:
-				String overallPoints = Translator.getString("SCOREBOARD_MATCH_OVERALL_POINTS");
-				Score overallPointsScore = objective.getScore(overallPoints.length() > 16 ? overallPoints.substring(0, 16) : overallPoints);
-				overallPointsScore.setScore(stats.getPlayerStats().getStat(PlayerStat.POINTS));
-
-				String overallCash = Translator.getString("SCOREBOARD_MATCH_OVERALL_MONEY");
-				Score overallCashScore = objective.getScore(overallCash.length() > 16 ? overallCash.substring(0, 16) : overallCash);
-				overallCashScore.setScore(stats.getPlayerStats().getStat(PlayerStat.MONEY));
-			}
+			PlayerBoard matchBoard = scoreboards.get(playerId);
+			if (matchBoard != null) matchBoard.update();
 		}
 	}
 
@@ -849,6 +849,82 @@ public class Match {
 		matchStats.addStat(TDMMatchStat.AIRSTRIKES, 1, true);
 	}
 
+	// AMMO
+
+	private static class Ammo {
+		// -1 if the balls have to be counted from the inventory again
+		private int balls = -1;
+		// balls which got shot, but are not yet removed from the inventory
+		private int pendingRemoval = 0;
+	}
+
+	public boolean hasBalls(Player player, int amount) {
+		return setting_balls == -1 || this.getAmmo(player).balls >= amount;
+	}
+
+	// Takes the balls only from the counter, the inventory gets synced once during the next tick.
+	// Returns false if the player has not enough balls.
+	public boolean takeBalls(Player player, int amount) {
+		if (setting_balls == -1) return true;
+		Ammo playerAmmo = this.getAmmo(player);
+		if (playerAmmo.balls < amount) return false;
+		playerAmmo.balls -= amount;
+		playerAmmo.pendingRemoval += amount;
+		ammoToSync.add(player);
+		if (ammoSyncTask == null || !ammoSyncTask.isScheduled()) {
+			ammoSyncTask = plugin.tickScheduler.runTaskLater("ammo", new Runnable() {
+
+				@Override
+				public void run() {
+					syncAmmo();
+				}
+			}, 1L);
+		}
+		return true;
+	}
+
+	// Has to be called after balls got added to the player's inventory.
+	public void invalidateBalls(Player player) {
+		Ammo playerAmmo = ammo.get(player.getUniqueId());
+		if (playerAmmo != null) playerAmmo.balls = -1;
+	}
+
+	// after the inventory got cleared:
+	private void resetBalls(Player player) {
+		ammo.remove(player.getUniqueId());
+		ammoToSync.remove(player);
+	}
+
+	private Ammo getAmmo(Player player) {
+		UUID playerId = player.getUniqueId();
+		Ammo playerAmmo = ammo.get(playerId);
+		if (playerAmmo == null) {
+			playerAmmo = new Ammo();
+			ammo.put(playerId, playerAmmo);
+		}
+		if (playerAmmo.balls == -1) {
+			ItemStack ball = plugin.weaponManager.getBallHandler().getItem();
+			int balls = 0;
+			for (ItemStack itemStack : player.getInventory().getStorageContents()) {
+				if (itemStack != null && itemStack.isSimilar(ball)) balls += itemStack.getAmount();
+			}
+			playerAmmo.balls = Math.max(0, balls - playerAmmo.pendingRemoval);
+		}
+		return playerAmmo;
+	}
+
+	private void syncAmmo() {
+		ItemStack ball = plugin.weaponManager.getBallHandler().getItem();
+		for (Player player : ammoToSync) {
+			Ammo playerAmmo = ammo.get(player.getUniqueId());
+			if (playerAmmo == null || playerAmmo.pendingRemoval == 0) continue;
+			Utils.removeInventoryItems(player.getInventory(), ball, playerAmmo.pendingRemoval);
+			playerAmmo.pendingRemoval = 0;
+			player.updateInventory();
+		}
+		ammoToSync.clear();
+	}
+
 	public synchronized void onHitByBall(Player target, Player shooter, Origin origin) {
 		if (target == null || shooter == null || origin == null) {
 			throw new IllegalArgumentException("Something is null. That's not good.");
@@ -1143,8 +1219,11 @@ public class Match {
 
 	public void resetPlayerOnLeave(Player player) {
 		UUID playerId = player.getUniqueId();
+		resetBalls(player);
 		// remove match scoreboard again:
 		if (plugin.scoreboardMatch) {
+			PlayerBoard matchBoard = scoreboards.remove(playerId);
+			if (matchBoard != null) matchBoard.dispose();
 			Scoreboard prevScoreboard = prevScoreboards.get(playerId);
 			player.setScoreboard(prevScoreboard != null ? prevScoreboard : Bukkit.getScoreboardManager().getMainScoreboard());
 		}
@@ -13,7 +13,6 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
@@ -32,6 +31,7 @@ import de.blablubbabc.paintball.utils.Utils;
 public class MatchManager {
 
 	private final Paintball plugin;
+	// several matches can run at the same time, on different arenas:
 	private final List<Match> matches = new ArrayList<Match>();
 
 	private Timer countdown;
@@ -103,6 +103,7 @@ public class MatchManager {
 			match.updateTags();
 			matches.remove(match);
 		}
+		ParticipantRegistry.removeAllMatches();
 		// messages:
 		plugin.feeder.status(Translator.getString("ALL_KICKED_FROM_MATCHES"));
 		// stop countdown:
@@ -141,16 +142,21 @@ public class MatchManager {
 		int players = Lobby.RED.numberWaiting() + Lobby.BLUE.numberWaiting() + Lobby.RANDOM.numberWaiting();
 		String info = plugin.feeder.getPlayersOverview();
 
-		for (Player player : Lobby.RANDOM.getMembers()) {
+		// only the waiting players: the others are playing in other matches
+		Set<Player> red = Lobby.RED.getWaitingMembers();
+		Set<Player> blue = Lobby.BLUE.getWaitingMembers();
+		Set<Player> spec = Lobby.SPECTATE.getWaitingMembers();
+		Set<Player> random = Lobby.RANDOM.getWaitingMembers();
+		for (Player player : random) {
 			Lobby.RANDOM.setPlaying(player);
 		}
-		for (Player player : Lobby.BLUE.getMembers()) {
+		for (Player player : blue) {
 			Lobby.BLUE.setPlaying(player);
 		}
-		for (Player player : Lobby.RED.getMembers()) {
+		for (Player player : red) {
 			Lobby.RED.setPlaying(player);
 		}
-		for (Player player : Lobby.SPECTATE.getMembers()) {
+		for (Player player : spec) {
 			Lobby.SPECTATE.setPlaying(player);
 		}
 
@@ -158,15 +164,18 @@ public class MatchManager {
 		plugin.arenaManager.resetNext();
 		plugin.arenaManager.setActive(arena);
 
+		Match match = new Match(plugin, red, blue, spec, random, arena);
+		matches.add(match);
+		for (Player player : match.getAll()) {
+			ParticipantRegistry.setMatch(player, match);
+		}
+
 		Map<String, String> vars = new HashMap<String, String>();
 		vars.put("arena", arena);
-		plugin.feeder.status(Translator.getString("MATCH_START_ARENA", vars));
+		plugin.feeder.status(match, Translator.getString("MATCH_START_ARENA", vars));
 		vars.put("players", String.valueOf(players));
 		vars.put("players_overview", info);
-		plugin.feeder.status(Translator.getString("MATCH_START_PLAYERS_OVERVIEW", vars));
-
-		Match match = new Match(plugin, Lobby.RED.getMembers(), Lobby.BLUE.getMembers(), Lobby.SPECTATE.getMembers(), Lobby.RANDOM.getMembers(), arena);
-		matches.add(match);
+		plugin.feeder.status(match, Translator.getString("MATCH_START_PLAYERS_OVERVIEW", vars));
 	}
 
 	public synchronized void gameEnd(final Match match, boolean draw, Map<UUID, Location> playersLoc, Set<Player> specs, Map<UUID, TDMMatchStats> matchStats) {
@@ -225,7 +234,8 @@ public class MatchManager {
 				vaultRewards.put(player, String.valueOf(vaultReward));
 
 				// AFK DETECTION
-				if (Lobby.isPlaying(player)) {
+				// (players which already left this match might be playing in another match now)
+				if (Lobby.isPlaying(player) && getMatch(player) == match) {
 					// afk detection update on match end
 					TDMMatchStats playerMatchStats = matchStats.get(playerId);
 					if (plugin.afkDetection && !match.isSpec(player)) {
@@ -245,7 +255,7 @@ public class MatchManager {
 
 			} else {
 				// SPECTATOR:
-				if (Lobby.isSpectating(player)) {
+				if (Lobby.isSpectating(player) && getMatch(player) == match) {
 					// TELEPORT SPECTATOR TO LOBBY:
 					plugin.playerManager.enterLobby(player);
 				}
@@ -261,6 +271,9 @@ public class MatchManager {
 			for (UUID afkPlayerId : afkPlayerIds) {
 				Player player = plugin.getServer().getPlayer(afkPlayerId);
 				if (player != null) {
+					// playing in another match:
+					Match playerMatch = getMatch(player);
+					if (playerMatch != null && playerMatch != match) continue;
 					if (!playersLoc.containsKey(afkPlayerId)) {
 						plugin.afkRemove(afkPlayerId);
 					} else if (plugin.afkGet(afkPlayerId) >= plugin.afkMatchAmount) {
@@ -294,52 +307,42 @@ public class MatchManager {
 		}
 
 		// SAVE PLAYER STATS TO DATABASE
-		Paintball.addAsyncTask();
-		Bukkit.getScheduler().runTaskAsynchronously(plugin, new Runnable() {
+		// queued stats get written by the stats writer, in one batch:
+		for (Player player : match.getAllPlayer()) {
+			PlayerStats stats = plugin.playerManager.getPlayerStats(player.getUniqueId());
+			stats.saveAsync();
+			// if player not in lobby and not in match -> stats no longer needed:
+			if (!Lobby.LOBBY.isMember(player) && getMatch(player) == null) plugin.playerManager.unloadPlayerStats(player.getUniqueId());
+		}
+		plugin.statsWriter.flush();
 
-			@Override
+		// close match in the next tick:
+		Utils.runTask(plugin, new Runnable() {
 			public void run() {
-				boolean auto = plugin.sql.getAutoCommit();
-				plugin.sql.setAutoCommit(false);
-
-				for (Player player : match.getAllPlayer()) {
-					PlayerStats stats = plugin.playerManager.getPlayerStats(player.getUniqueId());
-					stats.save();
-					// if player not in lobby and not in match -> stats no longer needed:
-					if (!Lobby.LOBBY.isMember(player) && getMatch(player) == null) plugin.playerManager.unloadPlayerStats(player.getUniqueId());
+				// close match
+				plugin.arenaManager.setNotActive(match.getArena());
+				match.updateTags();
+				matches.remove(match);
+				for (Player player : match.getAll()) {
+					ParticipantRegistry.removeMatch(player, match);
 				}
-				plugin.sql.commit();
-				plugin.sql.setAutoCommit(auto);
-
-				// sync:
-				Utils.runTask(plugin, new Runnable() {
-					public void run() {
-						// close match
-						plugin.arenaManager.setNotActive(match.getArena());
-						match.updateTags();
-						matches.remove(match);
-						// ready? countdown?
-						plugin.feeder.status(Translator.getString("CHOOSE_TEAM"));
-
-						// players:
-						plugin.feeder.players();
-
-						if (ready().equalsIgnoreCase(Translator.getString("READY"))) {
-							countdown(plugin.countdown, plugin.countdownInit);
-						} else {
-							plugin.feeder.status(ready());
-						}
-						// TIME
-						if (plugin.debug) {
-							double delta = (System.nanoTime() - time1) / 10E6;
-							DecimalFormat dec = new DecimalFormat("#.###");
-							plugin.feeder.text("+Async Stats Saving: Took " + dec.format(delta) + " ms");
-						}
-					}
-				});
+				// ready? countdown?
+				plugin.feeder.status(Translator.getString("CHOOSE_TEAM"));
 
-				// done:
-				Paintball.removeAsyncTask();
+				// players:
+				plugin.feeder.players();
+
+				if (ready().equalsIgnoreCase(Translator.getString("READY"))) {
+					countdown(plugin.countdown, plugin.countdownInit);
+				} else {
+					plugin.feeder.status(ready());
+				}
+				// TIME
+				if (plugin.debug) {
+					double delta = (System.nanoTime() - time1) / 10E6;
+					DecimalFormat dec = new DecimalFormat("#.###");
+					plugin.feeder.text("+Match Closing: Took " + dec.format(delta) + " ms");
+				}
 			}
 		});
 
@@ -365,10 +368,10 @@ public class MatchManager {
 
 		// messages:
 		Map<String, String> vars = new HashMap<String, String>();
-		plugin.feeder.text("-------------------------------------------------");
-		plugin.feeder.status(Translator.getString("MATCH_IS_OVER"));
+		plugin.feeder.text(match, "-------------------------------------------------");
+		plugin.feeder.status(match, Translator.getString("MATCH_IS_OVER"));
 		if (draw) {
-			plugin.feeder.text(Translator.getString("MATCH_DRAW"));
+			plugin.feeder.text(match, Translator.getString("MATCH_DRAW"));
 		} else {
 			vars.put("winner_color", match.win.color().toString());
 			vars.put("winner", match.win.getName());
@@ -376,27 +379,27 @@ public class MatchManager {
 			vars.put("looser_color", match.loose.color().toString());
 			vars.put("looser", match.loose.getName());
 			vars.put("looser_size", String.valueOf(match.loosers.size()));
-			plugin.feeder.text(Translator.getString("WINNER_TEAM", vars));
+			plugin.feeder.text(match, Translator.getString("WINNER_TEAM", vars));
 
 			vars.put("points", String.valueOf(plugin.pointsPerWin));
 			vars.put("money", String.valueOf(plugin.cashPerWin));
-			plugin.feeder.text(Translator.getString("WINNER_BONUS", vars));
+			plugin.feeder.text(match, Translator.getString("WINNER_BONUS", vars));
 		}
 
 		vars.put("points", String.valueOf(plugin.pointsPerRound));
 		vars.put("money", String.valueOf(plugin.cashPerRound));
-		plugin.feeder.text(Translator.getString("ROUND_BONUS", vars));
+		plugin.feeder.text(match, Translator.getString("ROUND_BONUS", vars));
 
-		plugin.feeder.text(Translator.getString("MATCH_STATS"));
+		plugin.feeder.text(match, Translator.getString("MATCH_STATS"));
 		vars.put("shots", String.valueOf(shotsAll));
 		vars.put("hits", String.valueOf(hitsAll));
 		vars.put("teamattacks", String.valueOf(teamattacksAll));
 		vars.put("kills", String.valueOf(killsAll));
-		plugin.feeder.text(Translator.getString("MATCH_SHOTS", vars));
-		plugin.feeder.text(Translator.getString("MATCH_HITS", vars));
-		plugin.feeder.text(Translator.getString("MATCH_TEAMATTACKS", vars));
-		plugin.feeder.text(Translator.getString("MATCH_KILLS", vars));
-		plugin.feeder.text("-------------------------------------------------");
+		plugin.feeder.text(match, Translator.getString("MATCH_SHOTS", vars));
+		plugin.feeder.text(match, Translator.getString("MATCH_HITS", vars));
+		plugin.feeder.text(match, Translator.getString("MATCH_TEAMATTACKS", vars));
+		plugin.feeder.text(match, Translator.getString("MATCH_KILLS", vars));
+		plugin.feeder.text(match, "-------------------------------------------------");
 		if (!draw) {
 			for (final Player p : match.winners) {
 				if (Lobby.LOBBY.isMember(p)) {
@@ -474,11 +477,18 @@ public class MatchManager {
 		return false;
 	}
 
-	public synchronized Match getMatch(Player player) {
-		for (Match match : matches) {
-			if (match.inMatch(player)) return match;
+	// can be called from any thread
+	public Match getMatch(Player player) {
+		return ParticipantRegistry.getMatch(player);
+	}
+
+	// lobby members which are currently not in a match
+	private List<Player> getWaitingLobbyMembers() {
+		List<Player> waiting = new ArrayList<Player>();
+		for (Player player : Lobby.LOBBY.getMembers()) {
+			if (this.getMatch(player) == null) waiting.add(player);
 		}
-		return null;
+		return waiting;
 	}
 
 	/*
@@ -495,8 +505,8 @@ public class MatchManager {
 		if (softCheck()) plugin.reload(null);
 		// activated?
 		if (!plugin.active) return Translator.getString("NEW_MATCHES_DISABLED");
-		// no game active
-		if (matches.size() > 0) return Translator.getString("ACTIVE_MATCH");
+		// no more matches allowed at the same time
+		if (matches.size() >= plugin.maxConcurrentMatches) return Translator.getString("ACTIVE_MATCH");
 		// 1 player in each team waiting for game or 2 randoms (or mix)
 		int players = Lobby.RED.numberWaiting() + Lobby.BLUE.numberWaiting() + Lobby.RANDOM.numberWaiting();
 		if (players >= plugin.minPlayers && ((Lobby.BLUE.numberWaiting() >= 1 && Lobby.RED.numberWaiting() >= 1) || (Lobby.RANDOM.numberWaiting() >= 2) || (Lobby.RANDOM.numberWaiting() >= 1 && Lobby.RED.numberWaiting() >= 1) || (Lobby.RANDOM.numberWaiting() >= 1 && Lobby.BLUE.numberWaiting() >= 1))) {
@@ -515,12 +525,12 @@ public class MatchManager {
 				voteManager.broadcastVoteOptions();
 			}
 
-			countdown = new Timer(plugin, 20 * initial, 20L, time, new Runnable() {
+			countdown = new Timer(20 * initial, 20L, time, new Runnable() {
 
 				@Override
 				public void run() {
 					if (plugin.useXPBar) {
-						for (Player player : Lobby.LOBBY.getMembers()) {
+						for (Player player : getWaitingLobbyMembers()) {
 							player.setLevel(countdown.getTime());
 						}
 					}
@@ -541,7 +551,7 @@ public class MatchManager {
 					}
 
 					if (countdown.getTime() <= 5) {
-						for (Player player : Lobby.LOBBY.getMembers()) {
+						for (Player player : getWaitingLobbyMembers()) {
 							player.playSound(player.getLocation(), Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 0.5F, 1.0F);
 						}
 					}
@@ -557,7 +567,7 @@ public class MatchManager {
 				@Override
 				public void run() {
 					if (plugin.useXPBar) {
-						for (Player player : Lobby.LOBBY.getMembers()) {
+						for (Player player : getWaitingLobbyMembers()) {
 							player.setLevel(countdown.getTime());
 						}
 					}
@@ -565,7 +575,7 @@ public class MatchManager {
 
 					String status = ready();
 					if (status.equalsIgnoreCase(Translator.getString("READY"))) {
-						for (Player player : Lobby.LOBBY.getMembers()) {
+						for (Player player : getWaitingLobbyMembers()) {
 							player.playSound(player.getLocation(), Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 1.0F, 2.0F);
 						}
 
@@ -575,7 +585,7 @@ public class MatchManager {
 						// start match
 						gameStart(selectedArena);
 					} else {
-						for (Player player : Lobby.LOBBY.getMembers()) {
+						for (Player player : getWaitingLobbyMembers()) {
 							player.playSound(player.getLocation(), Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 1.0F, 0.0F);
 						}
 
@@ -4,13 +4,18 @@
  */
 package de.blablubbabc.paintball;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 import de.blablubbabc.paintball.utils.KeyValuePair;
+import de.blablubbabc.paintball.utils.TickTask;
 import de.blablubbabc.paintball.utils.Translator;
 import de.blablubbabc.paintball.utils.spigot.SpigotUtils;
 
@@ -20,6 +25,12 @@ public class Newsfeeder {
 	private String pluginName;
 	private String feedColor;
 
+	// rendered feed lines, which get sent together with the next tick:
+	private final List<FeedLine> pendingLines = new ArrayList<FeedLine>();
+	private TickTask sendTask = null;
+	// reused for collecting the lines of each recipient:
+	private final List<String> recipientLines = new ArrayList<String>();
+
 	public Newsfeeder(Paintball pl) {
 		plugin = pl;
 		pluginName = Translator.getString("PLUGIN");
@@ -34,50 +45,125 @@ public class Newsfeeder {
 		return feedColor;
 	}
 
+	// BROADCASTING
+
+	// Each message gets rendered once by the caller, and is then sent to all lobby members (which
+	// have not toggled the feed, unless untoggled is set). If match is not null, only to the
+	// lobby members of that match.
+	private void broadcast(String message, boolean untoggled, Match match) {
+		this.queue(new FeedLine(message, untoggled, match, null));
+	}
+
+	// Messages to single players get queued as well, so that they arrive in order with the
+	// broadcasts of the same tick.
+	private void send(CommandSender sender, String message) {
+		if (sender instanceof Player) {
+			this.queue(new FeedLine(message, true, null, (Player) sender));
+		} else {
+			sender.sendMessage(message);
+		}
+	}
+
+	private void queue(FeedLine line) {
+		pendingLines.add(line);
+		if (plugin.currentlyDisabling || !plugin.isEnabled()) {
+			// no next tick to wait for:
+			sendPending();
+		} else if (sendTask == null || !sendTask.isScheduled()) {
+			sendTask = plugin.tickScheduler.runTaskLater("feed", new Runnable() {
+
+				@Override
+				public void run() {
+					sendPending();
+				}
+			}, 1L);
+		}
+	}
+
+	// all lines of the same tick get sent to each recipient with one message
+	private void sendPending() {
+		if (pendingLines.isEmpty()) return;
+		Set<Player> recipients = new LinkedHashSet<Player>(Lobby.LOBBY.getMembers());
+		for (FeedLine line : pendingLines) {
+			if (line.recipient != null) recipients.add(line.recipient);
+		}
+		for (Player player : recipients) {
+			boolean member = Lobby.LOBBY.isMember(player);
+			boolean toggled = member && Lobby.toggledFeed(player);
+			for (FeedLine line : pendingLines) {
+				if (line.recipient != null) {
+					if (line.recipient != player) continue;
+				} else {
+					if (!member || (toggled && !line.untoggled)) continue;
+					if (line.match != null && !isRecipient(player, line.match)) continue;
+				}
+				recipientLines.add(line.message);
+			}
+			if (!recipientLines.isEmpty()) {
+				if (player.isOnline()) SpigotUtils.sendLines(player, recipientLines);
+				recipientLines.clear();
+			}
+		}
+		pendingLines.clear();
+	}
+
+	// players which left the match, and are now in another match, are no longer recipients
+	private boolean isRecipient(Player player, Match match) {
+		if (!match.getAll().contains(player)) return false;
+		Match currentMatch = plugin.matchManager.getMatch(player);
+		return currentMatch == null || currentMatch == match;
+	}
+
+	private static class FeedLine {
+
+		private final String message;
+		private final boolean untoggled;
+		private final Match match;
+		// only sent to this player, if not null:
+		private final Player recipient;
+
+		private FeedLine(String message, boolean untoggled, Match match, Player recipient) {
+			this.message = message;
+			this.untoggled = untoggled;
+			this.match = match;
+			this.recipient = recipient;
+		}
+	}
+
 	// METHODS
 	public void join(String name) {
 		Map<String, String> vars = new HashMap<String, String>();
 		vars.put("plugin", pluginName);
 		vars.put("player", name);
-		for (Player player : Lobby.LOBBY.getMembers()) {
-			if (!Lobby.toggledFeed(player)) player.sendMessage(Translator.getString("LOBBY_JOIN", vars));
-		}
+		broadcast(Translator.getString("LOBBY_JOIN", vars), false, null);
 	}
 
 	public void leave(String name) {
 		Map<String, String> vars = new HashMap<String, String>();
 		vars.put("plugin", pluginName);
 		vars.put("player", name);
-		for (Player player : Lobby.LOBBY.getMembers()) {
-			if (!Lobby.toggledFeed(player)) player.sendMessage(Translator.getString("LOBBY_LEAVE", vars));
-		}
+		broadcast(Translator.getString("LOBBY_LEAVE", vars), false, null);
 	}
 
 	public void tip(String message) {
 		Map<String, String> vars = new HashMap<String, String>();
 		vars.put("plugin", pluginName);
 		vars.put("message", message);
-		for (Player player : Lobby.LOBBY.getMembers()) {
-			player.sendMessage(Translator.getString("TIP", vars));
-		}
+		broadcast(Translator.getString("TIP", vars), true, null);
 	}
 
 	public void counter(int counter) {
 		Map<String, String> vars = new HashMap<String, String>();
 		vars.put("plugin", pluginName);
 		vars.put("seconds", String.valueOf(counter));
-		for (Player player : Lobby.LOBBY.getMembers()) {
-			if (!Lobby.toggledFeed(player)) player.sendMessage(Translator.getString("COUNTDOWN", vars));
-		}
+		broadcast(Translator.getString("COUNTDOWN", vars), false, null);
 	}
 
-	public void roundTime(int time) {
+	public void roundTime(Match match, int time) {
 		Map<String, String> vars = new HashMap<String, String>();
 		vars.put("plugin", pluginName);
 		vars.put("seconds", String.valueOf(time));
-		for (Player player : Lobby.LOBBY.getMembers()) {
-			player.sendMessage(Translator.getString("MATCH_REMAINING_TIME", vars));
-		}
+		broadcast(Translator.getString("MATCH_REMAINING_TIME", vars), true, match);
 	}
 
 	public void text(String message) {
@@ -104,35 +190,42 @@ public class Newsfeeder {
 		text(sender, true, message);
 	}
 
+	// only to the players and spectators of the given match
+	public void text(Match match, String message) {
+		broadcast(formatText(false, message), false, match);
+	}
+
 	private void text(boolean withPaintballPrefix, String message) {
-		for (Player player : Lobby.LOBBY.getMembers()) {
-			if (!Lobby.toggledFeed(player)) text(player, withPaintballPrefix, message);
-		}
+		broadcast(formatText(withPaintballPrefix, message), false, null);
 	}
 
 	private void textUntoggled(boolean withPaintballPrefix, String message) {
-		for (Player player : Lobby.LOBBY.getMembers()) {
-			text(player, withPaintballPrefix, message);
-		}
+		broadcast(formatText(withPaintballPrefix, message), true, null);
 	}
 
 	private void text(CommandSender sender, boolean withPaintballPrefix, String message) {
-		if (withPaintballPrefix) {
-			sender.sendMessage(pluginName + " " + Translator.getString("TEXT", new KeyValuePair("plugin", pluginName), new KeyValuePair("message", message)));
-		} else {
-			sender.sendMessage(Translator.getString("TEXT", new KeyValuePair("plugin", pluginName), new KeyValuePair("message", message)));
-		}
+		this.send(sender, formatText(withPaintballPrefix, message));
+	}
+
+	private String formatText(boolean withPaintballPrefix, String message) {
+		String text = Translator.getString("TEXT", new KeyValuePair("plugin", pluginName), new KeyValuePair("message", message));
+		return withPaintballPrefix ? pluginName + " " + text : text;
 	}
 
 	public void clickableText(CommandSender sender, String command, String message) {
 		String formatted = Translator.getString("TEXT", new KeyValuePair("plugin", pluginName), new KeyValuePair("message", message));
+		// can't be queued, so the queued lines get sent first:
+		this.sendPending();
 		SpigotUtils.sendClickableText(sender, command, formatted);
 	}
 
 	public void status(String message) {
-		for (Player player : Lobby.LOBBY.getMembers()) {
-			if (!Lobby.toggledFeed(player)) status(player, message);
-		}
+		broadcast(formatStatus(message), false, null);
+	}
+
+	// only to the players and spectators of the given match
+	public void status(Match match, String message) {
+		broadcast(formatStatus(message), false, match);
 	}
 
 	public String happyhour(int seconds) {
@@ -143,19 +236,25 @@ public class Newsfeeder {
 	}
 
 	public void status(CommandSender sender, String message) {
-		sender.sendMessage(Translator.getString("MATCH_STATUS", new KeyValuePair("plugin", pluginName), new KeyValuePair("message", message)));
+		this.send(sender, formatStatus(message));
+	}
+
+	private String formatStatus(String message) {
+		return Translator.getString("MATCH_STATUS", new KeyValuePair("plugin", pluginName), new KeyValuePair("message", message));
 	}
 
 	public void players() {
-		for (Player player : Lobby.LOBBY.getMembers()) {
-			if (!Lobby.toggledFeed(player)) players(player);
-		}
+		broadcast(formatPlayers(), false, null);
 	}
 
 	public void players(CommandSender sender) {
+		this.send(sender, formatPlayers());
+	}
+
+	private String formatPlayers() {
 		Map<String, String> vars = new HashMap<String, String>();
 		vars.put("needed_players_overview", getNeededPlayers());
-		sender.sendMessage(Translator.getString("WAITING_PLAYERS_OVERVIEW", vars));
+		return Translator.getString("WAITING_PLAYERS_OVERVIEW", vars);
 	}
 
 	public String getPlayersOverview() {
@@ -187,9 +286,7 @@ public class Newsfeeder {
 		vars.put("plugin", pluginName);
 		vars.put("target_color", match.getTeamLobby(target).color().toString());
 		vars.put("target", target.getName());
-		for (Player player : Lobby.LOBBY.getMembers()) {
-			if (!Lobby.toggledFeed(player)) player.sendMessage(Translator.getString("PLAYER_DIED", vars));
-		}
+		broadcast(Translator.getString("PLAYER_DIED", vars), false, match);
 	}
 
 	public void afkLeave(Player target, Match match) {
@@ -197,8 +294,6 @@ public class Newsfeeder {
 		vars.put("plugin", pluginName);
 		vars.put("player_color", match.getTeamLobby(target).color().toString());
 		vars.put("player", target.getName());
-		for (Player player : Lobby.LOBBY.getMembers()) {
-			if (!Lobby.toggledFeed(player)) player.sendMessage(Translator.getString("PLAYER_AFK", vars));
-		}
+		broadcast(Translator.getString("PLAYER_AFK", vars), false, match);
 	}
 }
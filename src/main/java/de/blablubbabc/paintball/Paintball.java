@@ -32,19 +32,32 @@ import de.blablubbabc.paintball.features.InSignsFeature;
 import de.blablubbabc.paintball.features.PaintballPlaceholders;
 import de.blablubbabc.paintball.features.VaultRewardsFeature;
 import de.blablubbabc.paintball.features.VoteListener;
+import de.blablubbabc.paintball.gadgets.BlockVisuals;
 import de.blablubbabc.paintball.gadgets.Gift;
+import de.blablubbabc.paintball.gadgets.LineOfSight;
 import de.blablubbabc.paintball.gadgets.WeaponManager;
 import de.blablubbabc.paintball.metrics.PluginMetrics;
+import de.blablubbabc.paintball.scoreboards.ScoreboardEngine;
 import de.blablubbabc.paintball.shop.ShopManager;
+import de.blablubbabc.paintball.statistics.player.PlayerLeaderboards;
+import de.blablubbabc.paintball.statistics.player.PlayerRankIndex;
+import de.blablubbabc.paintball.statistics.player.PlayerStatsWriter;
 import de.blablubbabc.paintball.thirdparty.util.Updater;
 import de.blablubbabc.paintball.thirdparty.util.Updater.UpdateType;
 import de.blablubbabc.paintball.utils.Log;
 import de.blablubbabc.paintball.utils.PluginUtils;
 import de.blablubbabc.paintball.utils.TeleportManager;
+import de.blablubbabc.paintball.utils.TickScheduler;
 import de.blablubbabc.paintball.utils.Translator;
 import de.blablubbabc.paintball.utils.Utils;
 
-import de.blablubbabc.BlaDB.BlaSQLite;
+import de.blablubbabc.BlaDB.H2Storage;
+import de.blablubbabc.BlaDB.JdbcStorage;
+import de.blablubbabc.BlaDB.MySQLStorage;
+import de.blablubbabc.BlaDB.SQLiteProfile;
+import de.blablubbabc.BlaDB.SQLiteStorage;
+import de.blablubbabc.BlaDB.Storage;
+import de.blablubbabc.BlaDB.StorageType;
 import de.blablubbabc.commandsigns.CommandSignsListener;
 
 public class Paintball extends JavaPlugin {
@@ -101,7 +114,11 @@ public class Paintball extends JavaPlugin {
 	public Stats statsManager;
 	public RankManager rankManager;
 	public WeaponManager weaponManager;
+	public LineOfSight lineOfSight;
+	public BlockVisuals blockVisuals;
 	public InSignsFeature insignsFeature;
+	public TickScheduler tickScheduler;
+	public ScoreboardEngine scoreboardEngine;
 
 	private VaultRewardsFeature vaultRewardsFeature;
 	private PaintballPlaceholders paintballPlaceholders;
@@ -139,6 +156,7 @@ public class Paintball extends JavaPlugin {
 	public int roundTimer;
 	public int minPlayers;
 	public int maxPlayers;
+	public int maxConcurrentMatches;
 	public boolean arenaRotationRandom;
 	public int lives;
 	public int respawns;
@@ -355,7 +373,29 @@ public class Paintball extends JavaPlugin {
 	public double grenade2Speed;
 	public double grenade2ShrapnelSpeed;
 
-	public BlaSQLite sql;
+	public Storage storage;
+	public PlayerStatsWriter statsWriter;
+	public PlayerLeaderboards leaderboards;
+	public PlayerRankIndex rankIndex;
+
+	// stats saving:
+	public int statsFlushIntervalTicks;
+	public int statsMaxBatchSize;
+	public int leaderboardsReloadIntervalSeconds;
+
+	// database:
+	public StorageType storageType;
+	public String mysqlHost;
+	public int mysqlPort;
+	public String mysqlDatabase;
+	public String mysqlUser;
+	public String mysqlPassword;
+	public SQLiteProfile sqliteProfile;
+	public int sqliteCacheSizeKiB;
+	public int sqliteMmapSizeMiB;
+	public int sqliteBusyTimeoutMillis;
+	public int sqliteCheckpointIntervalSeconds;
+	public int sqliteReadConnections;
 
 	// public BlaDB data;
 
@@ -369,6 +409,10 @@ public class Paintball extends JavaPlugin {
 		// enabled warnings logging:
 		Log.logWarnings(true);
 
+		// TICK SCHEDULER
+		tickScheduler = new TickScheduler(this);
+		tickScheduler.start();
+
 		// CONFIG
 		this.reloadConfig();
 		ArrayList<String> goodsDef = new ArrayList<String>();
@@ -444,6 +488,22 @@ public class Paintball extends JavaPlugin {
 		if (!getConfig().isBoolean("Paintball.UUID Conversion.Use UUIDCollector data")) getConfig().set("Paintball.UUID Conversion.Use UUIDCollector data", new File(this.getDataFolder().getParentFile(), "UUIDCollector").exists());
 		if (!getConfig().isBoolean("Paintball.UUID Conversion.Use local player data")) getConfig().set("Paintball.UUID Conversion.Use local player data", true);
 
+		if (getConfig().get("Server.Stats Saving.Flush Interval in Ticks") == null) getConfig().set("Server.Stats Saving.Flush Interval in Ticks", 40);
+		if (getConfig().get("Server.Stats Saving.Max Batch Size") == null) getConfig().set("Server.Stats Saving.Max Batch Size", 100);
+		if (getConfig().get("Server.Stats Saving.Leaderboards Reload Interval in Seconds") == null) getConfig().set("Server.Stats Saving.Leaderboards Reload Interval in Seconds", 300);
+		if (getConfig().get("Server.Database.Type (SQLITE, H2, MYSQL)") == null) getConfig().set("Server.Database.Type (SQLITE, H2, MYSQL)", StorageType.SQLITE.name());
+		if (getConfig().get("Server.Database.MySQL.Host") == null) getConfig().set("Server.Database.MySQL.Host", "localhost");
+		if (getConfig().get("Server.Database.MySQL.Port") == null) getConfig().set("Server.Database.MySQL.Port", 3306);
+		if (getConfig().get("Server.Database.MySQL.Database") == null) getConfig().set("Server.Database.MySQL.Database", "paintball");
+		if (getConfig().get("Server.Database.MySQL.User") == null) getConfig().set("Server.Database.MySQL.User", "paintball");
+		if (getConfig().get("Server.Database.MySQL.Password") == null) getConfig().set("Server.Database.MySQL.Password", "");
+		if (getConfig().get("Server.Database.Durability Profile (SAFE, BALANCED, FAST)") == null) getConfig().set("Server.Database.Durability Profile (SAFE, BALANCED, FAST)", SQLiteProfile.SAFE.name());
+		if (getConfig().get("Server.Database.Cache Size in KiB") == null) getConfig().set("Server.Database.Cache Size in KiB", 2000);
+		if (getConfig().get("Server.Database.Memory Map Size in MiB") == null) getConfig().set("Server.Database.Memory Map Size in MiB", 0);
+		if (getConfig().get("Server.Database.Busy Timeout in Milliseconds") == null) getConfig().set("Server.Database.Busy Timeout in Milliseconds", 5000);
+		if (getConfig().get("Server.Database.WAL Checkpoint Interval in Seconds") == null) getConfig().set("Server.Database.WAL Checkpoint Interval in Seconds", 60);
+		if (getConfig().get("Server.Database.Read Connections (WAL only)") == null) getConfig().set("Server.Database.Read Connections (WAL only)", 2);
+
 		if (getConfig().get("Paintball.No Permissions") == null) getConfig().set("Paintball.No Permissions", false);
 		if (getConfig().get("Paintball.Debug") == null) getConfig().set("Paintball.Debug", false);
 		if (getConfig().get("Paintball.VoteListener.enabled") == null) getConfig().set("Paintball.VoteListener.enabled", true);
@@ -562,6 +622,7 @@ public class Paintball extends JavaPlugin {
 		if (getConfig().get("Paintball.Match.Balls") == null) getConfig().set("Paintball.Match.Balls", 50);
 		if (getConfig().get("Paintball.Match.Minimum players") == null) getConfig().set("Paintball.Match.Minimum players", 2);
 		if (getConfig().get("Paintball.Match.Maximum players") == null) getConfig().set("Paintball.Match.Maximum players", 1000);
+		if (getConfig().get("Paintball.Match.Maximum concurrent matches") == null) getConfig().set("Paintball.Match.Maximum concurrent matches", 1);
 		if (getConfig().get("Paintball.Match.Countdown.Time") == null) getConfig().set("Paintball.Match.Countdown.Time", 20);
 		if (getConfig().get("Paintball.Match.Countdown.Delay") == null) getConfig().set("Paintball.Match.Countdown.Delay", 10);
 		if (getConfig().get("Paintball.Match.Countdown Round Start.Time") == null) getConfig().set("Paintball.Match.Countdown Round Start.Time", 5);
@@ -666,6 +727,41 @@ public class Paintball extends JavaPlugin {
 		// server
 		versionCheck = getConfig().getBoolean("Server.Version Check", true);
 		metrics = getConfig().getBoolean("Server.Metrics", true);
+		statsFlushIntervalTicks = getConfig().getInt("Server.Stats Saving.Flush Interval in Ticks", 40);
+		if (statsFlushIntervalTicks < 1) statsFlushIntervalTicks = 1;
+		statsMaxBatchSize = getConfig().getInt("Server.Stats Saving.Max Batch Size", 100);
+		if (statsMaxBatchSize < 1) statsMaxBatchSize = 1;
+		leaderboardsReloadIntervalSeconds = getConfig().getInt("Server.Stats Saving.Leaderboards Reload Interval in Seconds", 300);
+		if (leaderboardsReloadIntervalSeconds < 0) leaderboardsReloadIntervalSeconds = 0;
+
+		// database:
+		String storageTypeName = getConfig().getString("Server.Database.Type (SQLITE, H2, MYSQL)", StorageType.SQLITE.name());
+		storageType = StorageType.getFromName(storageTypeName);
+		if (storageType == null) {
+			Log.warning("Unknown database type '" + storageTypeName + "'. Using " + StorageType.SQLITE.name() + " now.");
+			storageType = StorageType.SQLITE;
+		}
+		mysqlHost = getConfig().getString("Server.Database.MySQL.Host", "localhost");
+		mysqlPort = getConfig().getInt("Server.Database.MySQL.Port", 3306);
+		mysqlDatabase = getConfig().getString("Server.Database.MySQL.Database", "paintball");
+		mysqlUser = getConfig().getString("Server.Database.MySQL.User", "paintball");
+		mysqlPassword = getConfig().getString("Server.Database.MySQL.Password", "");
+		String sqliteProfileName = getConfig().getString("Server.Database.Durability Profile (SAFE, BALANCED, FAST)", SQLiteProfile.SAFE.name());
+		sqliteProfile = SQLiteProfile.getFromName(sqliteProfileName);
+		if (sqliteProfile == null) {
+			Log.warning("Unknown database durability profile '" + sqliteProfileName + "'. Using " + SQLiteProfile.SAFE.name() + " now.");
+			sqliteProfile = SQLiteProfile.SAFE;
+		}
+		sqliteCacheSizeKiB = getConfig().getInt("Server.Database.Cache Size in KiB", 2000);
+		if (sqliteCacheSizeKiB < 0) sqliteCacheSizeKiB = 0;
+		sqliteMmapSizeMiB = getConfig().getInt("Server.Database.Memory Map Size in MiB", 0);
+		if (sqliteMmapSizeMiB < 0) sqliteMmapSizeMiB = 0;
+		sqliteBusyTimeoutMillis = getConfig().getInt("Server.Database.Busy Timeout in Milliseconds", 5000);
+		if (sqliteBusyTimeoutMillis < 0) sqliteBusyTimeoutMillis = 0;
+		sqliteCheckpointIntervalSeconds = getConfig().getInt("Server.Database.WAL Checkpoint Interval in Seconds", 60);
+		if (sqliteCheckpointIntervalSeconds < 0) sqliteCheckpointIntervalSeconds = 0;
+		sqliteReadConnections = getConfig().getInt("Server.Database.Read Connections (WAL only)", 2);
+		if (sqliteReadConnections < 0) sqliteReadConnections = 0;
 
 		// uuid conversion:
 		uuidOnlineMode = getConfig().getBoolean("Paintball.UUID Conversion.Online Mode");
@@ -756,6 +852,8 @@ public class Paintball extends JavaPlugin {
 		if (minPlayers < 2) minPlayers = 2;
 		maxPlayers = getConfig().getInt("Paintball.Match.Maximum players", 1000);
 		if (maxPlayers < 2) maxPlayers = 2;
+		maxConcurrentMatches = getConfig().getInt("Paintball.Match.Maximum concurrent matches", 1);
+		if (maxConcurrentMatches < 1) maxConcurrentMatches = 1;
 
 		// countdown:
 		countdown = getConfig().getInt("Paintball.Match.Countdown.Time", 20);
@@ -997,12 +1095,21 @@ public class Paintball extends JavaPlugin {
 		// Load all plugin classes up front. This helps with hot reloads.
 		this.loadAllPluginClasses();
 
-		// SQLite database:
-		sql = new BlaSQLite(this);
-		if (sql.aborted) {
+		// Database:
+		storage = this.createStorage();
+		if (!storage.open()) {
+			storage.close();
+			storage = null;
 			Bukkit.getPluginManager().disablePlugin(this);
 			return;
 		}
+		storage.startMaintenanceTask(this, sqliteCheckpointIntervalSeconds);
+		statsWriter = new PlayerStatsWriter(this, statsFlushIntervalTicks, statsMaxBatchSize);
+		leaderboards = new PlayerLeaderboards(this);
+		leaderboards.reloadAllAsync();
+		leaderboards.startReloadTask(leaderboardsReloadIntervalSeconds);
+		rankIndex = new PlayerRankIndex(this);
+		rankIndex.reload();
 
 		// DB
 		loadLobbySpawnsFromDB();
@@ -1013,6 +1120,8 @@ public class Paintball extends JavaPlugin {
 			getServer().getPluginManager().disablePlugin(this);
 			return;
 		}
+		// SCOREBOARDS
+		scoreboardEngine = new ScoreboardEngine(this);
 		// MELODIES
 		musik = new Musician(this, melodyWin, winNbs, melodyDefeat, defeatNbs, melodyDraw, drawNbs);
 		if (!musik.success) {
@@ -1026,6 +1135,10 @@ public class Paintball extends JavaPlugin {
 		// Log is already init above
 		// Translator will be init below
 
+		// LINE OF SIGHT CHECKS
+		lineOfSight = new LineOfSight(this);
+		// FAKE BLOCKS
+		blockVisuals = new BlockVisuals(this);
 		// WEAPON MANAGER
 		weaponManager = new WeaponManager();
 		// INIT WEAPONS
@@ -1228,7 +1341,7 @@ public class Paintball extends JavaPlugin {
 
 	public void onDisable() {
 		currentlyDisabling = true;
-		if (!sql.aborted) {
+		if (storage != null) {
 			matchManager.forceReload();
 		}
 
@@ -1256,8 +1369,22 @@ public class Paintball extends JavaPlugin {
 		long timeWaited = System.currentTimeMillis() - start;
 		if (timeWaited > 0) Log.info("Waited " + timeWaited + "ms for async (probably stats saving) tasks to finish.");
 
-		sql.closeConnection();
+		// write all remaining queued stats:
+		if (statsWriter != null) {
+			statsWriter.shutdown();
+			statsWriter = null;
+		}
+
+		if (arenaManager != null) arenaManager.shutdown();
+		if (lineOfSight != null) lineOfSight.shutdown();
+
+		if (tickScheduler != null) tickScheduler.stop();
 		Bukkit.getScheduler().cancelTasks(this);
+		if (storage != null) {
+			Log.info(storage.getCommitLatencyInfo());
+			storage.close();
+			storage = null;
+		}
 		HandlerList.unregisterAll(this);
 		Log.info("Disabled!");
 		currentlyDisabling = false;
@@ -1265,6 +1392,25 @@ public class Paintball extends JavaPlugin {
 		instance = null;
 	}
 
+	// the configured storage, or SQLite if the driver of the configured database is missing
+	private Storage createStorage() {
+		if (storageType != StorageType.SQLITE && !JdbcStorage.loadDriver(storageType)) {
+			Log.severe("Could not find the " + storageType.name() + " driver class (" + storageType.getDriverClass() + ")!", true);
+			Log.severe("Add the driver to the server's classpath to use " + storageType.name() + ". Using " + StorageType.SQLITE.name() + " now.", true);
+			storageType = StorageType.SQLITE;
+		}
+		switch (storageType) {
+		case H2:
+			return new H2Storage(getDataFolder(), sqliteBusyTimeoutMillis, sqliteReadConnections);
+		case MYSQL:
+			return new MySQLStorage(mysqlHost, mysqlPort, mysqlDatabase, mysqlUser, mysqlPassword, sqliteBusyTimeoutMillis, sqliteReadConnections);
+		case SQLITE:
+		default:
+			JdbcStorage.loadDriver(StorageType.SQLITE);
+			return new SQLiteStorage(getDataFolder(), sqliteProfile, sqliteCacheSizeKiB, sqliteMmapSizeMiB, sqliteBusyTimeoutMillis, sqliteReadConnections);
+		}
+	}
+
 	public void reload(CommandSender sender) {
 		this.onDisable();
 		this.onEnable();
@@ -1278,18 +1424,18 @@ public class Paintball extends JavaPlugin {
 	// METHODS LOBBYSPAWNS
 	private void loadLobbySpawnsFromDB() {
 		lobbyspawns = new ArrayList<Location>();
-		for (Location loc : sql.sqlArenaLobby.getLobbyspawns()) {
+		for (Location loc : storage.getArenas().getLobbyspawns()) {
 			lobbyspawns.add(loc);
 		}
 	}
 
 	public void addLobbySpawn(Location loc) {
 		lobbyspawns.add(loc);
-		sql.sqlArenaLobby.addLobbyspawn(loc);
+		storage.getArenas().addLobbyspawn(loc);
 	}
 
 	public void deleteLobbySpawns() {
-		sql.sqlArenaLobby.removeLobbyspawns();
+		storage.getArenas().removeLobbyspawns();
 		lobbyspawns = new LinkedList<Location>();
 	}
 
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball;
+
+import java.util.UUID;
+
+/**
+ * Immutable state of a player inside the paintball lobby. Changes create a modified copy, which
+ * replaces this state inside the {@link ParticipantRegistry}.
+ */
+public final class Participant {
+
+	private final UUID playerUUID;
+	private final boolean inLobby;
+	// RED, BLUE, RANDOM, SPECTATE or null
+	private final Lobby team;
+	// playing or spectating inside the match, instead of waiting for the next match
+	private final boolean playing;
+	private final Match match;
+
+	Participant(UUID playerUUID, boolean inLobby, Lobby team, boolean playing, Match match) {
+		this.playerUUID = playerUUID;
+		this.inLobby = inLobby;
+		this.team = team;
+		this.playing = playing;
+		this.match = match;
+	}
+
+	public UUID getPlayerUUID() {
+		return playerUUID;
+	}
+
+	public boolean isInLobby() {
+		return inLobby;
+	}
+
+	public Lobby getTeam() {
+		return team;
+	}
+
+	public boolean isPlaying() {
+		return playing;
+	}
+
+	public Match getMatch() {
+		return match;
+	}
+
+	// no state left, which needs to be kept
+	boolean isEmpty() {
+		return !inLobby && team == null && match == null;
+	}
+
+	// MODIFIED COPIES
+
+	Participant withInLobby(boolean inLobby) {
+		return new Participant(playerUUID, inLobby, team, playing, match);
+	}
+
+	Participant withTeam(Lobby team, boolean playing) {
+		return new Participant(playerUUID, inLobby, team, playing, match);
+	}
+
+	Participant withMatch(Match match) {
+		return new Participant(playerUUID, inLobby, team, playing, match);
+	}
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+import org.bukkit.entity.Player;
+
+/**
+ * Lobby state, team and match of every player inside the paintball lobby, by player uuid.
+ * <p>
+ * This is the lookup used by the event handlers: it gets kept up to date by {@link Lobby} and the
+ * {@link MatchManager}, and can be read from any thread.
+ */
+public final class ParticipantRegistry {
+
+	private static final Map<UUID, Participant> participants = new ConcurrentHashMap<UUID, Participant>();
+
+	private ParticipantRegistry() {
+	}
+
+	// GETTER
+
+	// returns null if the player is not inside the lobby and no match
+	public static Participant get(UUID playerUUID) {
+		return participants.get(playerUUID);
+	}
+
+	public static Participant get(Player player) {
+		return participants.get(player.getUniqueId());
+	}
+
+	public static Match getMatch(Player player) {
+		Participant participant = participants.get(player.getUniqueId());
+		return participant != null ? participant.getMatch() : null;
+	}
+
+	// SETTER
+
+	static void joinLobby(Player player) {
+		// a match, which the player has left before, is no longer the match of the player:
+		update(player.getUniqueId(), participant -> participant.withInLobby(true).withMatch(null));
+	}
+
+	static void leaveLobby(Player player) {
+		update(player.getUniqueId(), participant -> participant.withInLobby(false));
+	}
+
+	static void setTeam(Player player, Lobby team, boolean playing) {
+		update(player.getUniqueId(), participant -> participant.withTeam(team, playing));
+	}
+
+	// only removes the team, if the player is still in the given team
+	static void removeTeam(Player player, Lobby team) {
+		update(player.getUniqueId(), participant -> participant.getTeam() == team ? participant.withTeam(null, false) : participant);
+	}
+
+	static void setMatch(Player player, Match match) {
+		update(player.getUniqueId(), participant -> participant.withMatch(match));
+	}
+
+	// only removes the match, if the player is still in the given match
+	static void removeMatch(Player player, Match match) {
+		update(player.getUniqueId(), participant -> participant.getMatch() == match ? participant.withMatch(null) : participant);
+	}
+
+	static void removeAllMatches() {
+		for (UUID playerUUID : participants.keySet()) {
+			update(playerUUID, participant -> participant.withMatch(null));
+		}
+	}
+
+	private static void update(UUID playerUUID, UnaryOperator<Participant> change) {
+		participants.compute(playerUUID, (uuid, participant) -> {
+			if (participant == null) participant = new Participant(uuid, false, null, false, null);
+			Participant changed = change.apply(participant);
+			return changed.isEmpty() ? null : changed;
+		});
+	}
+}
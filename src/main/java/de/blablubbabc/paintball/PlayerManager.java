@@ -18,14 +18,11 @@ import org.bukkit.Location;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.entity.Player;
-import org.bukkit.scoreboard.DisplaySlot;
-import org.bukkit.scoreboard.Objective;
-import org.bukkit.scoreboard.Score;
-import org.bukkit.scoreboard.Scoreboard;
 
 import de.blablubbabc.paintball.joindelay.JoinWaitRunnable;
 import de.blablubbabc.paintball.joindelay.WaitTimer;
-import de.blablubbabc.paintball.statistics.player.PlayerStat;
+import de.blablubbabc.paintball.scoreboards.PlayerBoard;
+import de.blablubbabc.paintball.scoreboards.ScoreboardEngine;
 import de.blablubbabc.paintball.statistics.player.PlayerStats;
 import de.blablubbabc.paintball.utils.Callback;
 import de.blablubbabc.paintball.utils.KeyValuePair;
@@ -85,7 +82,8 @@ public class PlayerManager {
 		// Max Players Check:
 		if (!spec) {
 			if (!Lobby.inTeam(player) || Lobby.SPECTATE.isMember(player)) {
-				int players = Lobby.RED.number() + Lobby.BLUE.number() + Lobby.RANDOM.number();
+				// players of running matches don't count (the limit is per match):
+				int players = Lobby.RED.numberWaiting() + Lobby.BLUE.numberWaiting() + Lobby.RANDOM.numberWaiting();
 				if (players >= plugin.maxPlayers) {
 					player.sendMessage(Translator.getString("CANNOT_JOIN_TEAM_FULL"));
 					return;
@@ -179,7 +177,7 @@ public class PlayerManager {
 		return true;
 	}
 
-	private Map<UUID, Scoreboard> lobbyScoreboards = new HashMap<UUID, Scoreboard>();
+	private Map<UUID, PlayerBoard> lobbyScoreboards = new HashMap<UUID, PlayerBoard>();
 
 	private Map<UUID, WaitTimer> currentlyWaiting = new HashMap<UUID, WaitTimer>();
 	private List<UUID> currentlyLoading = new ArrayList<UUID>();
@@ -252,36 +250,27 @@ public class PlayerManager {
 	}
 
 	private void initLobbyScoreboard(Player player) {
-		UUID playerUUID = player.getUniqueId();
-		Scoreboard lobbyBoard = lobbyScoreboards.get(playerUUID);
+		final UUID playerUUID = player.getUniqueId();
+		PlayerBoard lobbyBoard = lobbyScoreboards.get(playerUUID);
 		if (lobbyBoard == null) {
-			lobbyBoard = Bukkit.getScoreboardManager().getNewScoreboard();
+			ScoreboardEngine engine = plugin.scoreboardEngine;
+			lobbyBoard = engine.createBoard(engine.getLobbyLayout(), Translator.getString("SCOREBOARD_LOBBY_HEADER"), values -> {
+				PlayerStats stats = getPlayerStats(playerUUID);
+				for (int i = 0; i < ScoreboardEngine.LOBBY_STATS.length; i++) {
+					values[i] = stats != null ? stats.getStat(ScoreboardEngine.LOBBY_STATS[i]) : 0;
+				}
+			});
 			lobbyScoreboards.put(playerUUID, lobbyBoard);
-
-			String header = Translator.getString("SCOREBOARD_LOBBY_HEADER");
-			if (header.length() > 32) header = header.substring(0, 32);
-			Objective objective = lobbyBoard.registerNewObjective("pbLobby", "dummy", header);
-			objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+		} else {
+			lobbyBoard.update();
 		}
-
-		updateLobbyScoreboard(playerUUID);
-		player.setScoreboard(lobbyBoard);
+		player.setScoreboard(lobbyBoard.getScoreboard());
 	}
 
+	// the board gets rendered with the next tick
 	public void updateLobbyScoreboard(UUID playerUUID) {
-		Scoreboard lobbyBoard = lobbyScoreboards.get(playerUUID);
-		if (lobbyBoard != null) {
-			Objective objective = lobbyBoard.getObjective(DisplaySlot.SIDEBAR);
-			if (objective == null) return;
-			PlayerStats stats = getPlayerStats(playerUUID);
-			for (PlayerStat stat : PlayerStat.values()) {
-				// skip airstrikes and grenades count:
-				if (stat == PlayerStat.AIRSTRIKES || stat == PlayerStat.GRENADES) continue;
-				String scoreName = Translator.getString("SCOREBOARD_LOBBY_" + stat.getKey().toUpperCase());
-				Score score = objective.getScore(scoreName.length() > 16 ? scoreName.substring(0, 16) : scoreName);
-				score.setScore(stats.getStat(stat));
-			}
-		}
+		PlayerBoard lobbyBoard = lobbyScoreboards.get(playerUUID);
+		if (lobbyBoard != null) lobbyBoard.update();
 	}
 
 	public void abortingJoinWaiting(Player player) {
@@ -338,7 +327,8 @@ public class PlayerManager {
 
 			// remove scoreboard for this player
 			if (plugin.scoreboardLobby) {
-				lobbyScoreboards.remove(playerUUID);
+				PlayerBoard lobbyBoard = lobbyScoreboards.remove(playerUUID);
+				if (lobbyBoard != null) lobbyBoard.dispose();
 			}
 
 			// messages:
@@ -377,7 +367,10 @@ public class PlayerManager {
 
 				@Override
 				public void run() {
-					playerStats.put(playerUUID, new PlayerStats(playerUUID));
+					// stats which have not yet been written are newer than the stored ones:
+					PlayerStats stats = plugin.statsWriter.getUnwritten(playerUUID);
+					if (stats == null) stats = new PlayerStats(playerUUID);
+					playerStats.put(playerUUID, stats);
 					if (runAfterwards != null) {
 						// run afterwards-task sync:
 						Utils.runTask(plugin, runAfterwards);
@@ -410,7 +403,8 @@ public class PlayerManager {
 			if (!isPlayerStillLocked(playerUUID)) {
 				// TODO this might currently load the stats synchronously if called for a player
 				// outside the lobby
-				if (exists(playerUUID)) stats = new PlayerStats(playerUUID);
+				stats = plugin.statsWriter.getUnwritten(playerUUID);
+				if (stats == null && exists(playerUUID)) stats = new PlayerStats(playerUUID);
 			} // else: return null
 		}
 		return stats;
@@ -494,7 +488,8 @@ public class PlayerManager {
 	 * @param player
 	 */
 	private void initPlayer(Player player) {
-		plugin.sql.sqlPlayers.initPlayer(player.getUniqueId(), player.getName());
+		plugin.storage.getPlayers().initPlayer(player.getUniqueId(), player.getName());
+		plugin.rankIndex.addPlayer(player.getUniqueId());
 	}
 
 	public void resetAllDataAsync() {
@@ -510,12 +505,10 @@ public class PlayerManager {
 	}
 
 	public void resetAllData() {
-		// reset stats in cache:
-		for (PlayerStats stats : playerStats.values()) {
-			stats.resetStats();
-		}
-		// reset in databse:
-		plugin.sql.sqlPlayers.resetAllPlayerStats();
+		// reset stats in cache and database, together with the queued stats:
+		plugin.statsWriter.resetAll(playerStats.values());
+		plugin.leaderboards.reloadAll();
+		plugin.rankIndex.reload();
 	}
 
 	/*
@@ -532,7 +525,7 @@ public class PlayerManager {
 
 	public boolean exists(UUID playerUUID) {
 		if (isPlayerStillLocked(playerUUID)) return true;
-		return plugin.sql.sqlPlayers.isPlayerExisting(playerUUID);
+		return plugin.storage.getPlayers().isPlayerExisting(playerUUID);
 	}
 
 	// STATS
@@ -568,11 +561,11 @@ public class PlayerManager {
 	// GETTER
 
 	public int getPlayersEverPlayedCount() {
-		return plugin.sql.sqlPlayers.getPlayersEverPlayedCount();
+		return plugin.storage.getPlayers().getPlayersEverPlayedCount();
 	}
 
 	public int getPlayerCount() {
-		return plugin.sql.sqlPlayers.getPlayerCount();
+		return plugin.storage.getPlayers().getPlayerCount();
 	}
 
 	/*
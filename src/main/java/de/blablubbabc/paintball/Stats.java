@@ -5,9 +5,8 @@
 package de.blablubbabc.paintball;
 
 import java.text.DecimalFormat;
-import java.util.AbstractMap.SimpleEntry;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -15,6 +14,7 @@ import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 
 import de.blablubbabc.paintball.statistics.general.GeneralStat;
+import de.blablubbabc.paintball.statistics.player.LeaderboardEntry;
 import de.blablubbabc.paintball.statistics.player.PlayerStat;
 import de.blablubbabc.paintball.statistics.player.PlayerStats;
 import de.blablubbabc.paintball.utils.Translator;
@@ -38,7 +38,7 @@ public class Stats {
 		Bukkit.getScheduler().runTaskAsynchronously(plugin, new Runnable() {
 			@Override
 			public void run() {
-				plugin.sql.sqlGeneralStats.addStats(stats);
+				plugin.storage.getGeneralStats().addStats(stats);
 				Paintball.removeAsyncTask();
 			}
 		});
@@ -49,7 +49,7 @@ public class Stats {
 		Bukkit.getScheduler().runTaskAsynchronously(plugin, new Runnable() {
 			@Override
 			public void run() {
-				plugin.sql.sqlGeneralStats.addStatsMatchEnd(stats, playerAmount);
+				plugin.storage.getGeneralStats().addStatsMatchEnd(stats, playerAmount);
 				Paintball.removeAsyncTask();
 			}
 		});
@@ -60,7 +60,7 @@ public class Stats {
 		Bukkit.getScheduler().runTaskAsynchronously(plugin, new Runnable() {
 			@Override
 			public void run() {
-				plugin.sql.sqlGeneralStats.setStats(stats);
+				plugin.storage.getGeneralStats().setStats(stats);
 				Paintball.removeAsyncTask();
 			}
 		});
@@ -68,11 +68,14 @@ public class Stats {
 
 	// GETTER
 	public Map<GeneralStat, Integer> getGerneralStats() {
-		return plugin.sql.sqlGeneralStats.getStats();
+		return plugin.storage.getGeneralStats().getStats();
 	}
 
 	public int getRank(UUID playerUUID, PlayerStat stat) {
-		return plugin.sql.sqlPlayers.getRank(playerUUID, stat);
+		int rank = plugin.rankIndex.getRank(playerUUID, stat);
+		// rank index not yet loaded, or unknown player:
+		if (rank == -1) rank = plugin.storage.getPlayers().getRank(playerUUID, stat);
+		return rank;
 	}
 
 	public void sendTop(final CommandSender sender, final String key) {
@@ -86,42 +89,23 @@ public class Stats {
 		}
 	}
 
+	// served from the leaderboards snapshot, without any database access
 	public void sendTop(final CommandSender sender, final PlayerStat stat) {
-		Paintball.addAsyncTask();
-		Bukkit.getScheduler().runTaskAsynchronously(plugin, new Runnable() {
-			@Override
-			public void run() {
-				Map<String, String> vars = new HashMap<String, String>();
-				vars.put("stats", stat.getKey());
-				LinkedHashMap<String, Integer> topStats = plugin.sql.sqlPlayers.getTop10Stats(stat);
-
-				String[] players = new String[topStats.size()];
-				int j = 0;
-				for (String name : topStats.keySet()) {
-					players[j++] = name;
-				}
-
-				Integer[] values = new Integer[topStats.size()];
-				j = 0;
-				for (Integer value : topStats.values()) {
-					values[j++] = value;
-				}
-
-				sender.sendMessage(Translator.getString("TOP_TEN", vars));
-				for (int i = 1; i <= 10; i++) {
-					if (i <= players.length) {
-						vars.put("rank", String.valueOf(i));
-						vars.put("player", players[i - 1]);
-						if (stat == PlayerStat.KD || stat == PlayerStat.HITQUOTE) {
-							float valueF = (float) values[i - 1] / 100;
-							vars.put("value", decimalFormat.format(valueF));
-						} else vars.put("value", String.valueOf(values[i - 1]));
-						sender.sendMessage(Translator.getString("TOP_TEN_ENTRY", vars));
-					} else break;
-				}
-				Paintball.removeAsyncTask();
-			}
-		});
+		Map<String, String> vars = new HashMap<String, String>();
+		vars.put("stats", stat.getKey());
+		List<LeaderboardEntry> topStats = plugin.leaderboards.getTop(stat);
+
+		sender.sendMessage(Translator.getString("TOP_TEN", vars));
+		for (int i = 1; i <= 10 && i <= topStats.size(); i++) {
+			LeaderboardEntry entry = topStats.get(i - 1);
+			vars.put("rank", String.valueOf(i));
+			vars.put("player", entry.getPlayerName());
+			if (stat == PlayerStat.KD || stat == PlayerStat.HITQUOTE) {
+				float valueF = (float) entry.getValue() / 100;
+				vars.put("value", decimalFormat.format(valueF));
+			} else vars.put("value", String.valueOf(entry.getValue()));
+			sender.sendMessage(Translator.getString("TOP_TEN_ENTRY", vars));
+		}
 	}
 
 	public void sendRank(final CommandSender sender, final UUID playerUUID, final String playerName, final String key) {
@@ -197,23 +181,21 @@ public class Stats {
 				vars.put("player", playerName);
 				PlayerStats stats = plugin.playerManager.getPlayerStats(playerUUID);
 				if (stats != null) {
-					// GET STATS
-					LinkedHashMap<PlayerStat, SimpleEntry<String, Integer>> topStats = plugin.sql.sqlPlayers.getTopStats();
-
 					// KD + HITQUOTE
 					float kdF = (float) stats.getStat(PlayerStat.KD) / 100;
 					float hitquoteF = (float) stats.getStat(PlayerStat.HITQUOTE) / 100;
-					// TOP
-					int kdT = topStats.get(PlayerStat.KD).getValue();
-					int hitquoteT = topStats.get(PlayerStat.HITQUOTE).getValue();
-					float kdFT = (float) kdT / 100;
-					float hitquoteFT = (float) hitquoteT / 100;
+					// TOP (from the leaderboards snapshot)
+					LeaderboardEntry kdTop = plugin.leaderboards.getFirst(PlayerStat.KD);
+					LeaderboardEntry hitquoteTop = plugin.leaderboards.getFirst(PlayerStat.HITQUOTE);
+					float kdFT = (float) (kdTop != null ? kdTop.getValue() : 0) / 100;
+					float hitquoteFT = (float) (hitquoteTop != null ? hitquoteTop.getValue() : 0) / 100;
 
 					for (PlayerStat stat : PlayerStat.values()) {
 						String key = stat.getKey();
+						LeaderboardEntry top = plugin.leaderboards.getFirst(stat);
 						vars.put(key, String.valueOf(stats.getStat(stat)));
-						vars.put("player_" + key + "_top", topStats.get(stat).getKey());
-						vars.put(key + "_top", String.valueOf(topStats.get(stat).getValue()));
+						vars.put("player_" + key + "_top", top != null ? top.getPlayerName() : "-");
+						vars.put(key + "_top", String.valueOf(top != null ? top.getValue() : 0));
 					}
 					// KD
 					vars.put("kd", decimalFormat.format(kdF));
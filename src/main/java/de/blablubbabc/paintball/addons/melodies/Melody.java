@@ -11,15 +11,18 @@ import java.util.List;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
+import de.blablubbabc.paintball.Paintball;
+import de.blablubbabc.paintball.utils.TickTask;
+
 public class Melody {
 
 	private List<Note> melody;
 	private long maxDelay;
-	private HashMap<String, Integer> playing;
+	private HashMap<String, TickTask> playing;
 
 	public Melody() {
 		melody = new ArrayList<Note>();
-		playing = new HashMap<String, Integer>();
+		playing = new HashMap<String, TickTask>();
 		maxDelay = 0;
 	}
 
@@ -36,7 +39,7 @@ public class Melody {
 
 	public void play(final Plugin plugin, final Player p) {
 		stop(plugin, p);
-		playing.put(p.getName(), plugin.getServer().getScheduler().scheduleSyncRepeatingTask(plugin, new Runnable() {
+		playing.put(p.getName(), Paintball.getInstance().tickScheduler.runTaskTimer("melodies", new Runnable() {
 			long delay = 0;
 
 			@Override
@@ -59,8 +62,7 @@ public class Melody {
 
 	public void stop(Plugin plugin, Player p) {
 		if (isPlaying(p)) {
-			plugin.getServer().getScheduler().cancelTask(playing.get(p.getName()));
-			playing.remove(p.getName());
+			playing.remove(p.getName()).cancel();
 		}
 	}
 
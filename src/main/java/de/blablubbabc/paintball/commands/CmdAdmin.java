@@ -84,6 +84,10 @@ public class CmdAdmin {
 					}
 				}
 				player.sendMessage("Snowballs: " + snowballs);
+				player.sendMessage(plugin.storage.getCommitLatencyInfo());
+				for (String line : plugin.tickScheduler.getInfo()) {
+					player.sendMessage("Tasks: " + line);
+				}
 				return true;
 			} else if (args[1].equalsIgnoreCase("play")) {
 				if (args.length == 3) {
@@ -44,7 +44,7 @@ public class InSignsFeature {
 				@Override
 				public String getValue(Player player, Location signLocation, String affectedLine) {
 					UUID playerUUID = player.getUniqueId();
-					if (!plugin.sql.isConnected()) {
+					if (!plugin.storage.isConnected()) {
 						return Translator.getString("NOT_CONNECTED");
 					} else {
 						PlayerStats stats = plugin.playerManager.getPlayerStats(playerUUID);
@@ -67,7 +67,7 @@ public class InSignsFeature {
 				@Override
 				public String getValue(Player player, Location signLocation, String affectedLine) {
 					UUID playerUUID = player.getUniqueId();
-					if (!plugin.sql.isConnected()) {
+					if (!plugin.storage.isConnected()) {
 						return Translator.getString("NOT_CONNECTED");
 					} else if (plugin.playerManager.exists(playerUUID)) {
 						return String.valueOf(plugin.statsManager.getRank(playerUUID, stat));
@@ -84,7 +84,7 @@ public class InSignsFeature {
 			@Override
 			public String getValue(Player player, Location signLocation, String affectedLine) {
 				UUID playerUUID = player.getUniqueId();
-				if (!plugin.sql.isConnected()) return Translator.getString("NOT_CONNECTED");
+				if (!plugin.storage.isConnected()) return Translator.getString("NOT_CONNECTED");
 				else if (plugin.playerManager.exists(playerUUID)) {
 					return String.valueOf(plugin.statsManager.getRank(playerUUID, PlayerStat.POINTS));
 				} else {
@@ -0,0 +1,298 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.gadgets;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+
+import de.blablubbabc.paintball.Paintball;
+import de.blablubbabc.paintball.utils.TickTask;
+
+/**
+ * Delivers fake (client-side only) blocks, like the markers of strikes, to the players.
+ * <p>
+ * Changes get collected per player and are sent once per tick, ordered by chunk section. Several
+ * changes of the same block within one tick are merged into one, and it is remembered which fake
+ * blocks each client currently has: changes which the client already has are not sent again, and
+ * reverting a block only sends the real block if the client actually got a fake block there.
+ * <p>
+ * The client drops fake blocks whenever it gets the real chunk again, which the server doesn't tell
+ * us about. So the fake blocks get sent again after teleports, respawns and chunk loads, and
+ * periodically.
+ */
+public class BlockVisuals implements Listener {
+
+	static class Change {
+
+		private final Block block;
+		// null to revert to the real block:
+		private final BlockData data;
+		// sent even if the client is assumed to already have it:
+		private final boolean resend;
+
+		Change(Block block, BlockData data) {
+			this(block, data, false);
+		}
+
+		private Change(Block block, BlockData data, boolean resend) {
+			this.block = block;
+			this.data = data;
+			this.resend = resend;
+		}
+	}
+
+	// The fake blocks of one client, and its pending changes.
+	static class ClientView {
+
+		private final World world;
+		// the fake blocks which the client currently has, by block key:
+		private final Map<Long, Change> fakes = new HashMap<Long, Change>();
+		// the changes of the current tick, by block key:
+		private final Map<Long, Change> changes = new HashMap<Long, Change>();
+
+		ClientView(World world) {
+			this.world = world;
+		}
+
+		boolean hasChanges() {
+			return !changes.isEmpty();
+		}
+
+		boolean hasFakes() {
+			return !fakes.isEmpty();
+		}
+
+		void queue(Change change) {
+			changes.put(blockKey(change.block), change);
+		}
+
+		// Sends the fake blocks, only those in the given chunk if not null, again with the next
+		// flush. The fake blocks stay remembered until then, so that reverts of the same tick still
+		// get sent. Returns true if there is anything to resend.
+		boolean resend(Chunk chunk) {
+			boolean resending = false;
+			for (Map.Entry<Long, Change> entry : fakes.entrySet()) {
+				Change fake = entry.getValue();
+				if (chunk != null && ((fake.block.getX() >> 4) != chunk.getX() || (fake.block.getZ() >> 4) != chunk.getZ())) continue;
+				Change pending = changes.get(entry.getKey());
+				// other pending changes get sent anyways:
+				if (pending == null || (pending.data != null && pending.data.equals(fake.data))) {
+					changes.put(entry.getKey(), new Change(fake.block, fake.data, true));
+					resending = true;
+				}
+			}
+			return resending;
+		}
+
+		void flush(Player player, int viewDistance) {
+			// group the changes by chunk section:
+			Map<Long, List<Change>> sections = new LinkedHashMap<Long, List<Change>>();
+			for (Change change : changes.values()) {
+				Long key = sectionKey(change.block);
+				List<Change> section = sections.get(key);
+				if (section == null) {
+					section = new ArrayList<Change>();
+					sections.put(key, section);
+				}
+				section.add(change);
+			}
+			changes.clear();
+
+			Location location = player.getLocation();
+			int chunkX = location.getBlockX() >> 4;
+			int chunkZ = location.getBlockZ() >> 4;
+			for (List<Change> section : sections.values()) {
+				Block first = section.get(0).block;
+				// the client doesn't have this chunk, and gets the real blocks once it gets the chunk:
+				boolean visible = Math.abs((first.getX() >> 4) - chunkX) <= viewDistance && Math.abs((first.getZ() >> 4) - chunkZ) <= viewDistance;
+				this.sendSection(player, section, visible);
+			}
+		}
+
+		// The Bukkit API has no multi block change, so the changes of one section are sent one after
+		// the other.
+		private void sendSection(Player player, List<Change> section, boolean visible) {
+			for (Change change : section) {
+				Long key = blockKey(change.block);
+				if (!visible) {
+					fakes.remove(key);
+					continue;
+				}
+				if (change.data == null) {
+					if (fakes.remove(key) == null) continue;
+					player.sendBlockChange(change.block.getLocation(), change.block.getBlockData());
+				} else {
+					Change fake = fakes.get(key);
+					if (!change.resend && fake != null && change.data.equals(fake.data)) continue;
+					fakes.put(key, change);
+					player.sendBlockChange(change.block.getLocation(), change.data);
+				}
+			}
+		}
+	}
+
+	private static final long RESEND_PERIOD = 100L;
+	// time for the client to receive the chunks around its new location:
+	private static final long RESEND_DELAY = 20L;
+
+	private final Map<UUID, ClientView> views = new HashMap<UUID, ClientView>();
+	private TickTask task = null;
+	private TickTask resendTask = null;
+
+	public BlockVisuals(Paintball plugin) {
+		plugin.getServer().getPluginManager().registerEvents(this, plugin);
+	}
+
+	// shows the given block data to the player, until it gets reverted
+	public void setFake(Player player, Block block, BlockData data) {
+		this.queue(player, new Change(block, data));
+	}
+
+	// shows the real block to the player again
+	public void revert(Player player, Block block) {
+		this.queue(player, new Change(block, null));
+	}
+
+	private void queue(Player player, Change change) {
+		World world = player.getWorld();
+		if (!change.block.getWorld().equals(world)) return;
+		ClientView view = views.get(player.getUniqueId());
+		if (view == null || !view.world.equals(world)) {
+			// the client has no fake blocks:
+			if (change.data == null) return;
+			view = new ClientView(world);
+			views.put(player.getUniqueId(), view);
+		}
+		view.queue(change);
+		this.scheduleFlush();
+		this.startResendTask();
+	}
+
+	private void scheduleFlush() {
+		// all changes of the same tick share one task:
+		if (task == null || !task.isScheduled()) {
+			task = Paintball.getInstance().tickScheduler.runTaskLater("block visuals", new Runnable() {
+
+				@Override
+				public void run() {
+					flush();
+				}
+			}, 1L);
+		}
+	}
+
+	private void startResendTask() {
+		if (resendTask != null && resendTask.isScheduled()) return;
+		resendTask = Paintball.getInstance().tickScheduler.runTaskTimer("block visuals", new Runnable() {
+
+			@Override
+			public void run() {
+				if (views.isEmpty()) {
+					resendTask.cancel();
+					return;
+				}
+				boolean resending = false;
+				for (ClientView view : views.values()) {
+					resending |= view.resend(null);
+				}
+				if (resending) scheduleFlush();
+			}
+		}, RESEND_PERIOD, RESEND_PERIOD);
+	}
+
+	private void resendLater(Player player) {
+		final UUID playerUUID = player.getUniqueId();
+		if (!views.containsKey(playerUUID)) return;
+		Paintball.getInstance().tickScheduler.runTaskLater("block visuals", new Runnable() {
+
+			@Override
+			public void run() {
+				ClientView view = views.get(playerUUID);
+				if (view != null && view.resend(null)) scheduleFlush();
+			}
+		}, RESEND_DELAY);
+	}
+
+	// packs the block coordinates into one long: 26 bits x, 26 bits z, 12 bits y
+	private static long blockKey(Block block) {
+		return ((long) (block.getX() & 0x3FFFFFF) << 38) | ((long) (block.getZ() & 0x3FFFFFF) << 12) | (block.getY() & 0xFFF);
+	}
+
+	private static long sectionKey(Block block) {
+		return ((long) ((block.getX() >> 4) & 0x3FFFFF) << 42) | ((long) ((block.getZ() >> 4) & 0x3FFFFF) << 20) | ((block.getY() >> 4) & 0xFFFFF);
+	}
+
+	private void flush() {
+		int viewDistance = Bukkit.getViewDistance();
+		Iterator<Map.Entry<UUID, ClientView>> iterator = views.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<UUID, ClientView> entry = iterator.next();
+			ClientView view = entry.getValue();
+			if (!view.hasChanges()) continue;
+			Player player = Bukkit.getPlayer(entry.getKey());
+			if (player == null || !player.getWorld().equals(view.world)) {
+				iterator.remove();
+				continue;
+			}
+			view.flush(player, viewDistance);
+			if (!view.hasFakes()) iterator.remove();
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerQuit(PlayerQuitEvent event) {
+		views.remove(event.getPlayer().getUniqueId());
+	}
+
+	// the client drops all chunks of the old world:
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onWorldChange(PlayerChangedWorldEvent event) {
+		views.remove(event.getPlayer().getUniqueId());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onTeleport(PlayerTeleportEvent event) {
+		Location to = event.getTo();
+		// world changes are handled above:
+		if (to == null || !event.getFrom().getWorld().equals(to.getWorld())) return;
+		this.resendLater(event.getPlayer());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onRespawn(PlayerRespawnEvent event) {
+		this.resendLater(event.getPlayer());
+	}
+
+	// clients near the chunk get it sent again:
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onChunkLoad(ChunkLoadEvent event) {
+		if (views.isEmpty()) return;
+		Chunk chunk = event.getChunk();
+		for (ClientView view : views.values()) {
+			if (view.world.equals(chunk.getWorld()) && view.resend(chunk)) this.scheduleFlush();
+		}
+	}
+}
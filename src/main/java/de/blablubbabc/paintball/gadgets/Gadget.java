@@ -4,18 +4,24 @@
  */
 package de.blablubbabc.paintball.gadgets;
 
-import org.bukkit.Bukkit;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
-import org.bukkit.plugin.Plugin;
 
 import de.blablubbabc.paintball.Match;
 import de.blablubbabc.paintball.Origin;
 import de.blablubbabc.paintball.Paintball;
+import de.blablubbabc.paintball.utils.TickTask;
 
 public abstract class Gadget {
 
+	// gadgets which get removed from their gadgetManager with the next tick:
+	private static final List<Gadget> pendingRemovals = new ArrayList<Gadget>();
+	private static TickTask removalTask = null;
+
 	private final GadgetManager gadgetManager;
 
 	protected final Origin origin;
@@ -23,6 +29,10 @@ public abstract class Gadget {
 	protected final Player player;
 	protected boolean valid = true;
 
+	// the keys this gadget is indexed with inside the gadgetManager:
+	int trackedEntityId = -1;
+	Long trackedBlock = null;
+
 	protected Gadget(GadgetManager gadgetManager, Match match, Player player, Origin origin) {
 		this.gadgetManager = gadgetManager;
 		this.match = match;
@@ -54,6 +64,16 @@ public abstract class Gadget {
 		return player.getUniqueId();
 	}*/
 
+	// Has to be called once the entity of this gadget is known, to be found via that entity.
+	protected void trackEntity(Entity entity) {
+		gadgetManager.trackEntity(match, this, entity);
+	}
+
+	// Has to be called once the block of this gadget is known, to be found via that location.
+	protected void trackBlock(Location location) {
+		gadgetManager.trackBlock(match, this, location);
+	}
+
 	public abstract boolean isSimiliar(Entity entity);
 
 	public abstract boolean isSimiliar(Location location);
@@ -73,7 +93,7 @@ public abstract class Gadget {
 	public void dispose(boolean removeFromGadgetHandlerTracking) {
 		if (removeFromGadgetHandlerTracking && valid) {
 			valid = false;
-			Plugin plugin = Paintball.getInstance();
+			Paintball plugin = Paintball.getInstance();
 			if (plugin.isEnabled()) {
 				// Remove delayed:
 				// This resolves some issue with the order of the ProjectileHitEvent (which cleans
@@ -81,15 +101,22 @@ public abstract class Gadget {
 				// is a gadget, having changed in MC 1.16.
 				// The delayed removal allows those other events, after the ProjectileHitEvent, to
 				// check if the entity is a gadget.
-				// TODO Improve this to not create and schedule a new task for every gadget removal.
-				// Maybe use one cleanup task.
-				Bukkit.getScheduler().runTask(plugin, () -> {
-					gadgetManager.removeGadget(match, player.getUniqueId(), this);
-				});
+				// All removals of the same tick share one task:
+				pendingRemovals.add(this);
+				if (removalTask == null || !removalTask.isScheduled()) {
+					removalTask = plugin.tickScheduler.runTaskLater("gadget removals", Gadget::removePending, 1L);
+				}
 			} else {
 				// If the plugin is currently getting disabled, remove immediately:
 				gadgetManager.removeGadget(match, player.getUniqueId(), this);
 			}
 		}
 	}
+
+	private static void removePending() {
+		for (Gadget gadget : pendingRemovals) {
+			gadget.gadgetManager.removeGadget(gadget.match, gadget.player.getUniqueId(), gadget);
+		}
+		pendingRemovals.clear();
+	}
 }
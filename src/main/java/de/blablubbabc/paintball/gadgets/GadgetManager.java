@@ -6,9 +6,10 @@ package de.blablubbabc.paintball.gadgets;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Location;
@@ -214,18 +215,39 @@ public class GadgetManager {
 		}
 	}
 
+	// INDEX
+
+	void trackEntity(Match match, Gadget gadget, Entity entity) {
+		MatchEntry matchEntry = gadgets.get(match);
+		if (matchEntry != null) matchEntry.trackEntity(gadget, entity.getEntityId());
+	}
+
+	void trackBlock(Match match, Gadget gadget, Location location) {
+		MatchEntry matchEntry = gadgets.get(match);
+		if (matchEntry != null) matchEntry.trackBlock(gadget, blockKey(location));
+	}
+
+	// packs the block coordinates into one long: 26 bits x, 26 bits z, 12 bits y
+	private static long blockKey(Location location) {
+		return ((long) (location.getBlockX() & 0x3FFFFFF) << 38) | ((long) (location.getBlockZ() & 0x3FFFFFF) << 12) | (location.getBlockY() & 0xFFF);
+	}
+
 	private class MatchEntry {
 		private int overallMatchCounter = 0;
-		private Map<UUID, List<Gadget>> matchPlayerGadgets = new HashMap<>();
+		// the gadgets of each player, in insertion ordered sets, which allow constant time removals:
+		private Map<UUID, Set<Gadget>> matchPlayerGadgets = new HashMap<>();
+		// the gadgets by the entity id and the block coordinates they got tracked with:
+		private Map<Integer, Gadget> entityGadgets = new HashMap<>();
+		private Map<Long, Gadget> blockGadgets = new HashMap<>();
 
 		private MatchEntry() {
 
 		}
 
 		private void addMatchGadget(UUID playerId, Gadget gadget) {
-			List<Gadget> playerGadgets = matchPlayerGadgets.get(playerId);
+			Set<Gadget> playerGadgets = matchPlayerGadgets.get(playerId);
 			if (playerGadgets == null) {
-				playerGadgets = new ArrayList<Gadget>();
+				playerGadgets = new LinkedHashSet<Gadget>();
 				matchPlayerGadgets.put(playerId, playerGadgets);
 			}
 			playerGadgets.add(gadget);
@@ -234,10 +256,11 @@ public class GadgetManager {
 
 		// returns true, if gadget was found and removed
 		private boolean removeMatchGadget(UUID playerId, Gadget gadget) {
-			List<Gadget> playerGadgets = matchPlayerGadgets.get(playerId);
+			Set<Gadget> playerGadgets = matchPlayerGadgets.get(playerId);
 			if (playerGadgets != null) {
 				if (playerGadgets.remove(gadget)) {
 					if (playerGadgets.size() == 0) matchPlayerGadgets.remove(playerId);
+					this.untrack(gadget);
 					overallMatchCounter--;
 					return true;
 				}
@@ -246,64 +269,50 @@ public class GadgetManager {
 		}
 
 		private List<Gadget> getMatchGadgets(UUID playerId) {
-			List<Gadget> playerGadgets = matchPlayerGadgets.get(playerId);
-			if (playerGadgets == null) {
-				playerGadgets = new ArrayList<Gadget>();
-			}
-			return playerGadgets;
+			Set<Gadget> playerGadgets = matchPlayerGadgets.get(playerId);
+			return playerGadgets == null ? new ArrayList<Gadget>() : new ArrayList<Gadget>(playerGadgets);
+		}
+
+		// INDEX
+
+		private void trackEntity(Gadget gadget, int entityId) {
+			if (gadget.trackedEntityId != -1) entityGadgets.remove(gadget.trackedEntityId, gadget);
+			gadget.trackedEntityId = entityId;
+			entityGadgets.put(entityId, gadget);
+		}
+
+		private void trackBlock(Gadget gadget, long blockKey) {
+			if (gadget.trackedBlock != null) blockGadgets.remove(gadget.trackedBlock, gadget);
+			gadget.trackedBlock = blockKey;
+			blockGadgets.put(blockKey, gadget);
+		}
+
+		private void untrack(Gadget gadget) {
+			if (gadget.trackedEntityId != -1) entityGadgets.remove(gadget.trackedEntityId, gadget);
+			if (gadget.trackedBlock != null) blockGadgets.remove(gadget.trackedBlock, gadget);
 		}
 
 		// COMPARE TO ENTITY
 
 		private Gadget getGadget(Entity entity) {
-			for (Entry<UUID, List<Gadget>> playerEntry : matchPlayerGadgets.entrySet()) {
-				List<Gadget> playerGadgets = playerEntry.getValue();
-				for (Gadget gadget : playerGadgets) {
-					if (gadget.isSimiliar(entity)) {
-						return gadget;
-					}
-				}
-			}
-			return null;
+			return entityGadgets.get(entity.getEntityId());
 		}
 
 		private Gadget getGadget(Entity entity, UUID playerId) {
-			List<Gadget> playerGadgets = matchPlayerGadgets.get(playerId);
-			if (playerGadgets != null) {
-				for (Gadget gadget : playerGadgets) {
-					if (gadget.isSimiliar(entity)) {
-						return gadget;
-					}
-				}
-			}
-			return null;
+			Gadget gadget = entityGadgets.get(entity.getEntityId());
+			return gadget != null && gadget.getPlayer().getUniqueId().equals(playerId) ? gadget : null;
 		}
 
 		// COMPARE TO LOCATION (BLOCK)
 
 		private Gadget getGadget(Location location) {
-			for (Entry<UUID, List<Gadget>> playerEntry : matchPlayerGadgets.entrySet()) {
-				List<Gadget> playerGadgets = playerEntry.getValue();
-				for (Gadget gadget : playerGadgets) {
-					if (gadget.isSimiliar(location)) {
-						return gadget;
-					}
-				}
-			}
-
-			return null;
+			Gadget gadget = blockGadgets.get(blockKey(location));
+			return gadget != null && gadget.isSimiliar(location) ? gadget : null;
 		}
 
 		private Gadget getGadget(Location location, UUID playerId) {
-			List<Gadget> playerGadgets = matchPlayerGadgets.get(playerId);
-			if (playerGadgets != null) {
-				for (Gadget gadget : playerGadgets) {
-					if (gadget.isSimiliar(location)) {
-						return gadget;
-					}
-				}
-			}
-			return null;
+			Gadget gadget = this.getGadget(location);
+			return gadget != null && gadget.getPlayer().getUniqueId().equals(playerId) ? gadget : null;
 		}
 
 		private int getMatchGadgetCount() {
@@ -311,16 +320,17 @@ public class GadgetManager {
 		}
 
 		private int getMatchPlayerGadgetCount(UUID playerId) {
-			List<Gadget> playerGadgets = matchPlayerGadgets.get(playerId);
+			Set<Gadget> playerGadgets = matchPlayerGadgets.get(playerId);
 			return playerGadgets == null ? 0 : playerGadgets.size();
 		}
 
 		private int cleanUp(UUID playerId) {
-			List<Gadget> playerGadgets = matchPlayerGadgets.remove(playerId);
+			Set<Gadget> playerGadgets = matchPlayerGadgets.remove(playerId);
 			int gadgetsRemoved = 0;
 			if (playerGadgets != null) {
 				gadgetsRemoved = playerGadgets.size();
 				for (Gadget gadget : playerGadgets) {
+					this.untrack(gadget);
 					gadget.dispose(false);
 				}
 			}
@@ -330,12 +340,14 @@ public class GadgetManager {
 
 		private int cleanUp() {
 			for (UUID playerId : matchPlayerGadgets.keySet()) {
-				List<Gadget> playerGadgets = matchPlayerGadgets.get(playerId);
+				Set<Gadget> playerGadgets = matchPlayerGadgets.get(playerId);
 				for (Gadget gadget : playerGadgets) {
 					gadget.dispose(false);
 				}
 			}
 			matchPlayerGadgets = new HashMap<>();
+			entityGadgets = new HashMap<>();
+			blockGadgets = new HashMap<>();
 			int gadgetsRemoved = overallMatchCounter;
 			overallMatchCounter = 0;
 			return gadgetsRemoved;
@@ -0,0 +1,404 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.gadgets;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+import de.blablubbabc.paintball.Paintball;
+import de.blablubbabc.paintball.utils.Log;
+import de.blablubbabc.paintball.utils.TickTask;
+
+/**
+ * Answers line of sight checks of gadgets on a pool of worker threads.
+ * <p>
+ * The checks walk the blocks along the line inside immutable chunk snapshots. Snapshots get taken
+ * on the main thread when they are first needed, and are dropped again once a block changes inside
+ * their chunk, or once they get too old (for changes which don't cause an event). The checks of one
+ * tick get handed to the workers in batches, and the results get passed to the callbacks on the
+ * main thread, during one of the next ticks.
+ */
+public class LineOfSight implements Listener {
+
+	private static final int BATCH_SIZE = 32;
+	// snapshots get taken again after this time, in case they missed a change:
+	private static final long MAX_SNAPSHOT_AGE_MILLIS = 2000L;
+
+	// called on the main thread
+	public interface Callback {
+
+		public void onResult(boolean visible);
+	}
+
+	private interface CellVisitor {
+
+		// returns false to stop the walk
+		public boolean visit(int x, int y, int z);
+	}
+
+	private static class Snapshot {
+
+		private final ChunkSnapshot snapshot;
+		private final long created;
+
+		private Snapshot(ChunkSnapshot snapshot, long created) {
+			this.snapshot = snapshot;
+			this.created = created;
+		}
+	}
+
+	private static class Query {
+
+		private final double fromX, fromY, fromZ;
+		private final double toX, toY, toZ;
+		private final int ignoredX, ignoredY, ignoredZ;
+		private final boolean ignoreBlock;
+		private final boolean solidOnly;
+		private final Callback callback;
+		// the snapshots of all chunks along the line:
+		private Map<Long, ChunkSnapshot> chunks;
+		private boolean visible;
+
+		private Query(Location from, Location to, Block ignoredBlock, boolean solidOnly, Callback callback) {
+			this.fromX = from.getX();
+			this.fromY = from.getY();
+			this.fromZ = from.getZ();
+			this.toX = to.getX();
+			this.toY = to.getY();
+			this.toZ = to.getZ();
+			this.ignoreBlock = ignoredBlock != null;
+			this.ignoredX = ignoreBlock ? ignoredBlock.getX() : 0;
+			this.ignoredY = ignoreBlock ? ignoredBlock.getY() : 0;
+			this.ignoredZ = ignoreBlock ? ignoredBlock.getZ() : 0;
+			this.solidOnly = solidOnly;
+			this.callback = callback;
+		}
+	}
+
+	private final ExecutorService workers;
+	// snapshots by world and chunk:
+	private final Map<UUID, Map<Long, Snapshot>> snapshots = new HashMap<UUID, Map<Long, Snapshot>>();
+	private long lastSweep = 0L;
+
+	// queries of the current tick, which have not yet been handed to the workers:
+	private final List<Query> pending = new ArrayList<Query>();
+	private final List<World> pendingWorlds = new ArrayList<World>();
+	// finished batches, which are waiting to be passed to the callbacks:
+	private final Queue<List<Query>> finished = new ConcurrentLinkedQueue<List<Query>>();
+	private int batchesInProgress = 0;
+	private TickTask task = null;
+
+	public LineOfSight(Paintball plugin) {
+		int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+		workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+			private int count = 0;
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "Paintball Line of Sight #" + (++count));
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		plugin.getServer().getPluginManager().registerEvents(this, plugin);
+	}
+
+	// drops all remaining checks, without calling their callbacks
+	public void shutdown() {
+		workers.shutdownNow();
+		if (task != null) {
+			task.cancel();
+			task = null;
+		}
+		pending.clear();
+		pendingWorlds.clear();
+		finished.clear();
+		snapshots.clear();
+	}
+
+	/**
+	 * Checks if there are no blocks between the given locations (which have to be in the same
+	 * world). The result is passed to the callback during one of the next ticks.
+	 *
+	 * @param from
+	 *            the start of the line
+	 * @param to
+	 *            the end of the line
+	 * @param ignoredBlock
+	 *            a block which never blocks the view, or null
+	 * @param solidOnly
+	 *            whether only solid blocks block the view, or all blocks besides air
+	 * @param callback
+	 *            gets the result on the main thread
+	 */
+	public void check(Location from, Location to, Block ignoredBlock, boolean solidOnly, Callback callback) {
+		pending.add(new Query(from, to, ignoredBlock, solidOnly, callback));
+		pendingWorlds.add(from.getWorld());
+		if (task == null) {
+			task = Paintball.getInstance().tickScheduler.runTaskTimer("line of sight", new Runnable() {
+
+				@Override
+				public void run() {
+					tick();
+				}
+			}, 1L, 1L);
+		}
+	}
+
+	private void tick() {
+		// the callbacks might start new checks, which get handed to the workers with the next tick:
+		List<Query> dispatching = new ArrayList<Query>(pending);
+		List<World> dispatchingWorlds = new ArrayList<World>(pendingWorlds);
+		pending.clear();
+		pendingWorlds.clear();
+
+		List<Query> batch;
+		while ((batch = finished.poll()) != null) {
+			batchesInProgress--;
+			for (Query query : batch) {
+				// one failing callback must not prevent the others:
+				try {
+					query.callback.onResult(query.visible);
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		if (!dispatching.isEmpty()) this.dispatch(dispatching, dispatchingWorlds);
+
+		if (batchesInProgress == 0 && pending.isEmpty() && task != null) {
+			task.cancel();
+			task = null;
+		}
+	}
+
+	private void dispatch(List<Query> queries, List<World> worlds) {
+		long now = System.currentTimeMillis();
+		if (now - lastSweep > MAX_SNAPSHOT_AGE_MILLIS) {
+			lastSweep = now;
+			this.removeOldSnapshots(now);
+		}
+
+		List<Query> batch = new ArrayList<Query>(BATCH_SIZE);
+		for (int i = 0; i < queries.size(); i++) {
+			Query query = queries.get(i);
+			query.chunks = this.getSnapshots(worlds.get(i), query, now);
+			if (query.chunks == null) {
+				// the line passes unloaded chunks:
+				query.callback.onResult(false);
+				continue;
+			}
+			batch.add(query);
+			if (batch.size() == BATCH_SIZE) {
+				this.submit(batch);
+				batch = new ArrayList<Query>(BATCH_SIZE);
+			}
+		}
+		if (!batch.isEmpty()) this.submit(batch);
+	}
+
+	private void submit(final List<Query> batch) {
+		try {
+			workers.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						for (Query query : batch) {
+							try {
+								query.visible = trace(query);
+							} catch (Throwable e) {
+								// counts as not visible:
+								query.visible = false;
+								Log.warning("Error during a line of sight check: " + e);
+							}
+							query.chunks = null;
+						}
+					} finally {
+						finished.add(batch);
+					}
+				}
+			});
+			batchesInProgress++;
+		} catch (RejectedExecutionException e) {
+			// shutting down
+		}
+	}
+
+	// SNAPSHOTS
+
+	private static long chunkKey(int chunkX, int chunkZ) {
+		return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+	}
+
+	// returns null if one of the chunks is not loaded
+	private Map<Long, ChunkSnapshot> getSnapshots(final World world, Query query, final long now) {
+		Map<Long, Snapshot> worldSnapshots = snapshots.get(world.getUID());
+		if (worldSnapshots == null) {
+			worldSnapshots = new HashMap<Long, Snapshot>();
+			snapshots.put(world.getUID(), worldSnapshots);
+		}
+		final Map<Long, Snapshot> cache = worldSnapshots;
+		final Map<Long, ChunkSnapshot> chunks = new HashMap<Long, ChunkSnapshot>(4);
+		boolean loaded = walk(query.fromX / 16.0D, 0.0D, query.fromZ / 16.0D, query.toX / 16.0D, 0.0D, query.toZ / 16.0D, new CellVisitor() {
+
+			@Override
+			public boolean visit(int chunkX, int y, int chunkZ) {
+				Long key = chunkKey(chunkX, chunkZ);
+				Snapshot snapshot = cache.get(key);
+				if (snapshot == null || now - snapshot.created > MAX_SNAPSHOT_AGE_MILLIS) {
+					if (!world.isChunkLoaded(chunkX, chunkZ)) return false;
+					snapshot = new Snapshot(world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false), now);
+					cache.put(key, snapshot);
+				}
+				chunks.put(key, snapshot.snapshot);
+				return true;
+			}
+		});
+		return loaded ? chunks : null;
+	}
+
+	private void removeOldSnapshots(long now) {
+		Iterator<Map<Long, Snapshot>> worldIterator = snapshots.values().iterator();
+		while (worldIterator.hasNext()) {
+			Map<Long, Snapshot> worldSnapshots = worldIterator.next();
+			Iterator<Snapshot> iterator = worldSnapshots.values().iterator();
+			while (iterator.hasNext()) {
+				if (now - iterator.next().created > MAX_SNAPSHOT_AGE_MILLIS) iterator.remove();
+			}
+			if (worldSnapshots.isEmpty()) worldIterator.remove();
+		}
+	}
+
+	private void invalidate(Block block) {
+		Map<Long, Snapshot> worldSnapshots = snapshots.get(block.getWorld().getUID());
+		if (worldSnapshots != null) {
+			worldSnapshots.remove(chunkKey(block.getX() >> 4, block.getZ() >> 4));
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onBlockBreak(BlockBreakEvent event) {
+		this.invalidate(event.getBlock());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onBlockPlace(BlockPlaceEvent event) {
+		this.invalidate(event.getBlock());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onBlockBurn(BlockBurnEvent event) {
+		this.invalidate(event.getBlock());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onBlockExplode(BlockExplodeEvent event) {
+		for (Block block : event.blockList()) {
+			this.invalidate(block);
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onEntityExplode(EntityExplodeEvent event) {
+		for (Block block : event.blockList()) {
+			this.invalidate(block);
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onChunkUnload(ChunkUnloadEvent event) {
+		Map<Long, Snapshot> worldSnapshots = snapshots.get(event.getWorld().getUID());
+		if (worldSnapshots != null) {
+			worldSnapshots.remove(chunkKey(event.getChunk().getX(), event.getChunk().getZ()));
+		}
+	}
+
+	// TRACING (worker threads)
+
+	private static boolean trace(final Query query) {
+		return walk(query.fromX, query.fromY, query.fromZ, query.toX, query.toY, query.toZ, new CellVisitor() {
+
+			@Override
+			public boolean visit(int x, int y, int z) {
+				if (y < 0 || y > 255) return true;
+				if (query.ignoreBlock && x == query.ignoredX && y == query.ignoredY && z == query.ignoredZ) return true;
+				ChunkSnapshot chunk = query.chunks.get(chunkKey(x >> 4, z >> 4));
+				// only happens due to rounding at chunk borders:
+				if (chunk == null) return true;
+				Material type = chunk.getBlockType(x & 15, y, z & 15);
+				return query.solidOnly ? !type.isSolid() : type == Material.AIR;
+			}
+		});
+	}
+
+	// Visits all cells (of size 1) along the line, in order. Returns false if the visitor stopped
+	// the walk.
+	private static boolean walk(double x1, double y1, double z1, double x2, double y2, double z2, CellVisitor visitor) {
+		int x = (int) Math.floor(x1);
+		int y = (int) Math.floor(y1);
+		int z = (int) Math.floor(z1);
+		int endX = (int) Math.floor(x2);
+		int endY = (int) Math.floor(y2);
+		int endZ = (int) Math.floor(z2);
+		double dx = x2 - x1;
+		double dy = y2 - y1;
+		double dz = z2 - z1;
+		int stepX = (int) Math.signum(dx);
+		int stepY = (int) Math.signum(dy);
+		int stepZ = (int) Math.signum(dz);
+		// the part of the line it takes to cross one cell, and to reach the next cell border:
+		double deltaX = stepX != 0 ? Math.abs(1.0D / dx) : Double.POSITIVE_INFINITY;
+		double deltaY = stepY != 0 ? Math.abs(1.0D / dy) : Double.POSITIVE_INFINITY;
+		double deltaZ = stepZ != 0 ? Math.abs(1.0D / dz) : Double.POSITIVE_INFINITY;
+		double maxX = stepX > 0 ? (x + 1 - x1) * deltaX : (stepX < 0 ? (x1 - x) * deltaX : Double.POSITIVE_INFINITY);
+		double maxY = stepY > 0 ? (y + 1 - y1) * deltaY : (stepY < 0 ? (y1 - y) * deltaY : Double.POSITIVE_INFINITY);
+		double maxZ = stepZ > 0 ? (z + 1 - z1) * deltaZ : (stepZ < 0 ? (z1 - z) * deltaZ : Double.POSITIVE_INFINITY);
+
+		if (!visitor.visit(x, y, z)) return false;
+		int steps = Math.abs(endX - x) + Math.abs(endY - y) + Math.abs(endZ - z);
+		for (int i = 0; i < steps; i++) {
+			if (maxX < maxY && maxX < maxZ) {
+				x += stepX;
+				maxX += deltaX;
+			} else if (maxY < maxZ) {
+				y += stepY;
+				maxY += deltaY;
+			} else {
+				z += stepZ;
+				maxZ += deltaZ;
+			}
+			if (!visitor.visit(x, y, z)) return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.gadgets;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import de.blablubbabc.paintball.Match;
+
+/**
+ * Snapshot of the positions of a match's surviving players, bucketed in a uniform grid of
+ * columns, so that gadgets only have to look at the players near them.
+ */
+public class ParticipantGrid {
+
+	// 16x16 blocks per cell:
+	private static final int CELL_SHIFT = 4;
+
+	public static class Entry {
+
+		private final Player player;
+		private final World world;
+		private final double x, y, z;
+
+		private Entry(Player player, Location location) {
+			this.player = player;
+			this.world = location.getWorld();
+			this.x = location.getX();
+			this.y = location.getY();
+			this.z = location.getZ();
+		}
+
+		public Player getPlayer() {
+			return player;
+		}
+
+		public World getWorld() {
+			return world;
+		}
+
+		public double getX() {
+			return x;
+		}
+
+		public double getY() {
+			return y;
+		}
+
+		public double getZ() {
+			return z;
+		}
+
+		public double distanceSquared(double x, double y, double z) {
+			double dx = this.x - x;
+			double dy = this.y - y;
+			double dz = this.z - z;
+			return dx * dx + dy * dy + dz * dz;
+		}
+	}
+
+	private final Map<Long, List<Entry>> cells = new HashMap<Long, List<Entry>>();
+
+	public ParticipantGrid(Match match) {
+		for (Player player : match.getAllPlayer()) {
+			if (!match.isSurvivor(player)) continue;
+			Entry entry = new Entry(player, player.getLocation());
+			Long key = key(cell(entry.x), cell(entry.z));
+			List<Entry> cell = cells.get(key);
+			if (cell == null) {
+				cell = new ArrayList<Entry>(4);
+				cells.put(key, cell);
+			}
+			cell.add(entry);
+		}
+	}
+
+	private static int cell(double coordinate) {
+		return ((int) Math.floor(coordinate)) >> CELL_SHIFT;
+	}
+
+	private static long key(int cellX, int cellZ) {
+		return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+	}
+
+	// the players of all cells which overlap the given square, in the given world; the exact distance has to be checked by the caller
+	public List<Entry> getNearby(World world, double x, double z, double radius) {
+		List<Entry> nearby = new ArrayList<Entry>();
+		if (cells.isEmpty()) return nearby;
+		int minX = cell(x - radius);
+		int maxX = cell(x + radius);
+		int minZ = cell(z - radius);
+		int maxZ = cell(z + radius);
+		for (int cellX = minX; cellX <= maxX; cellX++) {
+			for (int cellZ = minZ; cellZ <= maxZ; cellZ++) {
+				List<Entry> cell = cells.get(key(cellX, cellZ));
+				if (cell == null) continue;
+				for (Entry entry : cell) {
+					if (entry.world.equals(world)) nearby.add(entry);
+				}
+			}
+		}
+		return nearby;
+	}
+}
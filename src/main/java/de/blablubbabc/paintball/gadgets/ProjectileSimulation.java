@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.gadgets;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import org.bukkit.FluidCollisionMode;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.util.RayTraceResult;
+import org.bukkit.util.Vector;
+
+import de.blablubbabc.paintball.Match;
+import de.blablubbabc.paintball.Origin;
+import de.blablubbabc.paintball.Paintball;
+import de.blablubbabc.paintball.utils.TickTask;
+
+/**
+ * Moves short-lived paintballs (like shrapnel and pellets) without spawning entities for them.
+ * <p>
+ * The balls get moved like snowballs once per tick, and hits with blocks and entities are found
+ * with ray traces along the movement of each tick. Clients only see particles along the path.
+ * Shots without gravity can also be resolved instantly, with a single ray trace.
+ */
+public class ProjectileSimulation {
+
+	// snowball physics:
+	private static final double GRAVITY = 0.03D;
+	private static final double DRAG = 0.99D;
+	// entities get hit if the ball gets this close to their bounding box:
+	private static final double HIT_SIZE = 0.3D;
+	// balls without a lifetime get removed after this amount of ticks:
+	public static final int MAX_LIFETIME = 200;
+	// distance between the particles of a hitscan trail, and their maximum count:
+	private static final double TRAIL_SPACING = 1.0D;
+	private static final int MAX_TRAIL_PARTICLES = 64;
+
+	public interface HitHandler {
+
+		// the hit entity is null if a block got hit
+		public void onHit(Match match, Player shooter, Location location, Vector direction, Entity hitEntity, Origin origin);
+	}
+
+	private static class SimulatedBall {
+
+		private final Match match;
+		private final Player shooter;
+		private final World world;
+		private final Origin origin;
+		private double x, y, z;
+		private double motionX, motionY, motionZ;
+		private int ticksLeft;
+		private boolean removed = false;
+
+		private SimulatedBall(Match match, Player shooter, Location location, Vector velocity, Origin origin, int lifetime) {
+			this.match = match;
+			this.shooter = shooter;
+			this.world = location.getWorld();
+			this.origin = origin;
+			this.x = location.getX();
+			this.y = location.getY();
+			this.z = location.getZ();
+			this.motionX = velocity.getX();
+			this.motionY = velocity.getY();
+			this.motionZ = velocity.getZ();
+			this.ticksLeft = lifetime > 0 ? lifetime : MAX_LIFETIME;
+		}
+	}
+
+	private final HitHandler hitHandler;
+	private final Predicate<Entity> hitFilter;
+	private final List<SimulatedBall> balls = new ArrayList<SimulatedBall>();
+	// balls which start moving with the next tick (these might get launched while handling a hit):
+	private final List<SimulatedBall> launched = new ArrayList<SimulatedBall>();
+	private TickTask task = null;
+
+	// the hit filter decides which entities can be hit, the shooter can never be hit
+	public ProjectileSimulation(HitHandler hitHandler, Predicate<Entity> hitFilter) {
+		this.hitHandler = hitHandler;
+		this.hitFilter = hitFilter;
+	}
+
+	// lifetime in ticks, or 0 to use the maximum lifetime
+	public void launch(Match match, Player shooter, Location location, Vector velocity, Origin origin, int lifetime) {
+		launched.add(new SimulatedBall(match, shooter, location, velocity, origin, lifetime));
+		if (task == null) {
+			task = Paintball.getInstance().tickScheduler.runTaskTimer("projectiles", new Runnable() {
+
+				@Override
+				public void run() {
+					tick();
+				}
+			}, 1L, 1L);
+		}
+	}
+
+	// Resolves a shot instantly along a straight line, and shows a trail of particles up to the hit.
+	// Returns the end of the line if nothing got hit, so that the shot can continue as a normal ball
+	// from there. Returns null if something got hit, or if the line leaves the loaded chunks (like
+	// a ball, which gets removed there).
+	public Location hitscan(Match match, Player shooter, Location start, Vector direction, double range, Origin origin) {
+		World world = start.getWorld();
+		direction = direction.clone().normalize();
+		// don't trace into chunks which are not loaded:
+		double loadedRange = this.getLoadedDistance(world, start, direction, range);
+		RayTraceResult result = null;
+		if (loadedRange > 0.0D) {
+			result = world.rayTrace(start, direction, loadedRange, FluidCollisionMode.NEVER, true, HIT_SIZE, this.getHitFilter(shooter));
+		}
+		double distance = result != null ? start.toVector().distance(result.getHitPosition()) : loadedRange;
+
+		int particles = Math.min((int) (distance / TRAIL_SPACING), MAX_TRAIL_PARTICLES);
+		if (particles > 0) {
+			Vector step = direction.clone().multiply(distance / particles);
+			double x = start.getX();
+			double y = start.getY();
+			double z = start.getZ();
+			for (int i = 0; i < particles; i++) {
+				x += step.getX();
+				y += step.getY();
+				z += step.getZ();
+				world.spawnParticle(Particle.SNOWBALL, x, y, z, 1, 0.0D, 0.0D, 0.0D, 0.0D);
+			}
+		}
+
+		if (result != null) {
+			Vector hitPosition = result.getHitPosition();
+			Location location = new Location(world, hitPosition.getX(), hitPosition.getY(), hitPosition.getZ());
+			hitHandler.onHit(match, shooter, location, direction, result.getHitEntity(), origin);
+			return null;
+		}
+		if (loadedRange < range) return null;
+		return start.clone().add(direction.clone().multiply(range));
+	}
+
+	// the distance along the line, up to the given range, which stays inside loaded chunks
+	private double getLoadedDistance(World world, Location start, Vector direction, double range) {
+		// small enough steps to not skip the corner of a chunk:
+		double step = 4.0D;
+		for (double distance = 0.0D; distance < range + step; distance += step) {
+			double checked = Math.min(distance, range);
+			int chunkX = (int) Math.floor(start.getX() + direction.getX() * checked) >> 4;
+			int chunkZ = (int) Math.floor(start.getZ() + direction.getZ() * checked) >> 4;
+			if (!world.isChunkLoaded(chunkX, chunkZ)) return Math.max(0.0D, distance - step);
+			if (checked >= range) break;
+		}
+		return range;
+	}
+
+	private Predicate<Entity> getHitFilter(final Player shooter) {
+		return new Predicate<Entity>() {
+
+			@Override
+			public boolean test(Entity entity) {
+				return entity != shooter && hitFilter.test(entity);
+			}
+		};
+	}
+
+	private void tick() {
+		balls.addAll(launched);
+		launched.clear();
+		Iterator<SimulatedBall> iterator = balls.iterator();
+		while (iterator.hasNext()) {
+			SimulatedBall ball = iterator.next();
+			if (ball.removed || this.move(ball) || --ball.ticksLeft <= 0) {
+				iterator.remove();
+			}
+		}
+		if (balls.isEmpty() && launched.isEmpty()) this.stop();
+	}
+
+	// returns true if the ball has to be removed
+	private boolean move(SimulatedBall ball) {
+		if (ball.y < 0.0D || !ball.world.isChunkLoaded((int) Math.floor(ball.x) >> 4, (int) Math.floor(ball.z) >> 4)) return true;
+
+		Location start = new Location(ball.world, ball.x, ball.y, ball.z);
+		Vector direction = new Vector(ball.motionX, ball.motionY, ball.motionZ);
+		double distance = direction.length();
+		if (distance > 1.0E-4D) {
+			RayTraceResult result = ball.world.rayTrace(start, direction, distance, FluidCollisionMode.NEVER, true, HIT_SIZE, this.getHitFilter(ball.shooter));
+			if (result != null) {
+				Vector hitPosition = result.getHitPosition();
+				Location location = new Location(ball.world, hitPosition.getX(), hitPosition.getY(), hitPosition.getZ());
+				hitHandler.onHit(ball.match, ball.shooter, location, direction, result.getHitEntity(), ball.origin);
+				return true;
+			}
+		}
+
+		ball.x += ball.motionX;
+		ball.y += ball.motionY;
+		ball.z += ball.motionZ;
+		ball.motionX *= DRAG;
+		ball.motionY = ball.motionY * DRAG - GRAVITY;
+		ball.motionZ *= DRAG;
+
+		ball.world.spawnParticle(Particle.SNOWBALL, ball.x, ball.y, ball.z, 1, 0.0D, 0.0D, 0.0D, 0.0D);
+		return false;
+	}
+
+	private void stop() {
+		if (task != null) {
+			task.cancel();
+			task = null;
+		}
+	}
+
+	// The balls get removed during the next tick, so this can also be called while handling a hit.
+	public void cleanUp(Match match, UUID playerId) {
+		for (SimulatedBall ball : balls) {
+			if (ball.match == match && ball.shooter.getUniqueId().equals(playerId)) ball.removed = true;
+		}
+		for (SimulatedBall ball : launched) {
+			if (ball.match == match && ball.shooter.getUniqueId().equals(playerId)) ball.removed = true;
+		}
+	}
+
+	public void cleanUp(Match match) {
+		for (SimulatedBall ball : balls) {
+			if (ball.match == match) ball.removed = true;
+		}
+		for (SimulatedBall ball : launched) {
+			if (ball.match == match) ball.removed = true;
+		}
+	}
+}
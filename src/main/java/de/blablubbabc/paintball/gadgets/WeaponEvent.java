@@ -0,0 +1,24 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.gadgets;
+
+/**
+ * The events which a {@link WeaponHandler} can handle. Each handler declares the events it handles,
+ * and only gets those passed by the {@link WeaponManager}.
+ */
+public enum WeaponEvent {
+
+	// by the item in hand:
+	INTERACT,
+	TOGGLE_SNEAK,
+	BLOCK_PLACE,
+	// by the type of the picked up item:
+	ITEM_PICKUP,
+	// by the projectile type of the handler:
+	PROJECTILE_HIT,
+	// to all handlers which handle these:
+	ITEM_HELD,
+	DAMAGED_BY_ENTITY;
+}
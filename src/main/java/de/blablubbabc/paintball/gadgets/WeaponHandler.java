@@ -4,9 +4,12 @@
  */
 package de.blablubbabc.paintball.gadgets;
 
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
 import org.bukkit.event.block.BlockPlaceEvent;
@@ -19,7 +22,6 @@ import org.bukkit.inventory.ItemStack;
 
 import de.blablubbabc.paintball.Match;
 import de.blablubbabc.paintball.Origin;
-import de.blablubbabc.paintball.Paintball;
 
 public abstract class WeaponHandler {
 	protected final String weaponName;
@@ -32,7 +34,6 @@ public abstract class WeaponHandler {
 
 	public WeaponHandler(String weaponName, Material customItemType, Origin origin) {
 		this.weaponName = weaponName;
-		Paintball.getInstance().weaponManager.registerWeaponHandler(weaponName, this);
 		item = setItemMeta(new ItemStack(customItemType == null ? getDefaultItemType() : customItemType));
 		this.origin = origin != null ? origin : new Origin();
 	}
@@ -61,8 +62,21 @@ public abstract class WeaponHandler {
 
 	public abstract void cleanUp(Match match);
 
+	// The events which get passed to this handler. This gets called once the handler gets registered.
+	protected Set<WeaponEvent> getHandledEvents() {
+		return EnumSet.of(WeaponEvent.INTERACT);
+	}
+
+	// The type of projectiles whose hits get passed to onProjectileHit, or null for all projectiles.
+	protected EntityType getProjectileType() {
+		return null;
+	}
+
 	// Events
 
+	// The following events (apart from onItemHeld, onDamagedByEntity and onProjectileHit) are only passed to the
+	// handlers whose item matches the item in hand by type and display name (or the type of the picked up item).
+
 	// This is only called for main hand interactions, and not for LEFT_CLICK_AIR interactions
 	protected abstract void onInteract(PlayerInteractEvent event, Match match);
 
@@ -4,12 +4,19 @@
  */
 package de.blablubbabc.paintball.gadgets;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
 import org.bukkit.event.block.BlockPlaceEvent;
@@ -22,6 +29,7 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import de.blablubbabc.paintball.Match;
+import de.blablubbabc.paintball.Paintball;
 import de.blablubbabc.paintball.gadgets.handlers.AirstrikeHandler;
 import de.blablubbabc.paintball.gadgets.handlers.BallHandler;
 import de.blablubbabc.paintball.gadgets.handlers.ConcussionHandler;
@@ -43,8 +51,61 @@ public class WeaponManager {
 
 	private Map<String, WeaponHandler> weaponHandlers = new HashMap<String, WeaponHandler>();
 
+	// dispatch tables, filled on registration:
+	// by weapon key, for the events which are caused by the item in hand:
+	private final Map<WeaponKey, List<WeaponHandler>> interactHandlers = new HashMap<WeaponKey, List<WeaponHandler>>();
+	private final Map<WeaponKey, List<WeaponHandler>> sneakHandlers = new HashMap<WeaponKey, List<WeaponHandler>>();
+	private final Map<WeaponKey, List<WeaponHandler>> blockPlaceHandlers = new HashMap<WeaponKey, List<WeaponHandler>>();
+	// by item type: picked up gadgets are named differently than the weapon item
+	private final Map<Material, List<WeaponHandler>> pickupHandlers = new EnumMap<Material, List<WeaponHandler>>(Material.class);
+	// by projectile type:
+	private final Map<EntityType, List<WeaponHandler>> projectileHandlers = new EnumMap<EntityType, List<WeaponHandler>>(EntityType.class);
+	// for any projectile type:
+	private final List<WeaponHandler> anyProjectileHandlers = new ArrayList<WeaponHandler>();
+	// handlers which also need to know when their item is no longer held, so these get all item held events:
+	private final List<WeaponHandler> itemHeldHandlers = new ArrayList<WeaponHandler>();
+	private final List<WeaponHandler> damageHandlers = new ArrayList<WeaponHandler>();
+	// by item type, for applying the weapon meta to items of the configured item types:
+	private final Map<Material, List<WeaponHandler>> itemTypeHandlers = new EnumMap<Material, List<WeaponHandler>>(Material.class);
+
+	// Identifies the weapon of an item: weapons can share their item type, but then differ in their
+	// display name (weapons which share both, also share their items).
+	private static final class WeaponKey {
+
+		private final Material type;
+		private final String displayName;
+
+		private WeaponKey(Material type, String displayName) {
+			this.type = type;
+			this.displayName = displayName;
+		}
+
+		// returns null for no item
+		private static WeaponKey of(ItemStack itemStack) {
+			if (itemStack == null) return null;
+			String displayName = null;
+			if (itemStack.hasItemMeta()) {
+				ItemMeta meta = itemStack.getItemMeta();
+				if (meta.hasDisplayName()) displayName = meta.getDisplayName();
+			}
+			return new WeaponKey(itemStack.getType(), displayName);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * type.hashCode() + Objects.hashCode(displayName);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (!(obj instanceof WeaponKey)) return false;
+			WeaponKey other = (WeaponKey) obj;
+			return type == other.type && Objects.equals(displayName, other.displayName);
+		}
+	}
+
 	private GiftHandler giftHandler;
-	private NoGravityHandler noGravityHandler;
 
 	private BallHandler ballHandler;
 
@@ -67,25 +128,24 @@ public class WeaponManager {
 	}
 
 	public void initWeaponHandlers() {
-		giftHandler = new GiftHandler();
-		noGravityHandler = new NoGravityHandler();
+		giftHandler = this.registerWeaponHandler(new GiftHandler());
 
-		ballHandler = new BallHandler();
+		ballHandler = this.registerWeaponHandler(new BallHandler());
 
 		// init all default weapons and gadgets:
-		markerHandler = new MarkerHandler();
-		airstrikeHandler = new AirstrikeHandler();
-		flashbangHandler = new FlashbangHandler();
-		concussionHandler = new ConcussionHandler();
-		grenadeHandler = new GrenadeHandler();
-		grenadeM2Handler = new GrenadeM2Handler();
-		turretHandler = new TurretHandler();
-		mineHandler = new MineHandler();
-		orbitalstrikeHandler = new OrbitalstrikeHandler();
-		pumpgunHandler = new PumpgunHandler();
-		rocketHandler = new RocketHandler();
-		shotgunHandler = new ShotgunHandler();
-		sniperHandler = new SniperHandler();
+		markerHandler = this.registerWeaponHandler(new MarkerHandler());
+		airstrikeHandler = this.registerWeaponHandler(new AirstrikeHandler());
+		flashbangHandler = this.registerWeaponHandler(new FlashbangHandler());
+		concussionHandler = this.registerWeaponHandler(new ConcussionHandler());
+		grenadeHandler = this.registerWeaponHandler(new GrenadeHandler());
+		grenadeM2Handler = this.registerWeaponHandler(new GrenadeM2Handler());
+		turretHandler = this.registerWeaponHandler(new TurretHandler());
+		mineHandler = this.registerWeaponHandler(new MineHandler());
+		orbitalstrikeHandler = this.registerWeaponHandler(new OrbitalstrikeHandler());
+		pumpgunHandler = this.registerWeaponHandler(new PumpgunHandler());
+		rocketHandler = this.registerWeaponHandler(new RocketHandler());
+		shotgunHandler = this.registerWeaponHandler(new ShotgunHandler());
+		sniperHandler = this.registerWeaponHandler(new SniperHandler());
 	}
 
 	// ////// Default weapon handlers /////////////
@@ -177,6 +237,8 @@ public class WeaponManager {
 				}
 				player.getInventory().addItem(item);
 			}
+			Match match = Paintball.getInstance().matchManager.getMatch(player);
+			if (match != null) match.invalidateBalls(player);
 
 			if (updateInventory) player.updateInventory();
 		}
@@ -196,19 +258,58 @@ public class WeaponManager {
 		return null;
 	}
 
+	// registers the handler under its weapon name, once it is constructed
+	public <T extends WeaponHandler> T registerWeaponHandler(T weaponHandler) {
+		if (weaponHandler == null) throw new IllegalArgumentException();
+		this.registerWeaponHandler(weaponHandler.getWeaponName(), weaponHandler);
+		return weaponHandler;
+	}
+
 	public void registerWeaponHandler(String weaponName, WeaponHandler weaponHandler) {
 		if (weaponName == null || weaponName.isEmpty() || weaponHandler == null) throw new IllegalArgumentException();
 		weaponName = weaponName.toLowerCase();
 		if (weaponHandlers.containsKey(weaponName)) throw new IllegalArgumentException("Weapon with name '" + weaponName + "' is already registered!");
 		weaponHandlers.put(weaponName, weaponHandler);
+
+		// handlers are only added to the dispatch tables of the events they handle:
+		Set<WeaponEvent> events = weaponHandler.getHandledEvents();
+		WeaponKey key = WeaponKey.of(weaponHandler.getItem());
+		Material itemType = weaponHandler.getItemType();
+		add(itemTypeHandlers, itemType, weaponHandler);
+		if (events.contains(WeaponEvent.INTERACT)) add(interactHandlers, key, weaponHandler);
+		if (events.contains(WeaponEvent.TOGGLE_SNEAK)) add(sneakHandlers, key, weaponHandler);
+		if (events.contains(WeaponEvent.BLOCK_PLACE)) add(blockPlaceHandlers, key, weaponHandler);
+		if (events.contains(WeaponEvent.ITEM_PICKUP)) add(pickupHandlers, itemType, weaponHandler);
+		if (events.contains(WeaponEvent.PROJECTILE_HIT)) {
+			EntityType projectileType = weaponHandler.getProjectileType();
+			if (projectileType == null) anyProjectileHandlers.add(weaponHandler);
+			else add(projectileHandlers, projectileType, weaponHandler);
+		}
+		if (events.contains(WeaponEvent.ITEM_HELD)) itemHeldHandlers.add(weaponHandler);
+		if (events.contains(WeaponEvent.DAMAGED_BY_ENTITY)) damageHandlers.add(weaponHandler);
 	}
 
-	public GiftHandler getGiftManager() {
-		return giftHandler;
+	private static <K> void add(Map<K, List<WeaponHandler>> table, K key, WeaponHandler weaponHandler) {
+		List<WeaponHandler> handlers = table.get(key);
+		if (handlers == null) {
+			handlers = new ArrayList<WeaponHandler>(1);
+			table.put(key, handlers);
+		}
+		handlers.add(weaponHandler);
 	}
 
-	public NoGravityHandler getNoGravityHandler() {
-		return noGravityHandler;
+	private static <K> List<WeaponHandler> get(Map<K, List<WeaponHandler>> table, K key) {
+		if (key == null) return Collections.emptyList();
+		List<WeaponHandler> handlers = table.get(key);
+		return handlers != null ? handlers : Collections.<WeaponHandler> emptyList();
+	}
+
+	private static Material getType(ItemStack itemStack) {
+		return itemStack != null ? itemStack.getType() : null;
+	}
+
+	public GiftHandler getGiftManager() {
+		return giftHandler;
 	}
 
 	public BallHandler getBallHandler() {
@@ -218,43 +319,46 @@ public class WeaponManager {
 	// EVENTS
 
 	public void onInteract(PlayerInteractEvent event, Match match) {
-		for (WeaponHandler weaponHandler : weaponHandlers.values()) {
+		for (WeaponHandler weaponHandler : get(interactHandlers, WeaponKey.of(event.getPlayer().getInventory().getItemInMainHand()))) {
 			weaponHandler.onInteract(event, match);
 		}
 	}
 
 	public void onToggleSneak(PlayerToggleSneakEvent event, Match match) {
-		for (WeaponHandler weaponHandler : weaponHandlers.values()) {
+		for (WeaponHandler weaponHandler : get(sneakHandlers, WeaponKey.of(event.getPlayer().getInventory().getItemInMainHand()))) {
 			weaponHandler.onToggleSneak(event, match);
 		}
 	}
 
 	public void onBlockPlace(BlockPlaceEvent event, Match match) {
-		for (WeaponHandler weaponHandler : weaponHandlers.values()) {
+		for (WeaponHandler weaponHandler : get(blockPlaceHandlers, WeaponKey.of(event.getPlayer().getInventory().getItemInMainHand()))) {
 			weaponHandler.onBlockPlace(event, match);
 		}
 	}
 
 	public void onItemPickup(EntityPickupItemEvent event) {
-		for (WeaponHandler weaponHandler : weaponHandlers.values()) {
+		for (WeaponHandler weaponHandler : get(pickupHandlers, getType(event.getItem().getItemStack()))) {
 			weaponHandler.onItemPickup(event);
 		}
 	}
 
 	public void onDamagedByEntity(EntityDamageByEntityEvent event, Match match, Player attacker) {
-		for (WeaponHandler weaponHandler : weaponHandlers.values()) {
+		for (WeaponHandler weaponHandler : damageHandlers) {
 			weaponHandler.onDamagedByEntity(event, match, attacker);
 		}
 	}
 
 	public void onProjectileHit(ProjectileHitEvent event, Projectile projectile, Match match, Player shooter) {
-		for (WeaponHandler weaponHandler : weaponHandlers.values()) {
+		for (WeaponHandler weaponHandler : get(projectileHandlers, projectile.getType())) {
+			weaponHandler.onProjectileHit(event, projectile, match, shooter);
+		}
+		for (WeaponHandler weaponHandler : anyProjectileHandlers) {
 			weaponHandler.onProjectileHit(event, projectile, match, shooter);
 		}
 	}
 
 	public void onItemHeld(Player player, ItemStack newItem) {
-		for (WeaponHandler weaponHandler : weaponHandlers.values()) {
+		for (WeaponHandler weaponHandler : itemHeldHandlers) {
 			weaponHandler.onItemHeld(player, newItem);
 		}
 	}
@@ -284,10 +388,10 @@ public class WeaponManager {
 			return itemStack;
 		}
 
-		for (WeaponHandler weaponHandler : weaponHandlers.values()) {
-			if (weaponHandler.getItemType() == type) {
-				return weaponHandler.setItemMeta(itemStack);
-			}
+		// the first registered weapon of that type:
+		List<WeaponHandler> handlers = get(itemTypeHandlers, type);
+		if (!handlers.isEmpty()) {
+			return handlers.get(0).setItemMeta(itemStack);
 		}
 
 		return itemStack;
@@ -4,9 +4,12 @@
  */
 package de.blablubbabc.paintball.gadgets.handlers;
 
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Location;
@@ -31,17 +34,39 @@ import de.blablubbabc.paintball.Origin;
 import de.blablubbabc.paintball.Paintball;
 import de.blablubbabc.paintball.gadgets.Gadget;
 import de.blablubbabc.paintball.gadgets.GadgetManager;
+import de.blablubbabc.paintball.gadgets.WeaponEvent;
 import de.blablubbabc.paintball.gadgets.WeaponHandler;
+import de.blablubbabc.paintball.utils.TickTask;
 import de.blablubbabc.paintball.utils.Translator;
 import de.blablubbabc.paintball.utils.Utils;
 
 public class AirstrikeHandler extends WeaponHandler {
 
+	// The targets of all players holding the airstrike item get updated by one task. The target
+	// only gets searched again once the player has moved or looked around, or after some time (in
+	// case the blocks have changed).
+	private static final double MOVE_THRESHOLD_SQUARED = 0.01D;
+	private static final float ANGLE_THRESHOLD = 0.3F;
+	private static final int REFRESH_INTERVAL = 10;
+
 	private GadgetManager gadgetManager = new GadgetManager();
 
-	private Map<UUID, Integer> taskIds = new HashMap<>();
+	private Map<UUID, Marker> markers = new HashMap<>();
+	private TickTask markerTask = null;
 	private Map<UUID, Block> marks = new HashMap<>();
 
+	private static class Marker {
+
+		private final Player player;
+		// the eye location during the last target search:
+		private Location lastEyeLocation = null;
+		private int ticksSinceSearch = 0;
+
+		private Marker(Player player) {
+			this.player = player;
+		}
+	}
+
 	public AirstrikeHandler() {
 		this(null);
 	}
@@ -72,6 +97,11 @@ public class AirstrikeHandler extends WeaponHandler {
 		return itemStack;
 	}
 
+	@Override
+	protected Set<WeaponEvent> getHandledEvents() {
+		return EnumSet.of(WeaponEvent.INTERACT, WeaponEvent.ITEM_HELD);
+	}
+
 	@Override
 	protected void onInteract(PlayerInteractEvent event, Match match) {
 		if (event.getAction() == Action.PHYSICAL || !Paintball.getInstance().airstrike) return;
@@ -132,7 +162,7 @@ public class AirstrikeHandler extends WeaponHandler {
 		Block lastBlock = markedBlock;
 		for (int i = 0; i < 10; i++) {
 			lastBlock = lastBlock.getRelative(BlockFace.UP);
-			player.sendBlockChange(lastBlock.getLocation(), blockData);
+			Paintball.getInstance().blockVisuals.setFake(player, lastBlock, blockData);
 		}
 	}
 
@@ -143,7 +173,7 @@ public class AirstrikeHandler extends WeaponHandler {
 			Block lastBlock = markedBlock;
 			for (int i = 0; i < 10; i++) {
 				lastBlock = lastBlock.getRelative(BlockFace.UP);
-				player.sendBlockChange(lastBlock.getLocation(), lastBlock.getBlockData());
+				Paintball.getInstance().blockVisuals.revert(player, lastBlock);
 			}
 			marks.remove(playerId);
 		}
@@ -159,45 +189,70 @@ public class AirstrikeHandler extends WeaponHandler {
 		final UUID playerId = player.getUniqueId();
 
 		if (getItem().isSimilar(newItem)) {
-			if (!taskIds.containsKey(playerId)) {
-				int taskId = Paintball.getInstance().getServer().getScheduler().runTaskTimer(Paintball.getInstance(), new Runnable() {
-
-					@Override
-					public void run() {
-						PlayerInventory playerInventory = player.getInventory();
-						ItemStack itemInHand = playerInventory.getItemInMainHand();
-						if (getItem().isSimilar(itemInHand)) {
-							Block block = player.getTargetBlock(Utils.getTransparentBlocks(), 120);
-							if (!isBlock(block, playerId)) {
-								demark(player);
-								Material blockType = block.getType();
-								if (blockType != Material.AIR && blockType != Material.VOID_AIR && blockType != Material.CAVE_AIR) {
-									mark(block, player);
-								}
-							}
-						} else {
-							Paintball.getInstance().getServer().getScheduler().cancelTask(taskIds.get(playerId));
-							taskIds.remove(playerId);
-							demark(player);
+			if (!markers.containsKey(playerId)) {
+				markers.put(playerId, new Marker(player));
+				if (markerTask == null) {
+					markerTask = Paintball.getInstance().tickScheduler.runTaskTimer("airstrike marker", new Runnable() {
+
+						@Override
+						public void run() {
+							updateMarkers();
 						}
-					}
-				}, 0L, 1L).getTaskId();
-				taskIds.put(playerId, taskId);
+					}, 1L, 1L);
+				}
 			}
 		} else {
-			Integer id = taskIds.get(playerId);
-			if (id != null) {
-				Paintball.getInstance().getServer().getScheduler().cancelTask(id);
-				taskIds.remove(playerId);
+			if (markers.remove(playerId) != null) {
 				demark(player);
 			}
 		}
 	}
 
+	private void updateMarkers() {
+		Iterator<Marker> iterator = markers.values().iterator();
+		while (iterator.hasNext()) {
+			Marker marker = iterator.next();
+			Player player = marker.player;
+			if (!player.isOnline() || !getItem().isSimilar(player.getInventory().getItemInMainHand())) {
+				iterator.remove();
+				demark(player);
+				continue;
+			}
+
+			Location eyeLocation = player.getEyeLocation();
+			if (!this.needsSearch(marker, eyeLocation)) continue;
+			marker.lastEyeLocation = eyeLocation;
+			marker.ticksSinceSearch = 0;
+
+			Block block = player.getTargetBlock(Utils.getTransparentBlocks(), 120);
+			if (!isBlock(block, player.getUniqueId())) {
+				demark(player);
+				Material blockType = block.getType();
+				if (blockType != Material.AIR && blockType != Material.VOID_AIR && blockType != Material.CAVE_AIR) {
+					mark(block, player);
+				}
+			}
+		}
+
+		if (markers.isEmpty()) {
+			markerTask.cancel();
+			markerTask = null;
+		}
+	}
+
+	private boolean needsSearch(Marker marker, Location eyeLocation) {
+		Location last = marker.lastEyeLocation;
+		if (last == null || ++marker.ticksSinceSearch >= REFRESH_INTERVAL) return true;
+		if (!last.getWorld().equals(eyeLocation.getWorld()) || last.distanceSquared(eyeLocation) > MOVE_THRESHOLD_SQUARED) return true;
+		float yawChange = Math.abs(last.getYaw() - eyeLocation.getYaw()) % 360.0F;
+		if (yawChange > 180.0F) yawChange = 360.0F - yawChange;
+		return yawChange > ANGLE_THRESHOLD || Math.abs(last.getPitch() - eyeLocation.getPitch()) > ANGLE_THRESHOLD;
+	}
+
 	public class Airstrike extends Gadget {
 
 		private Entity chick = null;
-		private int task = -1;
+		private TickTask task = null;
 		private FinalMark finalMark;
 
 		private Airstrike(GadgetManager gadgetHandler, Match match, Player player, Location location, Origin origin) {
@@ -231,11 +286,12 @@ public class AirstrikeHandler extends WeaponHandler {
 			// chicken
 			Location lc = new Location(player.getWorld(), bombs.getFirst().getX(), bombs.getFirst().getY(), bombs.getFirst().getZ(), 0, Utils.getLookAtYaw(bpr));
 			chick = player.getWorld().spawnEntity(lc.add(new Vector(0, 5, 0)), EntityType.CHICKEN);
+			this.trackEntity(chick);
 			final Vector chickVel = bpr.clone().multiply(bombDiff / 5);
 
 			final GrenadeHandler grenadeHandler = Paintball.getInstance().weaponManager.getGrenadeHandler();
 
-			task = Paintball.getInstance().getServer().getScheduler().scheduleSyncRepeatingTask(Paintball.getInstance(), new Runnable() {
+			task = Paintball.getInstance().tickScheduler.runTaskTimer("airstrikes", new Runnable() {
 				int i = 0;
 
 				@Override
@@ -251,12 +307,12 @@ public class AirstrikeHandler extends WeaponHandler {
 						dispose(true);
 					}
 				}
-			}, 0L, 5L);
+			}, 1L, 5L);
 		}
 
 		@Override
 		public void dispose(boolean removeFromGadgetHandlerTracking) {
-			if (this.task != -1) Paintball.getInstance().getServer().getScheduler().cancelTask(task);
+			if (this.task != null) task.cancel();
 			if (this.chick != null) chick.remove();
 			assert finalMark != null;
 			finalMark.demark();
@@ -289,13 +345,13 @@ public class AirstrikeHandler extends WeaponHandler {
 			Block last = block;
 			for (int i = 0; i < 10; i++) {
 				last = last.getRelative(BlockFace.UP);
-				player.sendBlockChange(last.getLocation(), blockData);
+				Paintball.getInstance().blockVisuals.setFake(player, last, blockData);
 			}
 			last = last.getRelative(BlockFace.UP);
-			player.sendBlockChange(last.getLocation(), Material.TORCH.createBlockData());
+			Paintball.getInstance().blockVisuals.setFake(player, last, Material.TORCH.createBlockData());
 
 			// demark after a certain time:
-			Paintball.getInstance().getServer().getScheduler().runTaskLater(Paintball.getInstance(), new Runnable() {
+			Paintball.getInstance().tickScheduler.runTaskLater("airstrike marker", new Runnable() {
 
 				@Override
 				public void run() {
@@ -313,8 +369,7 @@ public class AirstrikeHandler extends WeaponHandler {
 			Block last = block;
 			for (int i = 0; i < 11; i++) {
 				last = last.getRelative(BlockFace.UP);
-				Location loc = last.getLocation();
-				player.sendBlockChange(loc, last.getBlockData());
+				Paintball.getInstance().blockVisuals.revert(player, last);
 			}
 		}
 	}
@@ -4,10 +4,14 @@
  */
 package de.blablubbabc.paintball.gadgets.handlers;
 
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 import org.bukkit.Color;
 import org.bukkit.Effect;
+import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.Entity;
@@ -19,12 +23,15 @@ import org.bukkit.event.entity.ProjectileHitEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.util.Vector;
 
 import de.blablubbabc.paintball.Match;
 import de.blablubbabc.paintball.Origin;
 import de.blablubbabc.paintball.Paintball;
 import de.blablubbabc.paintball.gadgets.Gadget;
 import de.blablubbabc.paintball.gadgets.GadgetManager;
+import de.blablubbabc.paintball.gadgets.ProjectileSimulation;
+import de.blablubbabc.paintball.gadgets.WeaponEvent;
 import de.blablubbabc.paintball.gadgets.WeaponHandler;
 import de.blablubbabc.paintball.gadgets.events.PaintballHitEvent;
 import de.blablubbabc.paintball.utils.Translator;
@@ -32,6 +39,25 @@ import de.blablubbabc.paintball.utils.Translator;
 public class BallHandler extends WeaponHandler {
 
 	private GadgetManager gadgetManager = new GadgetManager();
+	// short-lived balls (shrapnel, pellets and sniper shots) are only simulated:
+	private final ProjectileSimulation simulation = new ProjectileSimulation(new ProjectileSimulation.HitHandler() {
+
+		@Override
+		public void onHit(Match match, Player shooter, Location location, Vector direction, Entity hitEntity, Origin origin) {
+			handleHit(match, shooter, location, hitEntity, origin);
+			// real balls trigger these via events:
+			Paintball plugin = Paintball.getInstance();
+			if (hitEntity != null) plugin.weaponManager.getTurretHandler().onHitByBall(hitEntity, match, shooter);
+			plugin.weaponManager.getMineHandler().onBallHit(match, shooter, location, direction);
+		}
+	}, new Predicate<Entity>() {
+
+		@Override
+		public boolean test(Entity entity) {
+			if (entity instanceof Player) return ((Player) entity).getGameMode() != GameMode.SPECTATOR;
+			return Paintball.getInstance().weaponManager.getTurretHandler().isTurret(entity);
+		}
+	});
 
 	public BallHandler() {
 		this(null);
@@ -45,6 +71,17 @@ public class BallHandler extends WeaponHandler {
 		return new Ball(match, player, entity, origin);
 	}
 
+	// Launches a simulated ball, without an entity. Lifetime in ticks, or 0 for the maximum lifetime.
+	public void launchBall(Match match, Player player, Location location, Vector velocity, Origin origin, int lifetime) {
+		simulation.launch(match, player, location, velocity, origin, lifetime);
+	}
+
+	// Resolves a shot without gravity instantly, without an entity. Returns the end of the shot if
+	// it didn't hit anything within its range, or null.
+	public Location shootHitscan(Match match, Player player, Location location, Vector direction, double range, Origin origin) {
+		return simulation.hitscan(match, player, location, direction, range, origin);
+	}
+
 	public boolean isBall(Entity entity) {
 		return gadgetManager.isGadget(entity);
 	}
@@ -74,6 +111,11 @@ public class BallHandler extends WeaponHandler {
 		return Material.SNOWBALL;
 	}
 
+	@Override
+	protected EntityType getProjectileType() {
+		return EntityType.SNOWBALL;
+	}
+
 	@Override
 	protected ItemStack setItemMeta(ItemStack itemStack) {
 		ItemMeta meta = itemStack.getItemMeta();
@@ -82,6 +124,11 @@ public class BallHandler extends WeaponHandler {
 		return itemStack;
 	}
 
+	@Override
+	protected Set<WeaponEvent> getHandledEvents() {
+		return EnumSet.of(WeaponEvent.PROJECTILE_HIT);
+	}
+
 	@Override
 	protected void onInteract(PlayerInteractEvent event, Match match) {
 		// done by MarkerHandler
@@ -95,8 +142,17 @@ public class BallHandler extends WeaponHandler {
 		Gadget ball = getBall(projectile, match, shooter.getUniqueId());
 		if (ball == null) return;
 
+		this.handleHit(match, shooter, projectile.getLocation(), event.getHitEntity(), ball.getGadgetOrigin());
+
+		// call event for others:
+		Paintball.getInstance().getServer().getPluginManager().callEvent(new PaintballHitEvent(event, match, shooter));
+
+		// remove ball from tracking:
+		ball.dispose(true);
+	}
+
+	private void handleHit(Match match, Player shooter, Location location, Entity hitEntity, Origin origin) {
 		// Play hit effect:
-		Location location = projectile.getLocation();
 		if (Paintball.getInstance().effects) {
 			if (match.isBlue(shooter)) {
 				location.getWorld().playEffect(location, Effect.POTION_BREAK, Color.BLUE.asRGB());
@@ -106,34 +162,29 @@ public class BallHandler extends WeaponHandler {
 		}
 
 		// Handle hit:
-		Entity hitEntity = event.getHitEntity();
 		if (hitEntity instanceof Player) { // also checks for null
 			Player target = (Player) hitEntity;
 			if (target != shooter) {
 				Match targetMatch = Paintball.getInstance().matchManager.getMatch(target);
 				if (targetMatch == match) {
 					if (!match.isSpec(shooter) && !match.isSpec(target) && match.isSurvivor(shooter) && match.isSurvivor(target) && match.hasStarted()) {
-						match.onHitByBall(target, shooter, ball.getGadgetOrigin());
+						match.onHitByBall(target, shooter, origin);
 					}
 				}
 			}
 		}
-
-		// call event for others:
-		Paintball.getInstance().getServer().getPluginManager().callEvent(new PaintballHitEvent(event, match, shooter));
-
-		// remove ball from tracking:
-		ball.dispose(true);
 	}
 
 	@Override
 	public void cleanUp(Match match, UUID playerId) {
 		gadgetManager.cleanUp(match, playerId);
+		simulation.cleanUp(match, playerId);
 	}
 
 	@Override
 	public void cleanUp(Match match) {
 		gadgetManager.cleanUp(match);
+		simulation.cleanUp(match);
 	}
 
 	public class Ball extends Gadget {
@@ -143,6 +194,7 @@ public class BallHandler extends WeaponHandler {
 		private Ball(Match match, Player player, Snowball entity, Origin origin) {
 			super(Paintball.getInstance().weaponManager.getBallHandler().gadgetManager, match, player, origin);
 			this.entity = entity;
+			this.trackEntity(entity);
 		}
 
 		@Override
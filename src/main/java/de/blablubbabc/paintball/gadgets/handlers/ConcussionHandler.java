@@ -4,7 +4,9 @@
  */
 package de.blablubbabc.paintball.gadgets.handlers;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Location;
@@ -34,6 +36,7 @@ import de.blablubbabc.paintball.Origin;
 import de.blablubbabc.paintball.Paintball;
 import de.blablubbabc.paintball.gadgets.Gadget;
 import de.blablubbabc.paintball.gadgets.GadgetManager;
+import de.blablubbabc.paintball.gadgets.WeaponEvent;
 import de.blablubbabc.paintball.gadgets.WeaponHandler;
 import de.blablubbabc.paintball.utils.Translator;
 import de.blablubbabc.paintball.utils.Utils;
@@ -80,6 +83,11 @@ public class ConcussionHandler extends WeaponHandler implements Listener {
 		return itemStack;
 	}
 
+	@Override
+	protected Set<WeaponEvent> getHandledEvents() {
+		return EnumSet.of(WeaponEvent.INTERACT, WeaponEvent.ITEM_PICKUP);
+	}
+
 	@Override
 	protected void onInteract(PlayerInteractEvent event, Match match) {
 		if (event.getAction() == Action.PHYSICAL || !Paintball.getInstance().concussion) return;
@@ -140,6 +148,7 @@ public class ConcussionHandler extends WeaponHandler implements Listener {
 		private Concussion(GadgetManager gadgetHandler, Match match, Player player, Item nade, Origin origin) {
 			super(gadgetHandler, match, player, origin);
 			this.entity = nade;
+			this.trackEntity(entity);
 
 			Paintball.getInstance().getServer().getScheduler().runTaskLater(Paintball.getInstance(), new Runnable() {
 
@@ -123,6 +123,8 @@ public class GiftHandler extends WeaponHandler {
 					player.sendMessage(ChatColor.GREEN + g.getMessage());
 					ItemStack item = Paintball.getInstance().weaponManager.setMeta(g.getItem(true));
 					player.getInventory().addItem(item);
+					Match match = Paintball.getInstance().matchManager.getMatch(player);
+					if (match != null) match.invalidateBalls(player);
 
 					// item in hand update
 					Paintball.getInstance().weaponManager.onItemHeld(player, item);
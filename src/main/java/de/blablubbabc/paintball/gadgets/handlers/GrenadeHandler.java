@@ -4,6 +4,8 @@
  */
 package de.blablubbabc.paintball.gadgets.handlers;
 
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Location;
@@ -15,7 +17,6 @@ import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
-import org.bukkit.entity.Snowball;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
@@ -34,8 +35,8 @@ import de.blablubbabc.paintball.Origin;
 import de.blablubbabc.paintball.Paintball;
 import de.blablubbabc.paintball.gadgets.Gadget;
 import de.blablubbabc.paintball.gadgets.GadgetManager;
+import de.blablubbabc.paintball.gadgets.WeaponEvent;
 import de.blablubbabc.paintball.gadgets.WeaponHandler;
-import de.blablubbabc.paintball.gadgets.handlers.BallHandler.Ball;
 import de.blablubbabc.paintball.utils.Translator;
 import de.blablubbabc.paintball.utils.Utils;
 
@@ -80,6 +81,11 @@ public class GrenadeHandler extends WeaponHandler implements Listener {
 		return Material.EGG;
 	}
 
+	@Override
+	protected EntityType getProjectileType() {
+		return EntityType.EGG;
+	}
+
 	@Override
 	protected ItemStack setItemMeta(ItemStack itemStack) {
 		ItemMeta meta = itemStack.getItemMeta();
@@ -88,6 +94,11 @@ public class GrenadeHandler extends WeaponHandler implements Listener {
 		return itemStack;
 	}
 
+	@Override
+	protected Set<WeaponEvent> getHandledEvents() {
+		return EnumSet.of(WeaponEvent.INTERACT, WeaponEvent.PROJECTILE_HIT);
+	}
+
 	@Override
 	protected void onInteract(PlayerInteractEvent event, Match match) {
 		if (event.getAction() == Action.PHYSICAL || !Paintball.getInstance().grenade) return;
@@ -153,28 +164,21 @@ public class GrenadeHandler extends WeaponHandler implements Listener {
 		private Grenade(GadgetManager gadgetHandler, Match match, Player player, Egg nade, Origin origin) {
 			super(gadgetHandler, match, player, origin);
 			this.entity = nade;
+			this.trackEntity(entity);
 		}
 
 		public void explode(Location location, Player shooter) {
 			if (!exploded) {
 				exploded = true;
 				location.getWorld().createExplosion(location, -1F);
+				BallHandler ballHandler = Paintball.getInstance().weaponManager.getBallHandler();
 				for (Vector v : Utils.getDirections()) {
-					final Snowball snowball = location.getWorld().spawn(location, Snowball.class);
-					snowball.setShooter(shooter);
-					final Ball ball = Paintball.getInstance().weaponManager.getBallHandler().createBall(match, shooter, snowball, getGadgetOrigin());
 					Vector v2 = v.clone();
 					v2.setX(v.getX() + Math.random() - Math.random());
 					v2.setY(v.getY() + Math.random() - Math.random());
 					v2.setZ(v.getZ() + Math.random() - Math.random());
-					snowball.setVelocity(v2.normalize().multiply(Paintball.getInstance().grenadeShrapnelSpeed));
-					Paintball.getInstance().getServer().getScheduler().scheduleSyncDelayedTask(Paintball.getInstance(), new Runnable() {
-
-						@Override
-						public void run() {
-							ball.dispose(true);
-						}
-					}, (long) Paintball.getInstance().grenadeTime);
+					ballHandler.launchBall(match, shooter, location, v2.normalize().multiply(Paintball.getInstance().grenadeShrapnelSpeed), getGadgetOrigin(),
+							Paintball.getInstance().grenadeTime);
 				}
 			}
 
@@ -13,7 +13,6 @@ import org.bukkit.World;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Item;
 import org.bukkit.entity.Player;
-import org.bukkit.entity.Snowball;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
@@ -32,7 +31,6 @@ import de.blablubbabc.paintball.Paintball;
 import de.blablubbabc.paintball.gadgets.Gadget;
 import de.blablubbabc.paintball.gadgets.GadgetManager;
 import de.blablubbabc.paintball.gadgets.WeaponHandler;
-import de.blablubbabc.paintball.gadgets.handlers.BallHandler.Ball;
 import de.blablubbabc.paintball.utils.Translator;
 import de.blablubbabc.paintball.utils.Utils;
 
@@ -138,6 +136,7 @@ public class GrenadeM2Handler extends WeaponHandler implements Listener {
 		private GrenadeM2(GadgetManager gadgetHandler, Match match, Player player, Item nade, Origin origin) {
 			super(gadgetHandler, match, player, origin);
 			this.entity = nade;
+			this.trackEntity(entity);
 
 			Paintball.getInstance().getServer().getScheduler().runTaskLater(Paintball.getInstance(), new Runnable() {
 
@@ -153,22 +152,14 @@ public class GrenadeM2Handler extends WeaponHandler implements Listener {
 				exploded = true;
 				Location location = entity.getLocation();
 				location.getWorld().createExplosion(location, -1F);
+				BallHandler ballHandler = Paintball.getInstance().weaponManager.getBallHandler();
 				for (Vector v : Utils.getDirections()) {
-					final Snowball snowball = location.getWorld().spawn(location, Snowball.class);
-					snowball.setShooter(player);
-					final Ball ball = Paintball.getInstance().weaponManager.getBallHandler().createBall(match, player, snowball, getGadgetOrigin());
 					Vector v2 = v.clone();
 					v2.setX(v.getX() + Math.random() - Math.random());
 					v2.setY(v.getY() + Math.random() - Math.random());
 					v2.setZ(v.getZ() + Math.random() - Math.random());
-					snowball.setVelocity(v2.normalize().multiply(Paintball.getInstance().grenade2ShrapnelSpeed));
-					Paintball.getInstance().getServer().getScheduler().scheduleSyncDelayedTask(Paintball.getInstance(), new Runnable() {
-
-						@Override
-						public void run() {
-							ball.dispose(true);
-						}
-					}, (long) Paintball.getInstance().grenade2Time);
+					ballHandler.launchBall(match, player, location, v2.normalize().multiply(Paintball.getInstance().grenade2ShrapnelSpeed), getGadgetOrigin(),
+							(int) Paintball.getInstance().grenade2Time);
 				}
 			}
 
@@ -66,8 +66,8 @@ public class MarkerHandler extends WeaponHandler {
 		if (itemInHand == null) return;
 
 		if (itemInHand.isSimilar(getItem())) {
-			PlayerInventory inv = player.getInventory();
-			if (match.setting_balls == -1 || inv.contains(Material.SNOWBALL, 1)) {
+			// -1 ball
+			if (match.takeBalls(player, 1)) {
 				World world = player.getWorld();
 				Vector direction = player.getLocation().getDirection().normalize();
 				Location spawnLoc = Utils.getRightHeadLocation(direction, player.getEyeLocation());
@@ -85,16 +85,9 @@ public class MarkerHandler extends WeaponHandler {
 				snowball.setVelocity(direction.multiply(Paintball.getInstance().speedmulti));
 				// INFORM MATCH
 				match.onShot(player);
-
-				if (match.setting_balls != -1) {
-					// -1 ball
-					Utils.removeInventoryItems(inv, getItem(), 1);
-				}
-
 			} else {
 				player.playSound(player.getEyeLocation(), Sound.ITEM_FLINTANDSTEEL_USE, 1F, 2F);
 			}
-			Utils.updatePlayerInventoryLater(Paintball.getInstance(), player);
 		}
 	}
 
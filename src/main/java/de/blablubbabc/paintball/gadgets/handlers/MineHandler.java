@@ -4,6 +4,14 @@
  */
 package de.blablubbabc.paintball.gadgets.handlers;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Effect;
@@ -17,7 +25,6 @@ import org.bukkit.block.BlockState;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
-import org.bukkit.entity.Snowball;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockPlaceEvent;
@@ -25,7 +32,6 @@ import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.util.BlockIterator;
 import org.bukkit.util.Vector;
 
 import de.blablubbabc.paintball.FragInformations;
@@ -34,16 +40,41 @@ import de.blablubbabc.paintball.Origin;
 import de.blablubbabc.paintball.Paintball;
 import de.blablubbabc.paintball.gadgets.Gadget;
 import de.blablubbabc.paintball.gadgets.GadgetManager;
+import de.blablubbabc.paintball.gadgets.LineOfSight;
+import de.blablubbabc.paintball.gadgets.ParticipantGrid;
+import de.blablubbabc.paintball.gadgets.WeaponEvent;
 import de.blablubbabc.paintball.gadgets.WeaponHandler;
 import de.blablubbabc.paintball.gadgets.events.PaintballHitEvent;
-import de.blablubbabc.paintball.gadgets.handlers.BallHandler.Ball;
+import de.blablubbabc.paintball.utils.TickTask;
 import de.blablubbabc.paintball.utils.Translator;
 import de.blablubbabc.paintball.utils.Utils;
 
 public class MineHandler extends WeaponHandler implements Listener {
 
+	// All mines get handled by one task: Each tick only the players which have moved get checked
+	// against the mines of the regions around them. Additionally, each tick the mines of one slice
+	// check their block and play their ticking sound, so every mine does this every SLICES ticks.
+	private static final int SLICES = 10;
+	// 8x8 blocks per region:
+	private static final int REGION_SHIFT = 3;
+	// players get checked again once they moved this far (squared) since their last check:
+	private static final double MOVE_THRESHOLD_SQUARED = 0.01D;
+	// mines up to 2 blocks behind a ball's hit position explode as well:
+	private static final double HIT_STEP = 0.25D;
+	private static final int HIT_STEPS = 8;
+
 	private GadgetManager gadgetManager = new GadgetManager();
 
+	private final List<List<Mine>> slices = new ArrayList<List<Mine>>(SLICES);
+	private int nextSlice = 0;
+	private int currentSlice = 0;
+	// the mines of each match, by region:
+	private final Map<Match, Map<Long, List<Mine>>> regions = new HashMap<Match, Map<Long, List<Mine>>>();
+	// the position of each player during his last check:
+	private final Map<UUID, Location> lastPositions = new HashMap<UUID, Location>();
+	private final Map<Match, ParticipantGrid> grids = new HashMap<Match, ParticipantGrid>();
+	private TickTask task = null;
+
 	public MineHandler() {
 		this(null);
 	}
@@ -58,6 +89,9 @@ public class MineHandler extends WeaponHandler implements Listener {
 		});
 
 		Paintball.getInstance().getServer().getPluginManager().registerEvents(this, Paintball.getInstance());
+		for (int i = 0; i < SLICES; i++) {
+			slices.add(new ArrayList<Mine>());
+		}
 	}
 
 	public Mine plantMine(Match match, Player player, Block block, Material type, BlockState oldState, Origin origin) {
@@ -66,17 +100,37 @@ public class MineHandler extends WeaponHandler implements Listener {
 
 	@EventHandler
 	public void onPaintballHit(PaintballHitEvent event) {
-		if (Paintball.getInstance().mine) {
-			Player shooter = event.getShooter();
-			Match match = event.getMatch();
-			Projectile ball = event.getProjectileHitEvent().getEntity();
-			Location location = ball.getLocation();
+		Projectile ball = event.getProjectileHitEvent().getEntity();
+		this.onBallHit(event.getMatch(), event.getShooter(), ball.getLocation(), ball.getVelocity());
+	}
 
+	// also called for simulated balls, which don't cause a PaintballHitEvent
+	public void onBallHit(Match match, Player shooter, Location location, Vector direction) {
+		if (Paintball.getInstance().mine) {
 			checkAndExplode(location, match, shooter);
 
-			BlockIterator iterator = new BlockIterator(location.getWorld(), location.toVector(), ball.getVelocity().normalize(), 0, 2);
-			while (iterator.hasNext()) {
-				checkAndExplode(iterator.next().getLocation(), match, shooter);
+			// the blocks up to 2 blocks behind the hit (only their positions are needed):
+			Vector step = direction.clone().normalize().multiply(HIT_STEP);
+			World world = location.getWorld();
+			double x = location.getX();
+			double y = location.getY();
+			double z = location.getZ();
+			int lastX = location.getBlockX();
+			int lastY = location.getBlockY();
+			int lastZ = location.getBlockZ();
+			for (int i = 0; i < HIT_STEPS; i++) {
+				x += step.getX();
+				y += step.getY();
+				z += step.getZ();
+				int blockX = (int) Math.floor(x);
+				int blockY = (int) Math.floor(y);
+				int blockZ = (int) Math.floor(z);
+				if (blockX != lastX || blockY != lastY || blockZ != lastZ) {
+					lastX = blockX;
+					lastY = blockY;
+					lastZ = blockZ;
+					checkAndExplode(new Location(world, blockX, blockY, blockZ), match, shooter);
+				}
 			}
 		}
 	}
@@ -105,6 +159,11 @@ public class MineHandler extends WeaponHandler implements Listener {
 		return itemStack;
 	}
 
+	@Override
+	protected Set<WeaponEvent> getHandledEvents() {
+		return EnumSet.of(WeaponEvent.BLOCK_PLACE);
+	}
+
 	@Override
 	protected void onInteract(PlayerInteractEvent event, Match match) {
 
@@ -346,6 +405,137 @@ public class MineHandler extends WeaponHandler implements Listener {
 		gadgetManager.cleanUp(match);
 	}
 
+	// MINE TRIGGERS
+
+	private static int region(double coordinate) {
+		return ((int) Math.floor(coordinate)) >> REGION_SHIFT;
+	}
+
+	private static long regionKey(int regionX, int regionZ) {
+		return ((long) regionX << 32) | (regionZ & 0xFFFFFFFFL);
+	}
+
+	private void addMine(Mine mine) {
+		slices.get(nextSlice).add(mine);
+		nextSlice = (nextSlice + 1) % SLICES;
+
+		Map<Long, List<Mine>> matchRegions = regions.get(mine.getMatch());
+		if (matchRegions == null) {
+			matchRegions = new HashMap<Long, List<Mine>>();
+			regions.put(mine.getMatch(), matchRegions);
+		}
+		Long key = regionKey(region(mine.location.getX()), region(mine.location.getZ()));
+		List<Mine> region = matchRegions.get(key);
+		if (region == null) {
+			region = new ArrayList<Mine>(2);
+			matchRegions.put(key, region);
+		}
+		region.add(mine);
+
+		if (task == null) {
+			task = Paintball.getInstance().tickScheduler.runTaskTimer("mines", new Runnable() {
+
+				@Override
+				public void run() {
+					updateMines();
+				}
+			}, 1L, 1L);
+		}
+	}
+
+	private void removeMine(Mine mine) {
+		Map<Long, List<Mine>> matchRegions = regions.get(mine.getMatch());
+		if (matchRegions == null) return;
+		Long key = regionKey(region(mine.location.getX()), region(mine.location.getZ()));
+		List<Mine> region = matchRegions.get(key);
+		if (region == null) return;
+		region.remove(mine);
+		if (region.isEmpty()) {
+			matchRegions.remove(key);
+			if (matchRegions.isEmpty()) regions.remove(mine.getMatch());
+		}
+	}
+
+	private void updateMines() {
+		// mines get only removed after iterating:
+		List<Mine> invalid = new ArrayList<Mine>();
+
+		for (Map.Entry<Match, Map<Long, List<Mine>>> entry : regions.entrySet()) {
+			Match match = entry.getKey();
+			Map<Long, List<Mine>> matchRegions = entry.getValue();
+			for (Player player : match.getAllPlayer()) {
+				if (!match.isSurvivor(player)) continue;
+				Location location = player.getLocation();
+				Location lastPosition = lastPositions.get(player.getUniqueId());
+				if (lastPosition != null && lastPosition.getWorld().equals(location.getWorld()) && lastPosition.distanceSquared(location) < MOVE_THRESHOLD_SQUARED) {
+					continue;
+				}
+				lastPositions.put(player.getUniqueId(), location);
+				this.checkPlayer(match, matchRegions, player, location);
+			}
+		}
+
+		List<Mine> slice = slices.get(currentSlice);
+		currentSlice = (currentSlice + 1) % SLICES;
+		Iterator<Mine> iterator = slice.iterator();
+		while (iterator.hasNext()) {
+			Mine mine = iterator.next();
+			if (mine.disposed) {
+				iterator.remove();
+			} else if (mine.block.getType() != mine.type) {
+				invalid.add(mine);
+			} else {
+				mine.update(getGrid(mine.getMatch()));
+			}
+		}
+		grids.clear();
+
+		for (Mine mine : invalid) {
+			mine.dispose(true);
+		}
+
+		if (regions.isEmpty()) {
+			task.cancel();
+			task = null;
+			lastPositions.clear();
+			for (List<Mine> mines : slices) {
+				mines.clear();
+			}
+		}
+	}
+
+	// checks the mines around a player who has moved
+	private void checkPlayer(Match match, Map<Long, List<Mine>> matchRegions, Player player, Location location) {
+		double range = Paintball.getInstance().mineRange;
+		int minX = region(location.getX() - range);
+		int maxX = region(location.getX() + range);
+		int minZ = region(location.getZ() - range);
+		int maxZ = region(location.getZ() + range);
+		double rangeSquared = range * range;
+		for (int regionX = minX; regionX <= maxX; regionX++) {
+			for (int regionZ = minZ; regionZ <= maxZ; regionZ++) {
+				List<Mine> region = matchRegions.get(regionKey(regionX, regionZ));
+				if (region == null) continue;
+				for (Mine mine : region) {
+					if (mine.armed && match.enemys(player, mine.getOwner())
+							&& mine.location.getWorld().equals(location.getWorld()) && mine.location.distanceSquared(location) < rangeSquared) {
+						mine.checkSight(player);
+					}
+				}
+			}
+		}
+	}
+
+	// built once per tick and match, for all mines of the match:
+	private ParticipantGrid getGrid(Match match) {
+		ParticipantGrid grid = grids.get(match);
+		if (grid == null) {
+			grid = new ParticipantGrid(match);
+			grids.put(match, grid);
+		}
+		return grid;
+	}
+
 	public class Mine extends Gadget {
 
 		private final Player player;
@@ -354,8 +544,12 @@ public class MineHandler extends WeaponHandler implements Listener {
 		private final BlockState oldState;
 		private final Location location;
 
-		private int tickTask = -1;
 		private boolean exploded = false;
+		// mines get only triggered by moving players after their first update:
+		private boolean armed = false;
+		private boolean disposed = false;
+		// enemies for which a line of sight check is running:
+		private final Set<UUID> sightChecks = new HashSet<UUID>();
 
 		private Mine(GadgetManager gadgetManager, Match match, Player player, Block block, Material type, BlockState oldState, Origin origin) {
 			super(gadgetManager, match, player, origin);
@@ -365,7 +559,8 @@ public class MineHandler extends WeaponHandler implements Listener {
 			this.type = type;
 			this.oldState = oldState;
 			this.location = block.getLocation();
-			tick();
+			this.trackBlock(location);
+			addMine(this);
 		}
 
 		public void explode() {
@@ -384,22 +579,13 @@ public class MineHandler extends WeaponHandler implements Listener {
 
 				world.createExplosion(location, -1.0F);
 				Location spawnLoc = location.clone().add(0, 1, 0);
+				BallHandler ballHandler = Paintball.getInstance().weaponManager.getBallHandler();
 				for (Vector v : Utils.getUpVectors()) {
-					final Snowball snowball = world.spawn(spawnLoc, Snowball.class);
-					snowball.setShooter(player);
-					final Ball ball = Paintball.getInstance().weaponManager.getBallHandler().createBall(match, player, snowball, getGadgetOrigin());
-
 					Vector v2 = v.clone();
 					v2.setX(v.getX() + Utils.random.nextDouble() - Utils.random.nextDouble());
 					v2.setY(v.getY() + Utils.random.nextDouble() - Utils.random.nextDouble());
 					v2.setZ(v.getZ() + Utils.random.nextDouble() - Utils.random.nextDouble());
-					snowball.setVelocity(v2.normalize().multiply(0.5));
-					Paintball.getInstance().getServer().getScheduler().runTaskLater(Paintball.getInstance(), new Runnable() {
-						@Override
-						public void run() {
-							ball.dispose(true);
-						}
-					}, Paintball.getInstance().mineTime);
+					ballHandler.launchBall(match, player, spawnLoc, v2.normalize().multiply(0.5), getGadgetOrigin(), Paintball.getInstance().mineTime);
 				}
 			}
 
@@ -409,8 +595,9 @@ public class MineHandler extends WeaponHandler implements Listener {
 
 		@Override
 		public void dispose(boolean removeFromGadgetHandlerTracking) {
-			if (tickTask != -1) {
-				Paintball.getInstance().getServer().getScheduler().cancelTask(tickTask);
+			if (!disposed) {
+				disposed = true;
+				removeMine(this);
 			}
 			// reset to old block:
 			if (oldState != null) {
@@ -429,61 +616,42 @@ public class MineHandler extends WeaponHandler implements Listener {
 			return player;
 		}
 
-		private void tick() {
-			tickTask = Paintball.getInstance().getServer().getScheduler().runTaskLater(Paintball.getInstance(), new Runnable() {
-
-				@Override
-				public void run() {
-					if (!exploded) {
-						if (block.getType() == type) {
-							if (Paintball.getInstance().effects) {
-								// effect
-								for (Player p : match.getAllPlayer()) {
-									if (match.isSurvivor(p)) {
-										Location ploc = p.getLocation();
-										if (ploc.getWorld().equals(block.getWorld())) {
-											double dist = ploc.distance(location);
-											if (dist < 15) {
-												float vol = (float) (0.18 - (dist * 0.012));
-												p.playSound(location, Sound.BLOCK_STONE_BUTTON_CLICK_ON, vol, 2F);
-											}
-										}
-									}
-								}
-							}
-							if (nearEnemy()) {
-								explode();
-							} else {
-								tick();
-							}
-						} else {
-							dispose(true);
-						}
-					}
+		// called every SLICES ticks
+		private void update(ParticipantGrid grid) {
+			double range = Paintball.getInstance().mineRange;
+			boolean effects = Paintball.getInstance().effects;
+			if (!effects && armed) return;
+			double x = location.getX();
+			double y = location.getY();
+			double z = location.getZ();
+			for (ParticipantGrid.Entry entry : grid.getNearby(location.getWorld(), x, z, Math.max(15.0D, range))) {
+				double distanceSquared = entry.distanceSquared(x, y, z);
+				if (effects && distanceSquared < 15.0D * 15.0D) {
+					float vol = (float) (0.18 - (Math.sqrt(distanceSquared) * 0.012));
+					entry.getPlayer().playSound(location, Sound.BLOCK_STONE_BUTTON_CLICK_ON, vol, 2F);
 				}
-			}, 10L).getTaskId();
-		}
-
-		private boolean nearEnemy() {
-			for (Player p : match.getEnemyTeam(getOwner())) {
-				if (match.isSurvivor(p)) {
-					if (location.distance(p.getLocation()) < Paintball.getInstance().mineRange && canSeeMine(p)) {
-						return true;
-					}
+				// when getting armed, the mine checks all enemies once (also the ones which don't move):
+				if (!armed && distanceSquared < range * range && match.enemys(player, entry.getPlayer())) {
+					this.checkSight(entry.getPlayer());
 				}
 			}
-			return false;
+			armed = true;
 		}
 
-		private boolean canSeeMine(Player player) {
-			Vector dir = (player.getEyeLocation().toVector().subtract(location.toVector())).normalize();
-			BlockIterator iterator = new BlockIterator(location.getWorld(), location.toVector(), dir, 0, (int) Math.ceil(player.getEyeLocation().distance(location)));
+		// explodes once the result arrives, if the enemy can see the mine
+		private void checkSight(final Player enemy) {
+			// there is already a check running for this enemy:
+			if (!sightChecks.add(enemy.getUniqueId())) return;
+			Paintball.getInstance().lineOfSight.check(location, enemy.getEyeLocation(), block, false, new LineOfSight.Callback() {
 
-			while (iterator.hasNext()) {
-				Block b = iterator.next();
-				if (!b.equals(block) && b.getType() != Material.AIR) return false;
-			}
-			return true;
+				@Override
+				public void onResult(boolean visible) {
+					sightChecks.remove(enemy.getUniqueId());
+					if (visible && !disposed && match.isSurvivor(enemy)) {
+						explode();
+					}
+				}
+			});
 		}
 
 		/*private boolean canSee(Player player, Location loc2) {
@@ -4,8 +4,10 @@
  */
 package de.blablubbabc.paintball.gadgets.handlers;
 
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Location;
@@ -29,6 +31,7 @@ import de.blablubbabc.paintball.Origin;
 import de.blablubbabc.paintball.Paintball;
 import de.blablubbabc.paintball.gadgets.Gadget;
 import de.blablubbabc.paintball.gadgets.GadgetManager;
+import de.blablubbabc.paintball.gadgets.WeaponEvent;
 import de.blablubbabc.paintball.gadgets.WeaponHandler;
 import de.blablubbabc.paintball.utils.Translator;
 import de.blablubbabc.paintball.utils.Utils;
@@ -89,6 +92,11 @@ public class OrbitalstrikeHandler extends WeaponHandler {
 		gadgetManager.cleanUp(match);
 	}
 
+	@Override
+	protected Set<WeaponEvent> getHandledEvents() {
+		return EnumSet.of(WeaponEvent.INTERACT, WeaponEvent.ITEM_HELD);
+	}
+
 	@Override
 	protected void onInteract(PlayerInteractEvent event, Match match) {
 		if (event.getAction() == Action.PHYSICAL || !Paintball.getInstance().orbitalstrike) return;
@@ -174,10 +182,10 @@ public class OrbitalstrikeHandler extends WeaponHandler {
 		Block last = markedBlock;
 		for (int i = 0; i < 10; i++) {
 			last = last.getRelative(BlockFace.UP);
-			player.sendBlockChange(last.getLocation(), Material.NETHER_BRICK_FENCE.createBlockData());
+			Paintball.getInstance().blockVisuals.setFake(player, last, Material.NETHER_BRICK_FENCE.createBlockData());
 		}
 		last = last.getRelative(BlockFace.UP);
-		player.sendBlockChange(last.getLocation(), Material.REDSTONE_BLOCK.createBlockData());
+		Paintball.getInstance().blockVisuals.setFake(player, last, Material.REDSTONE_BLOCK.createBlockData());
 	}
 
 	private void demark(Player player) {
@@ -187,8 +195,7 @@ public class OrbitalstrikeHandler extends WeaponHandler {
 			Block last = marks.get(playerId);
 			for (int i = 0; i < 11; i++) {
 				last = last.getRelative(BlockFace.UP);
-				Location loc = last.getLocation();
-				player.sendBlockChange(loc, last.getBlockData());
+				Paintball.getInstance().blockVisuals.revert(player, last);
 			}
 			marks.remove(playerId);
 		}
@@ -225,9 +232,10 @@ public class OrbitalstrikeHandler extends WeaponHandler {
 						player.sendBlockChange(oldLoc, player.getWorld().getBlockAt(oldLoc).getType(), player.getWorld().getBlockAt(oldLoc).getData());*/
 					i--;
 					oldLoc = new Location(location.getWorld(), location.getBlockX(), location.getBlockY() + i, location.getBlockZ());
+					Block block = oldLoc.getBlock();
 					BlockData blockData = Material.REDSTONE_BLOCK.createBlockData();
 					for (Player p : match.getAll()) {
-						p.sendBlockChange(oldLoc, blockData);
+						Paintball.getInstance().blockVisuals.setFake(p, block, blockData);
 					}
 
 					if (i <= 1) {
@@ -342,20 +350,18 @@ public class OrbitalstrikeHandler extends WeaponHandler {
 			Block last = block;
 			for (int i = 0; i < 10; i++) {
 				last = last.getRelative(BlockFace.UP);
-				player.sendBlockChange(last.getLocation(), blockData);
+				Paintball.getInstance().blockVisuals.setFake(player, last, blockData);
 			}
 			last = last.getRelative(BlockFace.UP);
-			player.sendBlockChange(last.getLocation(), Material.REDSTONE_BLOCK.createBlockData());
+			Paintball.getInstance().blockVisuals.setFake(player, last, Material.REDSTONE_BLOCK.createBlockData());
 		}
 
 		private void demark(UUID playerId, Match match) {
 			Block last = block;
 			for (int i = 0; i < 40; i++) {
 				last = last.getRelative(BlockFace.UP);
-				Location loc = last.getLocation();
-
 				for (Player p : match.getAll()) {
-					p.sendBlockChange(loc, last.getBlockData());
+					Paintball.getInstance().blockVisuals.revert(p, last);
 				}
 			}
 		}
@@ -10,7 +10,6 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
-import org.bukkit.entity.Snowball;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
@@ -46,14 +45,12 @@ public class PumpgunHandler extends WeaponHandler {
 		player.getWorld().playSound(location, Sound.ITEM_FLINTANDSTEEL_USE, 2.0F, 0F);
 		direction.normalize();
 
+		BallHandler ballHandler = Paintball.getInstance().weaponManager.getBallHandler();
 		for (int i = 0; i < Paintball.getInstance().pumpgunBullets; i++) {
-			Snowball snowball = location.getWorld().spawn(location, Snowball.class);
-			snowball.setShooter(player);
-			Paintball.getInstance().weaponManager.getBallHandler().createBall(match, player, snowball, origin);
 			Vector vel = new Vector(direction.getX() + (Utils.random.nextDouble() - 0.45) / Paintball.getInstance().pumpgunSpray,
 					direction.getY() + (Utils.random.nextDouble() - 0.45) / Paintball.getInstance().pumpgunSpray,
 					direction.getZ() + (Utils.random.nextDouble() - 0.45) / Paintball.getInstance().pumpgunSpray).normalize();
-			snowball.setVelocity(vel.multiply(speed));
+			ballHandler.launchBall(match, player, location, vel.multiply(speed), origin, 0);
 		}
 
 	}
@@ -80,10 +77,7 @@ public class PumpgunHandler extends WeaponHandler {
 		if (itemInHand == null) return;
 
 		if (itemInHand.isSimilar(getItem())) {
-			PlayerInventory inv = player.getInventory();
-			if ((match.setting_balls == -1 || inv.containsAtLeast(Paintball.getInstance().weaponManager.getBallHandler().getItem(), Paintball.getInstance().pumpgunAmmo))) {
-				Utils.removeInventoryItems(inv, Paintball.getInstance().weaponManager.getBallHandler().getItem(), Paintball.getInstance().pumpgunAmmo);
-				Utils.updatePlayerInventoryLater(Paintball.getInstance(), player);
+			if (match.takeBalls(player, Paintball.getInstance().pumpgunAmmo)) {
 				// INFORM MATCH
 				match.onShot(player);
 
@@ -4,6 +4,8 @@
  */
 package de.blablubbabc.paintball.gadgets.handlers;
 
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Effect;
@@ -16,7 +18,6 @@ import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Fireball;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
-import org.bukkit.entity.Snowball;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.entity.ProjectileHitEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
@@ -31,8 +32,8 @@ import de.blablubbabc.paintball.Origin;
 import de.blablubbabc.paintball.Paintball;
 import de.blablubbabc.paintball.gadgets.Gadget;
 import de.blablubbabc.paintball.gadgets.GadgetManager;
+import de.blablubbabc.paintball.gadgets.WeaponEvent;
 import de.blablubbabc.paintball.gadgets.WeaponHandler;
-import de.blablubbabc.paintball.gadgets.handlers.BallHandler.Ball;
 import de.blablubbabc.paintball.utils.Translator;
 import de.blablubbabc.paintball.utils.Utils;
 
@@ -63,6 +64,11 @@ public class RocketHandler extends WeaponHandler {
 		return Material.REPEATER;
 	}
 
+	@Override
+	protected EntityType getProjectileType() {
+		return EntityType.FIREBALL;
+	}
+
 	@Override
 	protected ItemStack setItemMeta(ItemStack itemStack) {
 		ItemMeta meta = itemStack.getItemMeta();
@@ -71,6 +77,11 @@ public class RocketHandler extends WeaponHandler {
 		return itemStack;
 	}
 
+	@Override
+	protected Set<WeaponEvent> getHandledEvents() {
+		return EnumSet.of(WeaponEvent.INTERACT, WeaponEvent.PROJECTILE_HIT);
+	}
+
 	@Override
 	protected void onInteract(PlayerInteractEvent event, Match match) {
 		if (event.getAction() == Action.PHYSICAL || !Paintball.getInstance().rocket) return;
@@ -146,6 +157,7 @@ public class RocketHandler extends WeaponHandler {
 			super(gadgetManager, match, player, origin);
 
 			this.entity = rocket;
+			this.trackEntity(entity);
 			this.player = player;
 			this.lives = Paintball.getInstance().rocketRange * 10;
 			tick();
@@ -182,25 +194,13 @@ public class RocketHandler extends WeaponHandler {
 				exploded = true;
 				Location loc = entity.getLocation();
 				loc.getWorld().createExplosion(loc, -1F, false);
+				BallHandler ballHandler = Paintball.getInstance().weaponManager.getBallHandler();
 				for (Vector v : Utils.getDirections()) {
-					final Snowball snowball = loc.getWorld().spawn(loc, Snowball.class);
-					snowball.setShooter(player);
-
-					final Ball ball = Paintball.getInstance().weaponManager.getBallHandler().createBall(match, player, snowball, getGadgetOrigin());
-
 					Vector v2 = v.clone();
 					v2.setX(v.getX() + Utils.random.nextDouble() - Utils.random.nextDouble());
 					v2.setY(v.getY() + Utils.random.nextDouble() - Utils.random.nextDouble());
 					v2.setZ(v.getZ() + Utils.random.nextDouble() - Utils.random.nextDouble());
-					snowball.setVelocity(v2.normalize());
-
-					Paintball.getInstance().getServer().getScheduler().runTaskLater(Paintball.getInstance(), new Runnable() {
-
-						@Override
-						public void run() {
-							ball.dispose(true);
-						}
-					}, (long) Paintball.getInstance().rocketTime);
+					ballHandler.launchBall(match, player, loc, v2.normalize(), getGadgetOrigin(), Paintball.getInstance().rocketTime);
 				}
 			}
 
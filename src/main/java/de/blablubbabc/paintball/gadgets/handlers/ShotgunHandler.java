@@ -10,7 +10,6 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
-import org.bukkit.entity.Snowball;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
@@ -57,6 +56,7 @@ public class ShotgunHandler extends WeaponHandler {
 		Vector dirY = (new Location(location.getWorld(), 0, 0, 0, location.getYaw(), 0)).getDirection().normalize();
 		Vector n = new Vector(dirY.getZ(), 0.0, -dirY.getX());
 
+		BallHandler ballHandler = Paintball.getInstance().weaponManager.getBallHandler();
 		boolean alreadyAngleNull = false;
 		for (int angle : angles) {
 			Vector vec;
@@ -73,16 +73,10 @@ public class ShotgunHandler extends WeaponHandler {
 			}
 
 			if (Paintball.getInstance().shotgunAngleVert == 0) {
-				Snowball snowball = location.getWorld().spawn(location, Snowball.class);
-				snowball.setShooter(player);
-				Paintball.getInstance().weaponManager.getBallHandler().createBall(match, player, snowball, origin);
-				snowball.setVelocity(vec.clone().multiply(speed));
+				ballHandler.launchBall(match, player, location, vec.clone().multiply(speed), origin, 0);
 			} else {
 				for (int i = -Paintball.getInstance().shotgunAngleVert; i <= Paintball.getInstance().shotgunAngleVert; i += Paintball.getInstance().shotgunAngleVert) {
-					Snowball snowball = location.getWorld().spawn(location, Snowball.class);
-					snowball.setShooter(player);
-					Paintball.getInstance().weaponManager.getBallHandler().createBall(match, player, snowball, origin);
-					snowball.setVelocity(Utils.rotateAxis(vec, n, i).multiply(speed));
+					ballHandler.launchBall(match, player, location, Utils.rotateAxis(vec, n, i).multiply(speed), origin, 0);
 				}
 			}
 		}
@@ -110,10 +104,7 @@ public class ShotgunHandler extends WeaponHandler {
 		if (itemInHand == null) return;
 
 		if (itemInHand.isSimilar(getItem())) {
-			PlayerInventory inv = player.getInventory();
-			if ((match.setting_balls == -1 || inv.containsAtLeast(Paintball.getInstance().weaponManager.getBallHandler().getItem(), Paintball.getInstance().shotgunAmmo))) {
-				Utils.removeInventoryItems(inv, Paintball.getInstance().weaponManager.getBallHandler().getItem(), Paintball.getInstance().shotgunAmmo);
-				Utils.updatePlayerInventoryLater(Paintball.getInstance(), player);
+			if (match.takeBalls(player, Paintball.getInstance().shotgunAmmo)) {
 				// INFORM MATCH
 				match.onShot(player);
 
@@ -5,7 +5,9 @@
 package de.blablubbabc.paintball.gadgets.handlers;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Bukkit;
@@ -13,7 +15,6 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
-import org.bukkit.entity.Snowball;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerToggleSneakEvent;
@@ -27,6 +28,7 @@ import de.blablubbabc.paintball.FragInformations;
 import de.blablubbabc.paintball.Match;
 import de.blablubbabc.paintball.Origin;
 import de.blablubbabc.paintball.Paintball;
+import de.blablubbabc.paintball.gadgets.WeaponEvent;
 import de.blablubbabc.paintball.gadgets.WeaponHandler;
 import de.blablubbabc.paintball.utils.Translator;
 import de.blablubbabc.paintball.utils.Utils;
@@ -53,13 +55,15 @@ public class SniperHandler extends WeaponHandler {
 		player.getWorld().playSound(location, Sound.ITEM_FLINTANDSTEEL_USE, 2.0F, 0F);
 		direction.normalize();
 
-		Snowball snowball = location.getWorld().spawn(location, Snowball.class);
-		snowball.setShooter(player);
-		Paintball.getInstance().weaponManager.getBallHandler().createBall(match, player, snowball, origin);
+		BallHandler ballHandler = Paintball.getInstance().weaponManager.getBallHandler();
 		if (Paintball.getInstance().sniperNoGravity) {
-			Paintball.getInstance().weaponManager.getNoGravityHandler().addEntity(snowball, direction.multiply(speed), Paintball.getInstance().sniperNoGravityDuration * 20);
+			// flies straight for the no gravity duration, and falls like a normal ball afterwards:
+			Location end = ballHandler.shootHitscan(match, player, location, direction, speed * Paintball.getInstance().sniperNoGravityDuration * 20, origin);
+			if (end != null) {
+				ballHandler.launchBall(match, player, end, direction.multiply(speed), origin, 0);
+			}
 		} else {
-			snowball.setVelocity(direction.multiply(speed));
+			ballHandler.launchBall(match, player, location, direction.multiply(speed), origin, 0);
 		}
 	}
 
@@ -76,6 +80,11 @@ public class SniperHandler extends WeaponHandler {
 		return itemStack;
 	}
 
+	@Override
+	protected Set<WeaponEvent> getHandledEvents() {
+		return EnumSet.of(WeaponEvent.INTERACT, WeaponEvent.TOGGLE_SNEAK, WeaponEvent.ITEM_HELD);
+	}
+
 	@Override
 	protected void onInteract(PlayerInteractEvent event, Match match) {
 		if (event.getAction() != Action.RIGHT_CLICK_AIR || !Paintball.getInstance().sniper) return;
@@ -87,7 +96,7 @@ public class SniperHandler extends WeaponHandler {
 		boolean canShoot = true;
 		if (Paintball.getInstance().sniperOnlyUseIfZooming && !isZooming(player)) {
 			canShoot = false;
-		} else if (match.setting_balls != -1 && !playerInventory.containsAtLeast(Paintball.getInstance().weaponManager.getBallHandler().getItem(), 1)) {
+		} else if (!match.hasBalls(player, 1)) {
 			canShoot = false;
 		}
 
@@ -103,11 +112,8 @@ public class SniperHandler extends WeaponHandler {
 		Location spawnLoc = Utils.getRightHeadLocation(direction, player.getEyeLocation());
 		shoot(player, match, spawnLoc, direction, Paintball.getInstance().sniperSpeedmulti, this.getWeaponOrigin());
 
-		if (match.setting_balls != -1) {
-			// -1 ball
-			Utils.removeInventoryItems(playerInventory, Paintball.getInstance().weaponManager.getBallHandler().getItem(), 1);
-			Utils.updatePlayerInventoryLater(Paintball.getInstance(), player);
-		}
+		// -1 ball
+		match.takeBalls(player, 1);
 	}
 
 	@Override
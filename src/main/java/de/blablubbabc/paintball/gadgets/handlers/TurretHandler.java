@@ -4,6 +4,16 @@
  */
 package de.blablubbabc.paintball.gadgets.handlers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Effect;
@@ -39,7 +49,11 @@ import de.blablubbabc.paintball.Origin;
 import de.blablubbabc.paintball.Paintball;
 import de.blablubbabc.paintball.gadgets.Gadget;
 import de.blablubbabc.paintball.gadgets.GadgetManager;
+import de.blablubbabc.paintball.gadgets.LineOfSight;
+import de.blablubbabc.paintball.gadgets.ParticipantGrid;
+import de.blablubbabc.paintball.gadgets.WeaponEvent;
 import de.blablubbabc.paintball.gadgets.WeaponHandler;
+import de.blablubbabc.paintball.utils.TickTask;
 import de.blablubbabc.paintball.utils.Translator;
 import de.blablubbabc.paintball.utils.Utils;
 
@@ -47,9 +61,21 @@ public class TurretHandler extends WeaponHandler implements Listener {
 
 	private GadgetManager gadgetManager = new GadgetManager();
 
-	private static Double[][] table;
+	private static double[][] table;
 	private static int ySize;
 
+	// All turrets get updated by one task: each tick the turrets of one slice, so every turret gets
+	// updated every SLICES ticks (which is the delay between the shots of a salve).
+	private static final int SLICES = 5;
+	// updates between two target searches (once per second):
+	private static final int SEARCH_INTERVAL = 4;
+
+	private final List<List<Turret>> slices = new ArrayList<List<Turret>>(SLICES);
+	private int nextSlice = 0;
+	private int currentSlice = 0;
+	private TickTask task = null;
+	private final Map<Match, ParticipantGrid> grids = new HashMap<Match, ParticipantGrid>();
+
 	private Location nextTurretSpawn = null;
 
 	public TurretHandler() {
@@ -65,6 +91,9 @@ public class TurretHandler extends WeaponHandler implements Listener {
 			}
 		});
 
+		for (int i = 0; i < SLICES; i++) {
+			slices.add(new ArrayList<Turret>());
+		}
 		calculateTable(Paintball.getInstance().turretAngleMin, Paintball.getInstance().turretAngleMax, Paintball.getInstance().turretTicks, Paintball.getInstance().turretXSize, Paintball.getInstance().turretYSize, Paintball.getInstance().speedmulti);
 		Paintball.getInstance().getServer().getPluginManager().registerEvents(this, Paintball.getInstance());
 	}
@@ -119,6 +148,11 @@ public class TurretHandler extends WeaponHandler implements Listener {
 		gadgetManager.cleanUp(match);
 	}
 
+	@Override
+	protected Set<WeaponEvent> getHandledEvents() {
+		return EnumSet.of(WeaponEvent.BLOCK_PLACE, WeaponEvent.DAMAGED_BY_ENTITY);
+	}
+
 	@Override
 	protected void onInteract(PlayerInteractEvent event, Match match) {
 
@@ -168,16 +202,26 @@ public class TurretHandler extends WeaponHandler implements Listener {
 
 	@Override
 	protected void onDamagedByEntity(EntityDamageByEntityEvent event, Match match, Player attacker) {
-		Gadget turretGadget = gadgetManager.getGadget(event.getEntity());
-		if (turretGadget != null) {
+		if (this.onHitByBall(event.getEntity(), match, attacker)) {
 			event.setCancelled(true);
-			if (match == turretGadget.getMatch()) {
-				Turret turret = (Turret) turretGadget;
-				if (match.enemys(attacker, turret.getOwner())) {
-					turret.hit();
-				}
+		}
+	}
+
+	public boolean isTurret(Entity entity) {
+		return gadgetManager.isGadget(entity);
+	}
+
+	// returns true if the entity is a turret
+	public boolean onHitByBall(Entity entity, Match match, Player attacker) {
+		Gadget turretGadget = gadgetManager.getGadget(entity);
+		if (turretGadget == null) return false;
+		if (match == turretGadget.getMatch()) {
+			Turret turret = (Turret) turretGadget;
+			if (match.enemys(attacker, turret.getOwner())) {
+				turret.hit();
 			}
 		}
+		return true;
 	}
 
 	private void calculateTable(
@@ -192,26 +236,23 @@ public class TurretHandler extends WeaponHandler implements Listener {
 
 		// if ySize = 50 -> size = 2*50: y-Size in both directions, up and down:
 		// 0=> 50
-		table = new Double[xSize][2 * ySize];
-
-		Double drag = 0.01D;
-		Double g = 0.03D;
-		Double vyMin = -3.0D;
-
-		// default values
-		for (int i = 0; i < table.length; i++) {
-			for (int j = 0; j < table[i].length; j++) {
-				table[i][j] = null;
-			}
+		// NaN: can't be reached
+		table = new double[xSize][2 * ySize];
+		for (double[] column : table) {
+			Arrays.fill(column, Double.NaN);
 		}
 
+		double drag = 0.01D;
+		double g = 0.03D;
+		double vyMin = -3.0D;
+
 		for (int a = angleMin; a <= angleMax; a++) {
-			Double tan = Math.tan(a * Math.PI / 180.0);
+			double tan = Math.tan(a * Math.PI / 180.0);
 			// t=0:
-			Double vx = Math.cos(a * Math.PI / 180.0) * speedmulti;
-			Double vy = Math.sin(a * Math.PI / 180.0) * speedmulti;
-			Double x = 0.0D;
-			Double y = 0.0D;
+			double vx = Math.cos(a * Math.PI / 180.0) * speedmulti;
+			double vy = Math.sin(a * Math.PI / 180.0) * speedmulti;
+			double x = 0.0D;
+			double y = 0.0D;
 
 			for (int t = 1; t <= ticks; t++) {
 				x += vx;
@@ -221,8 +262,8 @@ public class TurretHandler extends WeaponHandler implements Listener {
 								vy = vy - g;
 				vy = vy * (1 - drag);
 
-				int tx = x.intValue();
-				int ty = y.intValue();
+				int tx = (int) x;
+				int ty = (int) y;
 				if (tx < table.length && (ty + ySize) < 2 * ySize
 						&& (ty + ySize) >= 0) {
 					table[tx][ty + ySize] = tan;
@@ -238,21 +279,21 @@ public class TurretHandler extends WeaponHandler implements Listener {
 			int yMax = 2 * ySize - 1;
 			// Find min:
 			for (int y = 0; y < 2 * ySize; y++) {
-				if (table[x][y] != null) {
+				if (!Double.isNaN(table[x][y])) {
 					yMin = y;
 					break;
 				}
 			}
 			// Find max:
 			for (int y = 2 * ySize - 1; y >= 0; y--) {
-				if (table[x][y] != null) {
+				if (!Double.isNaN(table[x][y])) {
 					yMax = y;
 					break;
 				}
 			}
 			// Fill empty squares between:
 			for (int y = yMax - 1; y > yMin; y--) {
-				if (table[x][y] == null) {
+				if (Double.isNaN(table[x][y])) {
 					// Insert upper value:
 					table[x][y] = table[x][y + 1];
 				}
@@ -260,13 +301,135 @@ public class TurretHandler extends WeaponHandler implements Listener {
 		}
 	}
 
+	// horizontal and vertical offset from the ball's spawn position (2 blocks above the turret, 1
+	// block towards the target) to the target (1 block above its feet):
+	private static double getHorizontalOffset(double dx, double dz) {
+		return Math.abs(Math.sqrt(dx * dx + dz * dz) - 1.0D);
+	}
+
+	private static double getVerticalOffset(double dy) {
+		return dy - 1.0D;
+	}
+
+	private static boolean canBeShoot(double horizontal, double vertical) {
+		int x = (int) horizontal;
+		int y = (int) vertical;
+		if (x < table.length && (y + ySize) < 2 * ySize && (y + ySize) >= 0) {
+			return !Double.isNaN(table[x][y + ySize]);
+		} else {
+			return false;
+		}
+	}
+
+	private static Vector getAimVector(Vector dir, double horizontal, double vertical) {
+		Vector aim = dir.clone().normalize();
+		int x = (int) horizontal;
+		int y = (int) vertical;
+		double tan = Double.NaN;
+
+		if (canBeShoot(horizontal, vertical)) {
+			tan = table[x][y + ySize];
+		} else {
+			int yTarget;
+			int xTarget;
+			// find nearest y
+			if ((y + ySize) >= 2 * ySize) {
+				yTarget = 2 * ySize - 1;
+			} else if ((y + ySize) < 0) {
+				yTarget = 0;
+			} else {
+				yTarget = (y + ySize);
+			}
+			// find nearest x (x is always positiv because of direction change)
+			if (x >= table.length) {
+				xTarget = 0;
+			} else {
+				xTarget = x;
+			}
+
+			// find max X for this y
+			for (int tablex = table.length - 1; tablex >= 0; tablex--) {
+				if (!Double.isNaN(table[tablex][yTarget])) {
+					tan = table[tablex][yTarget];
+					break;
+				}
+			}
+			if (Double.isNaN(tan)) {
+				// find max y for this x
+				for (int tabley = 2 * ySize - 1; tabley >= 0; tabley--) {
+					if (!Double.isNaN(table[xTarget][tabley])) {
+						tan = table[xTarget][tabley];
+						break;
+					}
+				}
+			}
+			// shoot with nearly nearest anlge:
+		}
+		if (Double.isNaN(tan)) {
+			// default angle 45; tan 45 = 1.619
+			tan = 1.619D;
+		}
+		return aim.setY(tan).normalize().multiply(Paintball.getInstance().speedmulti);
+	}
+
+	// TURRET AI
+
+	private void addTurret(Turret turret) {
+		slices.get(nextSlice).add(turret);
+		nextSlice = (nextSlice + 1) % SLICES;
+		if (task == null) {
+			task = Paintball.getInstance().tickScheduler.runTaskTimer("turrets", new Runnable() {
+
+				@Override
+				public void run() {
+					updateTurrets();
+				}
+			}, 1L, 1L);
+		}
+	}
+
+	private void updateTurrets() {
+		List<Turret> slice = slices.get(currentSlice);
+		currentSlice = (currentSlice + 1) % SLICES;
+		Iterator<Turret> iterator = slice.iterator();
+		while (iterator.hasNext()) {
+			Turret turret = iterator.next();
+			if (turret.disposed) {
+				iterator.remove();
+			} else {
+				turret.update();
+			}
+		}
+		grids.clear();
+
+		for (List<Turret> turrets : slices) {
+			if (!turrets.isEmpty()) return;
+		}
+		task.cancel();
+		task = null;
+	}
+
+	// built once per tick and match, for all turrets of the match:
+	private ParticipantGrid getGrid(Match match) {
+		ParticipantGrid grid = grids.get(match);
+		if (grid == null) {
+			grid = new ParticipantGrid(match);
+			grids.put(match, grid);
+		}
+		return grid;
+	}
+
 	public class Turret extends Gadget {
 
 		private final LivingEntity entity;
 		private final Player player;
 
-		private int tickTask = -1;
-		private int salveTask = -1;
+		// updates until the next target search:
+		private int wait = SEARCH_INTERVAL;
+		private boolean firing = false;
+		// waiting for the line of sight checks of a target search:
+		private boolean searching = false;
+		private boolean disposed = false;
 
 		private int cooldown;
 		private Player target = null;
@@ -277,11 +440,12 @@ public class TurretHandler extends WeaponHandler implements Listener {
 			super(gadgetManager, match, player, origin);
 
 			this.entity = entity;
+			this.trackEntity(entity);
 			this.player = player;
 			this.cooldown = Paintball.getInstance().turretCooldown;
 			this.salve = Paintball.getInstance().turretSalve;
 			this.lives = Paintball.getInstance().turretLives;
-			this.tick();
+			addTurret(this);
 		}
 
 		@Override
@@ -294,29 +458,26 @@ public class TurretHandler extends WeaponHandler implements Listener {
 			return false;
 		}
 
-		private void tick() {
-			tickTask = Paintball.getInstance().getServer().getScheduler().runTaskLater(Paintball.getInstance(), new Runnable() {
-
-				@Override
-				public void run() {
-					if (target == null) {
-						target = searchTarget(Paintball.getInstance().turretXSize, 15);
-					}
+		// called every SLICES ticks
+		private void update() {
+			if (firing) {
+				this.fire();
+			} else if (--wait <= 0) {
+				wait = SEARCH_INTERVAL;
+				if (target == null && !searching) {
+					this.searchTarget(getGrid(match), Paintball.getInstance().turretXSize);
+				}
 
-					if (cooldown == 0) {
-						if (target != null) {
-							tickTask = -1;
-							shoot();
-						} else {
-							cooldown = Paintball.getInstance().turretCooldown;
-							tick();
-						}
-					} else {
-						cooldown--;
-						tick();
+				if (cooldown == 0) {
+					if (target != null) {
+						firing = true;
+					} else if (!searching) {
+						cooldown = Paintball.getInstance().turretCooldown;
 					}
+				} else {
+					cooldown--;
 				}
-			}, 20L).getTaskId();
+			}
 		}
 
 		/**
@@ -328,96 +489,146 @@ public class TurretHandler extends WeaponHandler implements Listener {
 			return player;
 		}
 
-		// TODO less square roots
-		private Player searchTarget(int maxRadius, int instantRadius) {
-			Vector entVec = entity.getLocation().toVector();
-			Player nearest = null;
-			double distance = 0;
-			int instantRadius2 = instantRadius * instantRadius;
-			int maxRadius2 = maxRadius * maxRadius;
-			for (Player p : match.getEnemyTeam(player)) {
-				if (match.isSurvivor(p)) {
-					Location ploc = p.getLocation();
-					if (ploc.getWorld().equals(entity.getWorld())) {
-						Vector targetVec = ploc.toVector().add(new Vector(0, 1, 0));
-						Vector dir = targetVec.clone().subtract(entVec).normalize();
-						Vector dir2 = new Vector(dir.getX(), 0, dir.getZ()).normalize();
-						if (entity.hasLineOfSight(p) && canBeShoot(entVec.clone().add(new Vector(0, 2, 0)).add(dir2), targetVec.clone(), dir2.clone())) {
-							double dist2 = entity.getLocation().distanceSquared(ploc);
-							if (dist2 <= instantRadius2) {
-								nearest = p;
-								distance = dist2;
+		// Searches the nearest enemy, which can be hit. The line of sight gets checked last, as it
+		// is the most expensive check, and its results arrive with one of the next ticks.
+		private void searchTarget(ParticipantGrid grid, int maxRadius) {
+			Set<Player> enemies = match.getEnemyTeam(player);
+			if (enemies == null) return;
+			final Location location = entity.getLocation();
+			final double x = location.getX();
+			final double y = location.getY();
+			final double z = location.getZ();
+			double maxRadius2 = maxRadius * maxRadius;
+
+			List<ParticipantGrid.Entry> candidates = grid.getNearby(location.getWorld(), x, z, maxRadius);
+			Iterator<ParticipantGrid.Entry> iterator = candidates.iterator();
+			while (iterator.hasNext()) {
+				ParticipantGrid.Entry candidate = iterator.next();
+				if (!enemies.contains(candidate.getPlayer()) || candidate.distanceSquared(x, y, z) > maxRadius2) {
+					iterator.remove();
+				}
+			}
+			if (candidates.size() > 1) {
+				Collections.sort(candidates, new Comparator<ParticipantGrid.Entry>() {
+
+					@Override
+					public int compare(ParticipantGrid.Entry entry1, ParticipantGrid.Entry entry2) {
+						return Double.compare(entry1.distanceSquared(x, y, z), entry2.distanceSquared(x, y, z));
+					}
+				});
+			}
+
+			final List<Player> targets = new ArrayList<Player>(candidates.size());
+			for (ParticipantGrid.Entry candidate : candidates) {
+				double horizontal = getHorizontalOffset(candidate.getX() - x, candidate.getZ() - z);
+				double vertical = getVerticalOffset(candidate.getY() - y);
+				if (canBeShoot(horizontal, vertical)) {
+					targets.add(candidate.getPlayer());
+				}
+			}
+			if (targets.isEmpty()) return;
+
+			searching = true;
+			final boolean[] visible = new boolean[targets.size()];
+			final int[] remaining = new int[] { targets.size() };
+			Location eyeLocation = entity.getEyeLocation();
+			for (int i = 0; i < targets.size(); i++) {
+				final int index = i;
+				Paintball.getInstance().lineOfSight.check(eyeLocation, targets.get(i).getEyeLocation(), null, true, new LineOfSight.Callback() {
+
+					@Override
+					public void onResult(boolean result) {
+						visible[index] = result;
+						if (--remaining[0] > 0) return;
+						Player found = null;
+						for (int j = 0; j < targets.size(); j++) {
+							if (visible[j] && match.isSurvivor(targets.get(j))) {
+								found = targets.get(j);
 								break;
-							} else if (dist2 <= maxRadius2) {
-								if (nearest != null) {
-									if (dist2 < distance) {
-										nearest = p;
-										distance = dist2;
-									}
-								} else {
-									nearest = p;
-									distance = dist2;
-								}
 							}
 						}
+						onSearchResult(found);
 					}
-				}
+				});
+			}
+		}
+
+		private void onSearchResult(Player found) {
+			searching = false;
+			if (disposed) return;
+			target = found;
+			if (target != null) {
+				// gets handled with the next update already:
+				wait = 1;
+			} else if (cooldown == 0) {
+				cooldown = Paintball.getInstance().turretCooldown;
 			}
-			return nearest;
 		}
 
-		private void shoot() {
-			salveTask = Paintball.getInstance().getServer().getScheduler().runTaskLater(Paintball.getInstance(), new Runnable() {
+		// forgets the target, if the turret can no longer see it
+		private void checkTarget(final Player checkedTarget) {
+			Paintball.getInstance().lineOfSight.check(entity.getEyeLocation(), checkedTarget.getEyeLocation(), null, true, new LineOfSight.Callback() {
 
 				@Override
-				public void run() {
-					if (target != null && match.isSurvivor(target)) {
-						Vector targetVec = target.getLocation().toVector().add(new Vector(0, 1, 0));
-						Vector entVec = entity.getLocation().toVector();
-						Vector dir = targetVec.clone().subtract(entVec).normalize();
-						Vector dir2 = new Vector(dir.getX(), 0, dir.getZ()).normalize();
-						if (salve > 0) {
-
-							double x = dir.getX();
-							double y = dir.getY();
-							double z = dir.getZ();
-
-							// Now change the angle
-							Location changed = entity.getLocation().clone();
-							changed.setYaw(180 - (float) Math.toDegrees(Math.atan2(x, z)));
-							changed.setPitch(90 - (float) Math.toDegrees(Math.acos(y)));
-							entity.teleport(changed);
-
-							entity.getWorld().playSound(entity.getEyeLocation(), Sound.ENTITY_IRON_GOLEM_ATTACK, 2.0F, 1F);
-							entity.getWorld().playSound(entity.getEyeLocation(), Sound.ENTITY_CHICKEN_EGG, 2.0F, 1F);
-							Snowball ball = (Snowball) entity.getLocation().getWorld().spawnEntity(entity.getLocation().add(new Vector(0, 2, 0)).add(dir2), EntityType.SNOWBALL);
-							Player player = getOwner();
-							ball.setShooter(player);
-
-							Paintball.getInstance().weaponManager.getBallHandler().createBall(match, player, ball, getGadgetOrigin());
-
-							ball.setVelocity(getAimVector(entVec.clone().add(new Vector(0, 2, 0)).add(dir2), targetVec.clone(), dir2.clone()));
-
-							salve--;
-							shoot();
-						} else {
-							if (!entity.hasLineOfSight(target)
-									|| !canBeShoot(entVec.clone().add(new Vector(0, 2, 0)).add(dir2), targetVec.clone(), dir2.clone())) {
-								target = null;
-							}
+				public void onResult(boolean visible) {
+					if (!visible && target == checkedTarget) {
+						target = null;
+					}
+				}
+			});
+		}
 
-							salve = Paintball.getInstance().turretSalve;
-							salveTask = -1;
-							tick();
-						}
-					} else {
+		private void fire() {
+			if (target != null && match.isSurvivor(target)) {
+				Location location = entity.getLocation();
+				Location targetLocation = target.getLocation();
+				Vector targetVec = targetLocation.toVector().add(new Vector(0, 1, 0));
+				Vector entVec = location.toVector();
+				Vector dir = targetVec.clone().subtract(entVec).normalize();
+				Vector dir2 = new Vector(dir.getX(), 0, dir.getZ()).normalize();
+				double horizontal = getHorizontalOffset(targetLocation.getX() - location.getX(), targetLocation.getZ() - location.getZ());
+				double vertical = getVerticalOffset(targetLocation.getY() - location.getY());
+				if (salve > 0) {
+
+					double x = dir.getX();
+					double y = dir.getY();
+					double z = dir.getZ();
+
+					// Now change the angle
+					Location changed = location.clone();
+					changed.setYaw(180 - (float) Math.toDegrees(Math.atan2(x, z)));
+					changed.setPitch(90 - (float) Math.toDegrees(Math.acos(y)));
+					entity.teleport(changed);
+
+					entity.getWorld().playSound(entity.getEyeLocation(), Sound.ENTITY_IRON_GOLEM_ATTACK, 2.0F, 1F);
+					entity.getWorld().playSound(entity.getEyeLocation(), Sound.ENTITY_CHICKEN_EGG, 2.0F, 1F);
+					Snowball ball = (Snowball) location.getWorld().spawnEntity(location.clone().add(new Vector(0, 2, 0)).add(dir2), EntityType.SNOWBALL);
+					Player player = getOwner();
+					ball.setShooter(player);
+
+					Paintball.getInstance().weaponManager.getBallHandler().createBall(match, player, ball, getGadgetOrigin());
+
+					ball.setVelocity(getAimVector(dir2, horizontal, vertical));
+
+					salve--;
+				} else {
+					if (!canBeShoot(horizontal, vertical)) {
 						target = null;
-						salve = Paintball.getInstance().turretSalve;
-						salveTask = -1;
-						tick();
+					} else {
+						this.checkTarget(target);
 					}
+					this.stopFiring();
 				}
-			}, 5L).getTaskId();
+			} else {
+				target = null;
+				this.stopFiring();
+			}
+		}
+
+		private void stopFiring() {
+			salve = Paintball.getInstance().turretSalve;
+			firing = false;
+			wait = SEARCH_INTERVAL;
 		}
 
 		public void die() {
@@ -437,13 +648,8 @@ public class TurretHandler extends WeaponHandler implements Listener {
 
 		@Override
 		public void dispose(boolean removeFromGadgetHandlerTracking) {
-			if (tickTask != -1) {
-				Paintball.getInstance().getServer().getScheduler().cancelTask(tickTask);
-			}
-
-			if (salveTask != -1) {
-				Paintball.getInstance().getServer().getScheduler().cancelTask(salveTask);
-			}
+			// gets removed from the turret updates with its next update:
+			disposed = true;
 
 			entity.remove();
 
@@ -458,66 +664,5 @@ public class TurretHandler extends WeaponHandler implements Listener {
 				entity.getWorld().playSound(entity.getEyeLocation(), Sound.ENTITY_IRON_GOLEM_HURT, 3L, 2L);
 			}
 		}
-
-		private boolean canBeShoot(Vector pos, Vector target, Vector dir) {
-			int x = ((Double) target.clone().setY(0).distance(pos.clone().setY(0))).intValue();
-			int y = ((Double) (target.getY() - pos.getY())).intValue();
-			if (x < table.length && (y + ySize) < 2 * ySize && (y + ySize) >= 0) {
-				return (table[x][y + ySize] != null);
-			} else {
-				return false;
-			}
-		}
-
-		private Vector getAimVector(Vector pos, Vector target, Vector dir) {
-			Vector aim = dir.clone().normalize();
-			int x = ((Double) target.clone().setY(0).distance(pos.clone().setY(0))).intValue();
-			int y = ((Double) (target.getY() - pos.getY())).intValue();
-			Double tan = null;
-
-			if (canBeShoot(pos, target, dir)) {
-				tan = table[x][y + ySize];
-			} else {
-				int yTarget;
-				int xTarget;
-				// find nearest y
-				if ((y + ySize) >= 2 * ySize) {
-					yTarget = 2 * ySize - 1;
-				} else if ((y + ySize) < 0) {
-					yTarget = 0;
-				} else {
-					yTarget = (y + ySize);
-				}
-				// find nearest x (x is always positiv because of direction change)
-				if (x > table.length) {
-					xTarget = 0;
-				} else {
-					xTarget = x;
-				}
-
-				// find max X for this y
-				for (int tablex = table.length - 1; tablex >= 0; tablex--) {
-					if (table[tablex][yTarget] != null) {
-						tan = table[tablex][yTarget];
-						break;
-					}
-				}
-				if (tan == null) {
-					// find max y for this x
-					for (int tabley = 2 * ySize - 1; tabley >= 0; tabley--) {
-						if (table[xTarget][tabley] != null) {
-							tan = table[xTarget][tabley];
-							break;
-						}
-					}
-				}
-				// shoot with nearly nearest anlge:
-			}
-			if (tan == null) {
-				// default angle 45; tan 45 = 1.619
-				tan = 1.619D;
-			}
-			return aim.setY(tan).normalize().multiply(Paintball.getInstance().speedmulti);
-		}
 	}
 }
@@ -7,11 +7,11 @@ package de.blablubbabc.paintball.joindelay;
 import org.bukkit.entity.Player;
 
 import de.blablubbabc.paintball.Paintball;
+import de.blablubbabc.paintball.utils.TickTask;
 
 public class WaitTimer {
 
-	private Paintball plugin;
-	private int task = -1;
+	private TickTask task;
 	private int time;
 	private final JoinWaitRunnable waitRunnable;
 
@@ -23,10 +23,9 @@ public class WaitTimer {
 			final int times,
 			final JoinWaitRunnable waitRunnable
 	) {
-		this.plugin = plugin;
 		this.waitRunnable = waitRunnable;
 		time = times;
-		task = plugin.getServer().getScheduler().runTaskTimer(plugin, new Runnable() {
+		task = plugin.tickScheduler.runTaskTimer("join delay", new Runnable() {
 			@Override
 			public void run() {
 				// check if player moved:
@@ -40,7 +39,7 @@ public class WaitTimer {
 					if (waitRunnable != null) waitRunnable.run();
 				}
 			}
-		}, preDelay, delay).getTaskId();
+		}, preDelay, delay);
 	}
 
 	public int getTime() {
@@ -48,16 +47,11 @@ public class WaitTimer {
 	}
 
 	public boolean isRunning() {
-		if (task == -1) return false;
-		return plugin.getServer().getScheduler().isCurrentlyRunning(task)
-				|| plugin.getServer().getScheduler().isQueued(task);
+		return task.isScheduled();
 	}
 
 	public void end() {
-		if (isRunning()) {
-			plugin.getServer().getScheduler().cancelTask(task);
-			task = -1;
-		}
+		task.cancel();
 	}
 
 	public void onAbort() {
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.scoreboards;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.bukkit.scoreboard.DisplaySlot;
+import org.bukkit.scoreboard.Objective;
+import org.bukkit.scoreboard.Scoreboard;
+
+/**
+ * The sidebar scoreboard of one player. Changes only mark the board as dirty: the
+ * {@link ScoreboardEngine} renders it at most once per tick, and only sends the lines whose
+ * values have changed since the last rendering.
+ */
+public class PlayerBoard {
+
+	private final ScoreboardEngine engine;
+	private final ScoreboardLayout layout;
+	private final Scoreboard scoreboard;
+	private final Objective objective;
+	// fills the current values of all lines:
+	private final Consumer<int[]> values;
+
+	private final int[] currentValues;
+	private final int[] sentValues;
+	private String header;
+	private String sentHeader;
+	boolean dirty = false;
+	private boolean disposed = false;
+
+	PlayerBoard(ScoreboardEngine engine, ScoreboardLayout layout, Scoreboard scoreboard, String header, Consumer<int[]> values) {
+		this.engine = engine;
+		this.layout = layout;
+		this.scoreboard = scoreboard;
+		this.values = values;
+		this.header = trimHeader(header);
+		this.sentHeader = this.header;
+		this.objective = scoreboard.registerNewObjective(layout.getObjectiveName(), "dummy", this.header);
+		objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+		this.currentValues = new int[layout.getSize()];
+		this.sentValues = new int[layout.getSize()];
+		// no line got sent yet:
+		Arrays.fill(sentValues, Integer.MIN_VALUE);
+	}
+
+	private static String trimHeader(String header) {
+		return header.length() > 32 ? header.substring(0, 32) : header;
+	}
+
+	public Scoreboard getScoreboard() {
+		return scoreboard;
+	}
+
+	// the values have changed
+	public void update() {
+		if (!disposed) engine.markDirty(this);
+	}
+
+	public void setHeader(String header) {
+		this.header = trimHeader(header);
+		if (!this.header.equals(sentHeader)) this.update();
+	}
+
+	// this board is no longer used
+	public void dispose() {
+		disposed = true;
+	}
+
+	void render() {
+		if (disposed) return;
+		if (!header.equals(sentHeader)) {
+			objective.setDisplayName(header);
+			sentHeader = header;
+		}
+		values.accept(currentValues);
+		for (int line = 0; line < currentValues.length; line++) {
+			int value = currentValues[line];
+			if (value != sentValues[line]) {
+				objective.getScore(layout.getLabel(line)).setScore(value);
+				sentValues[line] = value;
+			}
+		}
+	}
+}
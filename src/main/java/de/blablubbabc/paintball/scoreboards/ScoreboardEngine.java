@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.scoreboards;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.bukkit.Bukkit;
+
+import de.blablubbabc.paintball.Paintball;
+import de.blablubbabc.paintball.statistics.player.PlayerStat;
+import de.blablubbabc.paintball.statistics.player.match.tdm.TDMMatchStat;
+import de.blablubbabc.paintball.utils.TickTask;
+import de.blablubbabc.paintball.utils.Translator;
+
+/**
+ * Creates the lobby and match scoreboards, and renders all boards which have changed once per
+ * tick. Only to be used from the main thread.
+ */
+public class ScoreboardEngine {
+
+	// the stats shown on the lobby scoreboard, skipping airstrikes and grenades count:
+	public static final PlayerStat[] LOBBY_STATS = Arrays.stream(PlayerStat.values())
+			.filter(stat -> stat != PlayerStat.AIRSTRIKES && stat != PlayerStat.GRENADES)
+			.toArray(PlayerStat[]::new);
+	// the match stats shown on the match scoreboard (followed by the overall points and money),
+	// skipping airstrikes, grenades and teamattacks count:
+	public static final TDMMatchStat[] MATCH_STATS = Arrays.stream(TDMMatchStat.values())
+			.filter(stat -> stat != TDMMatchStat.AIRSTRIKES && stat != TDMMatchStat.GRENADES && stat != TDMMatchStat.TEAMATTACKS)
+			.toArray(TDMMatchStat[]::new);
+
+	private final Paintball plugin;
+	private final ScoreboardLayout lobbyLayout;
+	private final ScoreboardLayout matchLayout;
+
+	private final List<PlayerBoard> dirtyBoards = new ArrayList<PlayerBoard>();
+	private TickTask renderTask = null;
+
+	public ScoreboardEngine(Paintball plugin) {
+		this.plugin = plugin;
+
+		String[] lobbyLabels = new String[LOBBY_STATS.length];
+		for (int i = 0; i < LOBBY_STATS.length; i++) {
+			lobbyLabels[i] = Translator.getString("SCOREBOARD_LOBBY_" + LOBBY_STATS[i].getKey().toUpperCase());
+		}
+		lobbyLayout = new ScoreboardLayout("pbLobby", lobbyLabels);
+
+		String[] matchLabels = new String[MATCH_STATS.length + 2];
+		for (int i = 0; i < MATCH_STATS.length; i++) {
+			matchLabels[i] = Translator.getString("SCOREBOARD_MATCH_" + MATCH_STATS[i].getPlayerStat().getKey().toUpperCase());
+		}
+		matchLabels[MATCH_STATS.length] = Translator.getString("SCOREBOARD_MATCH_OVERALL_POINTS");
+		matchLabels[MATCH_STATS.length + 1] = Translator.getString("SCOREBOARD_MATCH_OVERALL_MONEY");
+		matchLayout = new ScoreboardLayout("pbMatch", matchLabels);
+	}
+
+	public ScoreboardLayout getLobbyLayout() {
+		return lobbyLayout;
+	}
+
+	public ScoreboardLayout getMatchLayout() {
+		return matchLayout;
+	}
+
+	// creates a new scoreboard, and renders it right away
+	public PlayerBoard createBoard(ScoreboardLayout layout, String header, Consumer<int[]> values) {
+		PlayerBoard board = new PlayerBoard(this, layout, Bukkit.getScoreboardManager().getNewScoreboard(), header, values);
+		board.render();
+		return board;
+	}
+
+	void markDirty(PlayerBoard board) {
+		if (board.dirty) return;
+		board.dirty = true;
+		dirtyBoards.add(board);
+		if (renderTask == null || !renderTask.isScheduled()) {
+			renderTask = plugin.tickScheduler.runTaskLater("scoreboards", new Runnable() {
+
+				@Override
+				public void run() {
+					renderDirty();
+				}
+			}, 1L);
+		}
+	}
+
+	private void renderDirty() {
+		for (int i = 0; i < dirtyBoards.size(); i++) {
+			PlayerBoard board = dirtyBoards.get(i);
+			board.dirty = false;
+			board.render();
+		}
+		dirtyBoards.clear();
+	}
+}
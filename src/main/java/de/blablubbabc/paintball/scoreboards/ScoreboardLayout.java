@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.scoreboards;
+
+/**
+ * The lines of a sidebar scoreboard. Shared by the boards of all players, so that the line labels
+ * only get translated once.
+ */
+public class ScoreboardLayout {
+
+	private final String objectiveName;
+	private final String[] labels;
+
+	public ScoreboardLayout(String objectiveName, String[] labels) {
+		this.objectiveName = objectiveName;
+		this.labels = new String[labels.length];
+		for (int i = 0; i < labels.length; i++) {
+			String label = labels[i];
+			this.labels[i] = label.length() > 16 ? label.substring(0, 16) : label;
+		}
+	}
+
+	public String getObjectiveName() {
+		return objectiveName;
+	}
+
+	public int getSize() {
+		return labels.length;
+	}
+
+	public String getLabel(int line) {
+		return labels[line];
+	}
+}
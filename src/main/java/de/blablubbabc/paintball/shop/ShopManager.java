@@ -133,6 +133,7 @@ public class ShopManager {
 
 			// give item
 			player.getInventory().addItem(item);
+			match.invalidateBalls(player);
 			Sounds.playEquipLoadout(player);
 			player.updateInventory();
 
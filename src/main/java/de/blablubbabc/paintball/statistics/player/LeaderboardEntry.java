@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.statistics.player;
+
+import java.util.UUID;
+
+public class LeaderboardEntry {
+
+	private final UUID playerUUID;
+	private final String playerName;
+	private final int value;
+
+	public LeaderboardEntry(UUID playerUUID, String playerName, int value) {
+		this.playerUUID = playerUUID;
+		this.playerName = playerName;
+		this.value = value;
+	}
+
+	public UUID getPlayerUUID() {
+		return playerUUID;
+	}
+
+	public String getPlayerName() {
+		return playerName;
+	}
+
+	public int getValue() {
+		return value;
+	}
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.statistics.player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+
+import de.blablubbabc.paintball.Paintball;
+import de.blablubbabc.paintball.utils.Utils;
+
+/**
+ * In-memory snapshot of the top players for each stat.
+ * <p>
+ * The lists get loaded from the database once, and are afterwards kept up to date with the stats
+ * which the stats writer has written. Only if a player drops out of a full list, the next player
+ * is unknown: that list gets reloaded in the background. Additionally, all lists get reloaded
+ * periodically, in case the database gets changed from elsewhere.
+ */
+public class PlayerLeaderboards {
+
+	public static final int SIZE = 10;
+
+	private final Paintball plugin;
+
+	// immutable lists, which get replaced on every change:
+	private final Map<PlayerStat, List<LeaderboardEntry>> boards = new EnumMap<PlayerStat, List<LeaderboardEntry>>(PlayerStat.class);
+	// lists which need to be reloaded:
+	private final Set<PlayerStat> stale = EnumSet.noneOf(PlayerStat.class);
+	// counts the changes of each list, so that outdated reloads can be detected:
+	private final int[] modifications = new int[PlayerStat.values().length];
+	private boolean reloadScheduled = false;
+
+	public PlayerLeaderboards(Paintball plugin) {
+		this.plugin = plugin;
+		List<LeaderboardEntry> empty = Collections.emptyList();
+		for (PlayerStat stat : PlayerStat.values()) {
+			boards.put(stat, empty);
+		}
+	}
+
+	// GET
+
+	// sorted by value, the best first
+	public synchronized List<LeaderboardEntry> getTop(PlayerStat stat) {
+		return boards.get(stat);
+	}
+
+	// returns null if there are no players yet
+	public synchronized LeaderboardEntry getFirst(PlayerStat stat) {
+		List<LeaderboardEntry> board = boards.get(stat);
+		return board.isEmpty() ? null : board.get(0);
+	}
+
+	// UPDATE
+
+	// Has to be called after the given stats got written to the database.
+	public synchronized void update(UUID playerUUID, Map<PlayerStat, Integer> stats) {
+		String playerName = null;
+		for (PlayerStat stat : PlayerStat.values()) {
+			Integer value = stats.get(stat);
+			if (value == null) continue;
+			List<LeaderboardEntry> board = boards.get(stat);
+
+			int index = indexOf(board, playerUUID);
+			LeaderboardEntry last = board.size() < SIZE ? null : board.get(board.size() - 1);
+			if (index == -1) {
+				// not good enough to replace the last entry (on equal values the order is undefined):
+				if (last != null && value <= last.getValue()) continue;
+			} else {
+				LeaderboardEntry current = board.get(index);
+				if (current.getValue() == value) continue;
+				// players after the last entry might now be better:
+				if (last != null && value < last.getValue()) {
+					this.markStale(stat);
+					continue;
+				}
+			}
+
+			String name = index == -1 ? null : board.get(index).getPlayerName();
+			if (name == null) {
+				if (playerName == null) playerName = Bukkit.getOfflinePlayer(playerUUID).getName();
+				if (playerName == null) {
+					this.markStale(stat);
+					continue;
+				}
+				name = playerName;
+			}
+
+			List<LeaderboardEntry> newBoard = new ArrayList<LeaderboardEntry>(board);
+			if (index != -1) newBoard.remove(index);
+			int position = 0;
+			while (position < newBoard.size() && newBoard.get(position).getValue() >= value) {
+				position++;
+			}
+			newBoard.add(position, new LeaderboardEntry(playerUUID, name, value));
+			if (newBoard.size() > SIZE) newBoard.remove(SIZE);
+			this.setBoard(stat, newBoard);
+		}
+	}
+
+	private static int indexOf(List<LeaderboardEntry> board, UUID playerUUID) {
+		for (int i = 0; i < board.size(); i++) {
+			if (board.get(i).getPlayerUUID().equals(playerUUID)) return i;
+		}
+		return -1;
+	}
+
+	private void setBoard(PlayerStat stat, List<LeaderboardEntry> board) {
+		boards.put(stat, Collections.unmodifiableList(board));
+		modifications[stat.ordinal()]++;
+	}
+
+	private void markStale(PlayerStat stat) {
+		stale.add(stat);
+		this.scheduleReload();
+	}
+
+	private void scheduleReload() {
+		if (!reloadScheduled) {
+			reloadScheduled = Utils.runAsyncTask(plugin, new Runnable() {
+
+				@Override
+				public void run() {
+					reloadStale();
+				}
+			});
+		}
+	}
+
+	// RELOAD
+
+	// Loads all lists from the database in the background. Until then, the current (initially
+	// empty) lists get served.
+	public synchronized void reloadAllAsync() {
+		stale.addAll(EnumSet.allOf(PlayerStat.class));
+		this.scheduleReload();
+	}
+
+	// Loads all lists from the database (blocking).
+	public void reloadAll() {
+		synchronized (this) {
+			stale.addAll(EnumSet.allOf(PlayerStat.class));
+		}
+		this.reloadStale();
+	}
+
+	private void reloadStale() {
+		Set<PlayerStat> toReload;
+		int[] expectedModifications;
+		synchronized (this) {
+			reloadScheduled = false;
+			toReload = EnumSet.copyOf(stale);
+			stale.clear();
+			expectedModifications = modifications.clone();
+		}
+		if (toReload.isEmpty()) return;
+
+		Map<PlayerStat, List<LeaderboardEntry>> loaded = new EnumMap<PlayerStat, List<LeaderboardEntry>>(PlayerStat.class);
+		for (PlayerStat stat : toReload) {
+			loaded.put(stat, plugin.storage.getPlayers().getTopEntries(stat, SIZE));
+		}
+
+		synchronized (this) {
+			for (Map.Entry<PlayerStat, List<LeaderboardEntry>> entry : loaded.entrySet()) {
+				PlayerStat stat = entry.getKey();
+				if (modifications[stat.ordinal()] != expectedModifications[stat.ordinal()]) {
+					// the list got changed while loading, the loaded list might already be outdated:
+					this.markStale(stat);
+				} else {
+					this.setBoard(stat, entry.getValue());
+				}
+			}
+		}
+	}
+
+	public void startReloadTask(int intervalSeconds) {
+		if (intervalSeconds <= 0) return;
+		long intervalTicks = intervalSeconds * 20L;
+		Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, new Runnable() {
+
+			@Override
+			public void run() {
+				reloadAll();
+			}
+		}, intervalTicks, intervalTicks);
+	}
+}
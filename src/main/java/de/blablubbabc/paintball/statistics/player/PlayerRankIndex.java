@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.statistics.player;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+
+import de.blablubbabc.paintball.Paintball;
+import de.blablubbabc.paintball.utils.Log;
+import de.blablubbabc.paintball.utils.Utils;
+
+/**
+ * In-memory index for the ranks of all players, for every stat.
+ * <p>
+ * For each stat the values of all players are kept in a sorted array, so that a rank is found by a
+ * binary search. The index gets loaded once from the database (in the background), and is
+ * afterwards updated with every stats save. While it is not loaded, ranks are not available from
+ * here.
+ */
+public class PlayerRankIndex {
+
+	private static final int STATS = PlayerStat.values().length;
+
+	private final Paintball plugin;
+
+	// the current values of each player, by stat ordinal:
+	private final Map<UUID, int[]> playerValues = new HashMap<UUID, int[]>();
+	// for each stat: the values of all players, sorted ascending
+	private int[][] sortedValues = new int[STATS][0];
+	private int size = 0;
+
+	private boolean loaded = false;
+	private int loadId = 0;
+	// changes which happen while loading, which are applied once the loading is done:
+	private final Map<UUID, int[]> pendingUpdates = new HashMap<UUID, int[]>();
+	private final Set<UUID> pendingNew = new HashSet<UUID>();
+
+	public PlayerRankIndex(Paintball plugin) {
+		this.plugin = plugin;
+	}
+
+	// returns the rank (starting at 1), or -1 if the rank is not known here
+	public synchronized int getRank(UUID playerUUID, PlayerStat stat) {
+		if (!loaded) return -1;
+		int[] values = playerValues.get(playerUUID);
+		if (values == null) return -1;
+		int value = values[stat.ordinal()];
+		// number of players with a higher value, plus one:
+		return size - upperBound(sortedValues[stat.ordinal()], size, value) + 1;
+	}
+
+	// Has to be called after the given stats got written to the database.
+	public synchronized void update(UUID playerUUID, Map<PlayerStat, Integer> stats) {
+		int[] newValues = playerValues.get(playerUUID);
+		if (!loaded) {
+			newValues = pendingUpdates.get(playerUUID);
+			if (newValues == null) {
+				newValues = new int[STATS];
+				Arrays.fill(newValues, Integer.MIN_VALUE);
+				pendingUpdates.put(playerUUID, newValues);
+			}
+			for (Entry<PlayerStat, Integer> entry : stats.entrySet()) {
+				newValues[entry.getKey().ordinal()] = entry.getValue();
+			}
+			return;
+		}
+
+		if (newValues == null) {
+			this.insertPlayer(playerUUID);
+			newValues = playerValues.get(playerUUID);
+		}
+		for (Entry<PlayerStat, Integer> entry : stats.entrySet()) {
+			int ordinal = entry.getKey().ordinal();
+			int value = entry.getValue();
+			replace(sortedValues[ordinal], size, newValues[ordinal], value);
+			newValues[ordinal] = value;
+		}
+	}
+
+	// adds a new player with all stats at 0, if the player is not yet known
+	public synchronized void addPlayer(UUID playerUUID) {
+		if (!loaded) {
+			pendingNew.add(playerUUID);
+		} else if (!playerValues.containsKey(playerUUID)) {
+			this.insertPlayer(playerUUID);
+		}
+	}
+
+	private void insertPlayer(UUID playerUUID) {
+		if (size == sortedValues[0].length) {
+			int capacity = Math.max(16, size + (size >> 1));
+			for (int i = 0; i < STATS; i++) {
+				sortedValues[i] = Arrays.copyOf(sortedValues[i], capacity);
+			}
+		}
+		for (int i = 0; i < STATS; i++) {
+			int[] sorted = sortedValues[i];
+			int index = upperBound(sorted, size, 0);
+			System.arraycopy(sorted, index, sorted, index + 1, size - index);
+			sorted[index] = 0;
+		}
+		size++;
+		playerValues.put(playerUUID, new int[STATS]);
+	}
+
+	// LOADING
+
+	// (re-)loads the index in the background
+	public void reload() {
+		final int id;
+		synchronized (this) {
+			loaded = false;
+			id = ++loadId;
+		}
+		Paintball.addAsyncTask();
+		if (!Utils.runAsyncTask(plugin, new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					load(id);
+				} finally {
+					Paintball.removeAsyncTask();
+				}
+			}
+		})) {
+			Paintball.removeAsyncTask();
+		}
+	}
+
+	private void load(int id) {
+		long start = System.currentTimeMillis();
+		Map<UUID, int[]> loadedValues = plugin.storage.getPlayers().getAllPlayerStatValues();
+		int loadedSize = loadedValues.size();
+		int[][] loadedSorted = new int[STATS][Math.max(16, loadedSize)];
+		int index = 0;
+		for (int[] values : loadedValues.values()) {
+			for (int i = 0; i < STATS; i++) {
+				loadedSorted[i][index] = values[i];
+			}
+			index++;
+		}
+		for (int i = 0; i < STATS; i++) {
+			Arrays.sort(loadedSorted[i], 0, loadedSize);
+		}
+
+		synchronized (this) {
+			// a newer reload got started in the meantime:
+			if (id != loadId) return;
+			playerValues.clear();
+			playerValues.putAll(loadedValues);
+			sortedValues = loadedSorted;
+			size = loadedSize;
+			loaded = true;
+
+			for (UUID playerUUID : pendingNew) {
+				if (!playerValues.containsKey(playerUUID)) this.insertPlayer(playerUUID);
+			}
+			pendingNew.clear();
+			for (Entry<UUID, int[]> entry : pendingUpdates.entrySet()) {
+				Map<PlayerStat, Integer> stats = new HashMap<PlayerStat, Integer>();
+				int[] values = entry.getValue();
+				for (PlayerStat stat : PlayerStat.values()) {
+					if (values[stat.ordinal()] != Integer.MIN_VALUE) stats.put(stat, values[stat.ordinal()]);
+				}
+				this.update(entry.getKey(), stats);
+			}
+			pendingUpdates.clear();
+		}
+		Log.info("Loaded the ranks of " + loadedSize + " players (" + (System.currentTimeMillis() - start) + "ms).");
+	}
+
+	// SORTED ARRAYS
+
+	// index of the first value which is greater than the given value
+	private static int upperBound(int[] sorted, int size, int value) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sorted[middle] <= value) low = middle + 1;
+			else high = middle;
+		}
+		return low;
+	}
+
+	// index of the first value which is greater than or equal to the given value
+	private static int lowerBound(int[] sorted, int size, int value) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sorted[middle] < value) low = middle + 1;
+			else high = middle;
+		}
+		return low;
+	}
+
+	// replaces one occurrence of the old value, only shifting the values in between
+	private static void replace(int[] sorted, int size, int oldValue, int newValue) {
+		if (oldValue == newValue) return;
+		if (newValue > oldValue) {
+			int from = upperBound(sorted, size, oldValue) - 1;
+			int to = lowerBound(sorted, size, newValue) - 1;
+			System.arraycopy(sorted, from + 1, sorted, from, to - from);
+			sorted[to] = newValue;
+		} else {
+			int from = lowerBound(sorted, size, oldValue);
+			int to = upperBound(sorted, size, newValue);
+			System.arraycopy(sorted, to, sorted, to + 1, from - to);
+			sorted[to] = newValue;
+		}
+	}
+}
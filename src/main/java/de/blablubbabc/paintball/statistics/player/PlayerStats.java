@@ -4,6 +4,8 @@
  */
 package de.blablubbabc.paintball.statistics.player;
 
+import java.sql.SQLException;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
@@ -12,6 +14,7 @@ import org.bukkit.Bukkit;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
 
+import de.blablubbabc.BlaDB.Storage;
 import de.blablubbabc.paintball.Paintball;
 import de.blablubbabc.paintball.Rank;
 import de.blablubbabc.paintball.utils.KeyValuePair;
@@ -23,18 +26,63 @@ public class PlayerStats {
 	private final UUID playerUUID;
 	private Map<PlayerStat, Integer> stats = null;
 
-	private boolean dirty = false;
+	// the values which were last read from or written to the database, by stat ordinal:
+	private final int[] storedValues = new int[PlayerStat.values().length];
+	private volatile boolean dirty = false;
+	// a reset gets written as absolute values, even if the database got changed from elsewhere:
+	private boolean resetPending = false;
+	// counts the resets, so that a reset during a write is not considered as written:
+	private int resets = 0;
+
+	// The changed stats at the time of a write. They only become the stored values once the write
+	// got committed.
+	static class Write {
+
+		private final PlayerStats stats;
+		private final Map<PlayerStat, Integer> addStats = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+		private final Map<PlayerStat, Integer> setStats = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+		private final Map<PlayerStat, Integer> written = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+		private final boolean reset;
+		private final int resets;
+
+		private Write(PlayerStats stats, boolean reset, int resets) {
+			this.stats = stats;
+			this.reset = reset;
+			this.resets = resets;
+		}
+
+		PlayerStats getStats() {
+			return stats;
+		}
+
+		// the new values of the written stats
+		Map<PlayerStat, Integer> getWritten() {
+			return written;
+		}
+
+		void execute() throws SQLException {
+			Paintball.getInstance().storage.getPlayers().updatePlayerStatsRaw(stats.playerUUID, addStats, setStats);
+		}
+	}
 
 	public PlayerStats(UUID playerUUID) {
 		this.playerUUID = playerUUID;
 		load();
 	}
 
+	public UUID getPlayerUUID() {
+		return playerUUID;
+	}
+
 	public void resetStats() {
 		for (PlayerStat stat : PlayerStat.values()) {
 			setStat(stat, 0);
 		}
 		calculateQuotes();
+		synchronized (this) {
+			resetPending = true;
+			resets++;
+		}
 		dirty = true;
 	}
 
@@ -53,7 +101,9 @@ public class PlayerStats {
 			rankupNotification(getStat(PlayerStat.POINTS), value);
 		}
 
-		stats.put(stat, value);
+		synchronized (this) {
+			stats.put(stat, value);
+		}
 		dirty = true;
 	}
 
@@ -107,40 +157,90 @@ public class PlayerStats {
 		return stats;
 	}
 
-	public void calculateQuotes() {
-		// set stats, without changing dirty state:
+	public synchronized void calculateQuotes() {
+		// set stats, without changing dirty state (they only change together with other stats):
 		stats.put(PlayerStat.HITQUOTE, Utils.calculateQuote(getStat(PlayerStat.HITS), getStat(PlayerStat.SHOTS)));
 		stats.put(PlayerStat.KD, Utils.calculateQuote(getStat(PlayerStat.KILLS), getStat(PlayerStat.DEATHS)));
 	}
 
-	public void save() {
-		if (dirty) {
-			Paintball.getInstance().sql.sqlPlayers.setPlayerStats(playerUUID, stats);
-
-			// Paintball.instance.pm.setStats(playerName, stats);
+	// Prepares the write of the stats which changed since they were last loaded or written: counters
+	// as deltas, so that concurrent changes of the same row (ex. by other servers) are not lost, and
+	// quotes as values. Returns null if nothing changed. Once the write got committed, onWritten has
+	// to be called, otherwise onWriteFailed.
+	Write prepareWrite() {
+		if (!dirty) return null;
+		Write write;
+		synchronized (this) {
+			// reset dirty state before comparing, so that concurrent changes mark the stats dirty again:
 			dirty = false;
+			write = new Write(this, resetPending, resets);
+			for (PlayerStat stat : PlayerStat.values()) {
+				int value = stats.get(stat);
+				int stored = storedValues[stat.ordinal()];
+				if (resetPending || stat == PlayerStat.KD || stat == PlayerStat.HITQUOTE) {
+					if (!resetPending && value == stored) continue;
+					write.setStats.put(stat, value);
+				} else {
+					if (value == stored) continue;
+					write.addStats.put(stat, value - stored);
+				}
+				write.written.put(stat, value);
+			}
+		}
+		return write.written.isEmpty() ? null : write;
+	}
 
-			// update stats on scoreboard, if player is in lobby:
-			Paintball.getInstance().playerManager.updateLobbyScoreboard(playerUUID);
+	synchronized void onWritten(Write write) {
+		for (Entry<PlayerStat, Integer> entry : write.written.entrySet()) {
+			storedValues[entry.getKey().ordinal()] = entry.getValue();
 		}
+		if (write.reset && write.resets == resets) resetPending = false;
 	}
 
-	public void saveAsync() {
-		if (dirty) {
-			Paintball.addAsyncTask();
-			Bukkit.getScheduler().runTaskAsynchronously(Paintball.getInstance(), new Runnable() {
+	// the stats get written again with the next write
+	void onWriteFailed() {
+		dirty = true;
+	}
+
+	public void save() {
+		final Write write = this.prepareWrite();
+		if (write == null) return;
+		try {
+			// not inside a transaction of the stats writer:
+			Paintball.getInstance().storage.runTransaction(new Storage.Transaction() {
+
 				@Override
-				public void run() {
-					save();
-					Paintball.removeAsyncTask();
+				public void run() throws SQLException {
+					write.execute();
 				}
 			});
+		} catch (SQLException e) {
+			e.printStackTrace();
+			this.onWriteFailed();
+			return;
+		}
+		this.onWritten(write);
+		Map<PlayerStat, Integer> written = write.getWritten();
+		Paintball.getInstance().rankIndex.update(playerUUID, written);
+		Paintball.getInstance().leaderboards.update(playerUUID, written);
+		// update stats on scoreboard, if player is in lobby:
+		Paintball.getInstance().playerManager.updateLobbyScoreboard(playerUUID);
+	}
+
+	// queues the stats for the stats writer, which writes them in batches
+	public void saveAsync() {
+		if (dirty) {
+			Paintball.getInstance().statsWriter.enqueue(this);
 		}
 	}
 
-	public void load() {
-		stats = Paintball.getInstance().sql.sqlPlayers.getPlayerStats(playerUUID);
+	public synchronized void load() {
+		stats = Paintball.getInstance().storage.getPlayers().getPlayerStats(playerUUID);
 		// stats = Paintball.instance.pm.getStats(playerName);
+		for (PlayerStat stat : PlayerStat.values()) {
+			Integer value = stats.get(stat);
+			storedValues[stat.ordinal()] = (value != null ? value : 0);
+		}
 		this.calculateQuotes();
 	}
 }
@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.statistics.player;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import de.blablubbabc.BlaDB.Storage;
+import de.blablubbabc.paintball.Paintball;
+import de.blablubbabc.paintball.utils.Log;
+import de.blablubbabc.paintball.utils.Utils;
+
+/**
+ * Write-behind queue for player stats.
+ * <p>
+ * Dirty stats get queued and are written by one dedicated writer thread, in batches which are
+ * committed as a single transaction. Repeated updates of the same player, which happen before the
+ * next flush, get merged into one write.
+ */
+public class PlayerStatsWriter {
+
+	private final Paintball plugin;
+	private final long flushIntervalMillis;
+	private final int maxBatchSize;
+
+	// queued stats, in order of their first update:
+	private final Map<UUID, PlayerStats> pending = new LinkedHashMap<UUID, PlayerStats>();
+	// stats which are currently being written:
+	private final Map<UUID, PlayerStats> writing = new HashMap<UUID, PlayerStats>();
+	private boolean flushRequested = false;
+	private boolean running = true;
+
+	private final Thread writerThread;
+
+	public PlayerStatsWriter(Paintball plugin, int flushIntervalTicks, int maxBatchSize) {
+		this.plugin = plugin;
+		this.flushIntervalMillis = flushIntervalTicks * 50L;
+		this.maxBatchSize = maxBatchSize;
+
+		writerThread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				writeLoop();
+			}
+		}, "Paintball Stats Writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	public void enqueue(PlayerStats stats) {
+		synchronized (pending) {
+			pending.put(stats.getPlayerUUID(), stats);
+			if (pending.size() >= maxBatchSize) pending.notifyAll();
+		}
+	}
+
+	// Stats which have not yet been written are newer than the stats inside the database. Returns
+	// null if there are no such stats for the given player.
+	public PlayerStats getUnwritten(UUID playerUUID) {
+		synchronized (pending) {
+			PlayerStats stats = pending.get(playerUUID);
+			if (stats == null) stats = writing.get(playerUUID);
+			return stats;
+		}
+	}
+
+	// writes the queued stats as soon as possible, without waiting for the flush interval
+	public void flush() {
+		synchronized (pending) {
+			flushRequested = true;
+			pending.notifyAll();
+		}
+	}
+
+	// Resets the stats of all players, in the database and of the given cached stats. Queued stats
+	// of other players get discarded, so that their deltas don't get added to the reset stats. No
+	// batch gets written meanwhile (blocking).
+	public void resetAll(final Collection<PlayerStats> cachedStats) {
+		final Storage storage = plugin.storage;
+		try {
+			storage.runTransaction(new Storage.Transaction() {
+
+				@Override
+				public void run() {
+					synchronized (pending) {
+						pending.clear();
+						// taken batches only get written after the reset, so they have to write the reset:
+						for (PlayerStats stats : writing.values()) {
+							stats.resetStats();
+						}
+					}
+					for (PlayerStats stats : cachedStats) {
+						stats.resetStats();
+					}
+					storage.getPlayers().resetAllPlayerStats();
+				}
+			});
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
+	// writes all remaining stats and stops the writer thread (blocking)
+	public void shutdown() {
+		synchronized (pending) {
+			running = false;
+			pending.notifyAll();
+		}
+		try {
+			writerThread.join();
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+		// in case the writer thread got interrupted, or its last batch failed:
+		List<PlayerStats> remaining = this.takeBatch(Integer.MAX_VALUE);
+		if (!remaining.isEmpty() && !this.write(remaining)) {
+			Log.severe("Could not write the stats of " + remaining.size() + " players!");
+		}
+	}
+
+	private void writeLoop() {
+		while (true) {
+			List<PlayerStats> batch;
+			synchronized (pending) {
+				long deadline = System.currentTimeMillis() + flushIntervalMillis;
+				while (running && !flushRequested && pending.size() < maxBatchSize) {
+					long remainingMillis = deadline - System.currentTimeMillis();
+					if (remainingMillis <= 0) break;
+					try {
+						pending.wait(remainingMillis);
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (!running && pending.isEmpty()) return;
+				if (pending.size() <= maxBatchSize) flushRequested = false;
+				batch = this.takeBatch(maxBatchSize);
+			}
+			if (!batch.isEmpty() && !this.write(batch)) {
+				// retry after the flush interval (or during shutdown):
+				synchronized (pending) {
+					if (!running) return;
+					try {
+						pending.wait(flushIntervalMillis);
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	private List<PlayerStats> takeBatch(int limit) {
+		synchronized (pending) {
+			List<PlayerStats> batch = new ArrayList<PlayerStats>(Math.min(limit, pending.size()));
+			Iterator<PlayerStats> iterator = pending.values().iterator();
+			while (iterator.hasNext() && batch.size() < limit) {
+				PlayerStats stats = iterator.next();
+				iterator.remove();
+				writing.put(stats.getPlayerUUID(), stats);
+				batch.add(stats);
+			}
+			return batch;
+		}
+	}
+
+	// returns false if the batch could not be written, and got queued again
+	private boolean write(final List<PlayerStats> batch) {
+		final Map<UUID, Map<PlayerStat, Integer>> written = new LinkedHashMap<UUID, Map<PlayerStat, Integer>>();
+		final List<PlayerStats.Write> writes = new ArrayList<PlayerStats.Write>(batch.size());
+		boolean committed = false;
+		try {
+			// one transaction per batch:
+			plugin.storage.runTransaction(new Storage.Transaction() {
+
+				@Override
+				public void run() throws SQLException {
+					for (PlayerStats stats : batch) {
+						PlayerStats.Write write = stats.prepareWrite();
+						if (write == null) continue;
+						writes.add(write);
+						write.execute();
+					}
+				}
+			});
+			committed = true;
+		} catch (Exception e) {
+			Log.severe("Error while writing player stats: " + e.getMessage());
+			e.printStackTrace();
+		} finally {
+			synchronized (pending) {
+				for (PlayerStats stats : batch) {
+					writing.remove(stats.getPlayerUUID());
+				}
+				if (!committed) {
+					// nothing of the batch got stored: write it again later
+					for (PlayerStats.Write write : writes) {
+						write.getStats().onWriteFailed();
+					}
+					for (PlayerStats stats : batch) {
+						if (!pending.containsKey(stats.getPlayerUUID())) pending.put(stats.getPlayerUUID(), stats);
+					}
+				}
+			}
+		}
+		if (!committed) return false;
+
+		for (PlayerStats.Write write : writes) {
+			write.getStats().onWritten(write);
+			written.put(write.getStats().getPlayerUUID(), write.getWritten());
+		}
+
+		// update ranks (here, to keep the array shifting off the main thread):
+		for (Map.Entry<UUID, Map<PlayerStat, Integer>> entry : written.entrySet()) {
+			plugin.rankIndex.update(entry.getKey(), entry.getValue());
+		}
+
+		// update leaderboards, and stats on scoreboards if players are in lobby:
+		if (!written.isEmpty()) {
+			Utils.runTask(plugin, new Runnable() {
+
+				@Override
+				public void run() {
+					for (Map.Entry<UUID, Map<PlayerStat, Integer>> entry : written.entrySet()) {
+						plugin.leaderboards.update(entry.getKey(), entry.getValue());
+						plugin.playerManager.updateLobbyScoreboard(entry.getKey());
+					}
+				}
+			});
+		}
+		return true;
+	}
+}
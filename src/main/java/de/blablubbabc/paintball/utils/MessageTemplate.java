@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message, split once into its literal text parts and its '{key}' placeholders. Rendering
+ * appends the parts and the placeholder values in one pass into a reused builder.
+ * <p>
+ * Placeholders without a given value stay as they are.
+ */
+public class MessageTemplate {
+
+	private static final ThreadLocal<StringBuilder> builders = new ThreadLocal<StringBuilder>() {
+
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder(256);
+		}
+	};
+
+	private final String message;
+	// alternating: literal text, placeholder key, literal text, ..., literal text
+	private final String[] segments;
+
+	public MessageTemplate(String message) {
+		this.message = message;
+		List<String> segments = new ArrayList<String>();
+		int literalStart = 0;
+		int index = 0;
+		while (true) {
+			int open = message.indexOf('{', index);
+			if (open == -1) break;
+			int close = message.indexOf('}', open + 1);
+			if (close == -1) break;
+			// the innermost placeholder, for texts like '{{key}':
+			int nestedOpen = message.lastIndexOf('{', close);
+			segments.add(message.substring(literalStart, nestedOpen));
+			segments.add(message.substring(nestedOpen + 1, close));
+			literalStart = close + 1;
+			index = close + 1;
+		}
+		segments.add(message.substring(literalStart));
+		this.segments = segments.toArray(new String[segments.size()]);
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public boolean hasPlaceholders() {
+		return segments.length > 1;
+	}
+
+	public String render(KeyValuePair... values) {
+		if (!this.hasPlaceholders() || values == null || values.length == 0) return message;
+		StringBuilder builder = builders.get();
+		builder.setLength(0);
+		for (int i = 0; i < segments.length; i++) {
+			String segment = segments[i];
+			if ((i & 1) == 0) {
+				builder.append(segment);
+			} else {
+				String value = null;
+				for (KeyValuePair entry : values) {
+					if (entry != null && entry.getKey().equals(segment)) {
+						value = entry.getValue();
+						break;
+					}
+				}
+				appendPlaceholder(builder, segment, value);
+			}
+		}
+		return builder.toString();
+	}
+
+	public String render(Map<String, String> values) {
+		if (!this.hasPlaceholders() || values == null || values.isEmpty()) return message;
+		StringBuilder builder = builders.get();
+		builder.setLength(0);
+		for (int i = 0; i < segments.length; i++) {
+			String segment = segments[i];
+			if ((i & 1) == 0) {
+				builder.append(segment);
+			} else {
+				appendPlaceholder(builder, segment, values.get(segment));
+			}
+		}
+		return builder.toString();
+	}
+
+	private static void appendPlaceholder(StringBuilder builder, String key, String value) {
+		if (value != null) {
+			builder.append(value);
+		} else {
+			builder.append('{').append(key).append('}');
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Runs the plugin's many small (gadget, timer, effect) tasks from one repeating Bukkit task.
+ * <p>
+ * Tasks are kept inside a timing wheel: an array of slots, each containing a linked list of the
+ * tasks which are due at a tick mapping to that slot. Scheduling and cancelling a task are constant
+ * time, and each tick only looks at the tasks of one slot. Tasks which are due further in the future
+ * than one turn of the wheel simply stay in their slot until their tick is reached.
+ * <p>
+ * Only to be used from the main thread.
+ */
+public class TickScheduler {
+
+	// has to be a power of two:
+	private static final int WHEEL_SIZE = 512;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	private final Plugin plugin;
+	private final TickTask[] wheel = new TickTask[WHEEL_SIZE];
+	private final Map<String, Subsystem> subsystems = new LinkedHashMap<String, Subsystem>();
+	// reused for collecting the due tasks of each tick:
+	private final List<TickTask> dueTasks = new ArrayList<TickTask>();
+	private long currentTick = 0L;
+	private int taskId = -1;
+
+	public TickScheduler(Plugin plugin) {
+		this.plugin = plugin;
+	}
+
+	public void start() {
+		if (taskId != -1) return;
+		taskId = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
+
+			@Override
+			public void run() {
+				tick();
+			}
+		}, 1L, 1L).getTaskId();
+	}
+
+	// cancels all tasks
+	public void stop() {
+		if (taskId != -1) {
+			Bukkit.getScheduler().cancelTask(taskId);
+			taskId = -1;
+		}
+		for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+			TickTask task = wheel[slot];
+			while (task != null) {
+				TickTask next = task.next;
+				task.active = false;
+				task.linked = false;
+				task.previous = null;
+				task.next = null;
+				task.subsystem.scheduled--;
+				task = next;
+			}
+			wheel[slot] = null;
+		}
+	}
+
+	// SCHEDULING
+
+	// runs the task once, after the given delay (in ticks, at least 1)
+	public TickTask runTaskLater(String subsystem, Runnable runnable, long delay) {
+		return this.schedule(subsystem, runnable, delay, 0L);
+	}
+
+	// runs the task after the given delay, and then every period ticks, until cancelled
+	public TickTask runTaskTimer(String subsystem, Runnable runnable, long delay, long period) {
+		return this.schedule(subsystem, runnable, delay, Math.max(1L, period));
+	}
+
+	private TickTask schedule(String subsystemName, Runnable runnable, long delay, long period) {
+		Subsystem subsystem = subsystems.get(subsystemName);
+		if (subsystem == null) {
+			subsystem = new Subsystem(subsystemName);
+			subsystems.put(subsystemName, subsystem);
+		}
+		TickTask task = new TickTask(this, subsystem, runnable, period);
+		subsystem.scheduled++;
+		this.link(task, currentTick + Math.max(1L, delay));
+		return task;
+	}
+
+	void cancel(TickTask task) {
+		if (!task.active) return;
+		task.active = false;
+		if (task.linked) this.unlink(task);
+		task.subsystem.scheduled--;
+	}
+
+	private void link(TickTask task, long dueTick) {
+		int slot = (int) (dueTick & WHEEL_MASK);
+		task.dueTick = dueTick;
+		task.previous = null;
+		task.next = wheel[slot];
+		if (task.next != null) task.next.previous = task;
+		wheel[slot] = task;
+		task.linked = true;
+	}
+
+	private void unlink(TickTask task) {
+		if (task.previous != null) task.previous.next = task.next;
+		else wheel[(int) (task.dueTick & WHEEL_MASK)] = task.next;
+		if (task.next != null) task.next.previous = task.previous;
+		task.previous = null;
+		task.next = null;
+		task.linked = false;
+	}
+
+	private void tick() {
+		currentTick++;
+		// collect first: running tasks might schedule or cancel other tasks of this slot
+		TickTask task = wheel[(int) (currentTick & WHEEL_MASK)];
+		while (task != null) {
+			TickTask next = task.next;
+			if (task.dueTick <= currentTick) {
+				this.unlink(task);
+				dueTasks.add(task);
+			}
+			task = next;
+		}
+
+		for (int i = 0; i < dueTasks.size(); i++) {
+			TickTask dueTask = dueTasks.get(i);
+			// cancelled by a previous task of this tick:
+			if (!dueTask.active) continue;
+			Subsystem subsystem = dueTask.subsystem;
+			long start = System.nanoTime();
+			try {
+				dueTask.runnable.run();
+			} catch (Throwable e) {
+				Log.severe("Error while running a task of '" + subsystem.name + "':");
+				e.printStackTrace();
+			}
+			subsystem.runs++;
+			subsystem.nanos += System.nanoTime() - start;
+
+			if (dueTask.active) {
+				if (dueTask.period > 0L) {
+					this.link(dueTask, currentTick + dueTask.period);
+				} else {
+					dueTask.active = false;
+					subsystem.scheduled--;
+				}
+			}
+		}
+		dueTasks.clear();
+	}
+
+	// ACCOUNTING
+
+	public List<String> getInfo() {
+		List<String> info = new ArrayList<String>();
+		for (Subsystem subsystem : subsystems.values()) {
+			double averageMicros = subsystem.runs == 0 ? 0.0D : (subsystem.nanos / 1000.0D) / subsystem.runs;
+			info.add(subsystem.name + ": " + subsystem.scheduled + " scheduled, " + subsystem.runs + " runs, "
+					+ String.format("%.1f", averageMicros) + "us avg");
+		}
+		return info;
+	}
+
+	static class Subsystem {
+
+		private final String name;
+		private int scheduled = 0;
+		private long runs = 0L;
+		private long nanos = 0L;
+
+		private Subsystem(String name) {
+			this.name = name;
+		}
+	}
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.utils;
+
+/**
+ * A task of the {@link TickScheduler}. Repeating tasks reuse the same object for every run.
+ */
+public class TickTask {
+
+	private final TickScheduler scheduler;
+	final TickScheduler.Subsystem subsystem;
+	final Runnable runnable;
+	final long period;
+
+	// the tick this task runs at next:
+	long dueTick;
+	boolean active = true;
+	// linking inside the slot of the timing wheel:
+	TickTask previous = null;
+	TickTask next = null;
+	boolean linked = false;
+
+	TickTask(TickScheduler scheduler, TickScheduler.Subsystem subsystem, Runnable runnable, long period) {
+		this.scheduler = scheduler;
+		this.subsystem = subsystem;
+		this.runnable = runnable;
+		this.period = period;
+	}
+
+	// for repeating tasks: true until cancelled
+	public boolean isScheduled() {
+		return active;
+	}
+
+	public void cancel() {
+		scheduler.cancel(this);
+	}
+}
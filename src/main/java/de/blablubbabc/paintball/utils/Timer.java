@@ -4,18 +4,16 @@
  */
 package de.blablubbabc.paintball.utils;
 
-import org.bukkit.plugin.Plugin;
+import de.blablubbabc.paintball.Paintball;
 
 public class Timer {
 
-	private Plugin plugin;
-	private int task = -1;
+	private TickTask task;
 	private int time;
 
-	public Timer(Plugin plugin, long preDelay, long delay, final int times, final Runnable eachDelay, final Runnable send, final Runnable end) {
-		this.plugin = plugin;
+	public Timer(long preDelay, long delay, final int times, final Runnable eachDelay, final Runnable send, final Runnable end) {
 		time = times;
-		task = plugin.getServer().getScheduler().runTaskTimer(plugin, new Runnable() {
+		task = Paintball.getInstance().tickScheduler.runTaskTimer("timers", new Runnable() {
 
 			@Override
 			public void run() {
@@ -45,7 +43,7 @@ public class Timer {
 				}
 				time--;
 			}
-		}, preDelay, delay).getTaskId();
+		}, preDelay, delay);
 	}
 
 	public int getTime() {
@@ -53,15 +51,10 @@ public class Timer {
 	}
 
 	public boolean isRunning() {
-		return task != -1
-				&& (plugin.getServer().getScheduler().isCurrentlyRunning(task) || plugin
-						.getServer().getScheduler().isQueued(task));
+		return task.isScheduled();
 	}
 
 	public void end() {
-		if (isRunning()) {
-			plugin.getServer().getScheduler().cancelTask(task);
-			task = -1;
-		}
+		task.cancel();
 	}
 }
@@ -24,6 +24,8 @@ public class Translator {
 	public static boolean success = false;
 
 	private static Map<String, String> translation = new HashMap<String, String>();
+	// the translation, compiled once:
+	private static Map<String, MessageTemplate> templates = new HashMap<String, MessageTemplate>();
 
 	public Translator(Plugin plugin, String filename) {
 		Translator.success = false;
@@ -131,13 +133,18 @@ public class Translator {
 				use_def = true;
 			}
 		}
-		Translator.success = true;
-
 		// remove the not needed map:
 		if (use_def) {
 			translation = def_language;
 		}
 
+		Map<String, MessageTemplate> compiled = new HashMap<String, MessageTemplate>();
+		for (Entry<String, String> entry : translation.entrySet()) {
+			compiled.put(entry.getKey(), new MessageTemplate(entry.getValue()));
+		}
+		templates = compiled;
+		Translator.success = true;
+
 		def_language = null;
 	}
 
@@ -147,16 +154,16 @@ public class Translator {
 	}
 
 	public static String getString(String key, Map<String, String> vars) {
-		if (vars == null) return getString(key);
-
-		KeyValuePair[] values = new KeyValuePair[vars.size()];
-		// vars
-		int i = 0;
-		for (Entry<String, String> entry : vars.entrySet()) {
-			values[i++] = new KeyValuePair(entry.getKey(), entry.getValue());
+		if (!success) {
+			return "ERROR:couldn't load language!";
 		}
 
-		return getString(key, values);
+		MessageTemplate template = templates.get(key.toUpperCase());
+		if (template == null) {
+			return "ERROR:translation_is_missing!";
+		} else {
+			return template.render(vars);
+		}
 	}
 
 	public static String getString(String key, KeyValuePair... values) {
@@ -164,22 +171,13 @@ public class Translator {
 			return "ERROR:couldn't load language!";
 		}
 
-		String value = translation.get(key.toUpperCase());
-
-		if (value == null) {
+		MessageTemplate template = templates.get(key.toUpperCase());
+		if (template == null) {
 			return "ERROR:translation_is_missing!";
 		} else {
-			if (values != null && values.length > 0) {
-				// key-value-pair replacements
-				for (KeyValuePair entry : values) {
-					if (entry != null) {
-						value = value.replace("{" + entry.getKey() + "}", entry.getValue());
-					}
-				}
-			}
 			// colors should already be done, when loading the langauge file:
 			// value = ChatColor.translateAlternateColorCodes('&', value);
-			return value;
+			return template.render(values);
 		}
 	}
 
@@ -4,6 +4,9 @@
  */
 package de.blablubbabc.paintball.utils.spigot;
 
+import java.util.List;
+
+import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 
 import net.md_5.bungee.api.chat.ClickEvent;
@@ -41,6 +44,17 @@ public final class SpigotUtils {
 		}
 	}
 
+	// Sends the lines with one chat message, if possible.
+	public static void sendLines(CommandSender recipient, List<String> lines) {
+		if (lines.size() == 1) {
+			recipient.sendMessage(lines.get(0));
+		} else if (isSpigotAvailable()) {
+			Internal.sendLines(recipient, lines);
+		} else {
+			recipient.sendMessage(lines.toArray(new String[lines.size()]));
+		}
+	}
+
 	// A separate class that is only accessed if Spigot is present. Avoids class loading issues.
 	private static final class Internal {
 
@@ -52,5 +66,15 @@ public final class SpigotUtils {
 			component.setClickEvent(new ClickEvent(Action.RUN_COMMAND, command));
 			recipient.spigot().sendMessage(component);
 		}
+
+		public static void sendLines(CommandSender recipient, List<String> lines) {
+			StringBuilder message = new StringBuilder();
+			for (String line : lines) {
+				// each line starts without the formatting of the previous line:
+				if (message.length() > 0) message.append('\n').append(ChatColor.RESET);
+				message.append(line);
+			}
+			recipient.spigot().sendMessage(TextComponent.fromLegacyText(message.toString()));
+		}
 	}
 }
@@ -0,0 +1,19 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+
+public class H2StorageTest extends StorageContractTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Override
+	protected Storage createStorage() throws Exception {
+		return new H2Storage(folder.getRoot(), 5000, 2);
+	}
+}
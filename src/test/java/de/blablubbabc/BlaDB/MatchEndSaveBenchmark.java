@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+
+import de.blablubbabc.paintball.benchmark.Benchmark;
+import de.blablubbabc.paintball.statistics.player.PlayerStat;
+
+/**
+ * Compares saving the player stats at the end of a match with literal queries, like SQLPlayers did
+ * before it used prepared statements, against the prepared statements, on a synthetic SQLite
+ * database with 1000 players. Each operation saves the stats of one match in one transaction.
+ */
+public class MatchEndSaveBenchmark {
+
+	// the update of SQLPlayers before the prepared statements, with the values inlined
+	private static void updateLiteral(JdbcStorage sql, UUID playerUUID, Map<PlayerStat, Integer> stats, boolean add) throws SQLException {
+		String query = "";
+		for (Entry<PlayerStat, Integer> entry : stats.entrySet()) {
+			String key = entry.getKey().getKey();
+			query += key + "=" + (add ? key + "+" : "") + "'" + entry.getValue() + "',";
+		}
+		query = query.substring(0, query.length() - 1);
+		sql.updateQueryRaw("UPDATE OR IGNORE players SET " + query + " WHERE uuid='" + playerUUID.toString() + "';");
+	}
+
+	private static Map<PlayerStat, Integer> setStats(int i) {
+		Map<PlayerStat, Integer> setStats = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+		setStats.put(PlayerStat.KD, 100 + i);
+		setStats.put(PlayerStat.HITQUOTE, 33);
+		return setStats;
+	}
+
+	private static UUID player(int match, int i) {
+		return StorageBenchmark.uuids.get((match * StorageBenchmark.PLAYERS_PER_MATCH + i) % StorageBenchmark.PLAYERS);
+	}
+
+	public static void main(String[] args) throws Exception {
+		JdbcStorage.loadDriver(StorageType.SQLITE);
+		File folder = Files.createTempDirectory("paintball-sqlite").toFile();
+		// the profile with the least syncing, so that the statements and not the disk dominate:
+		final JdbcStorage storage = new SQLiteStorage(folder, SQLiteProfile.FAST, 2000, 0, 5000, 0);
+		if (!storage.open()) {
+			System.out.println("Could not open the storage");
+			return;
+		}
+		try {
+			StorageBenchmark.fill(storage);
+			final PlayerStorage players = storage.getPlayers();
+			int warmup = 200;
+			int rounds = 2000;
+			System.out.println("Match end save of " + StorageBenchmark.PLAYERS_PER_MATCH + " players (" + StorageBenchmark.PLAYERS + " players stored):");
+
+			Benchmark.run("literal queries", warmup, rounds, new Benchmark.Operation() {
+
+				@Override
+				public long run(final int round) throws Exception {
+					storage.runTransaction(new Storage.Transaction() {
+
+						@Override
+						public void run() throws SQLException {
+							for (int i = 0; i < StorageBenchmark.PLAYERS_PER_MATCH; i++) {
+								updateLiteral(storage, player(round, i), StorageBenchmark.stats(i), true);
+								updateLiteral(storage, player(round, i), setStats(i), false);
+							}
+						}
+					});
+					return round;
+				}
+			});
+			Benchmark.run("prepared statements", warmup, rounds, new Benchmark.Operation() {
+
+				@Override
+				public long run(final int round) throws Exception {
+					storage.runTransaction(new Storage.Transaction() {
+
+						@Override
+						public void run() {
+							for (int i = 0; i < StorageBenchmark.PLAYERS_PER_MATCH; i++) {
+								players.addPlayerStats(player(round, i), StorageBenchmark.stats(i));
+								players.setPlayerStats(player(round, i), setStats(i));
+							}
+						}
+					});
+					return round;
+				}
+			});
+			Benchmark.run("prepared statements, one update per player", warmup, rounds, new Benchmark.Operation() {
+
+				@Override
+				public long run(final int round) throws Exception {
+					storage.runTransaction(new Storage.Transaction() {
+
+						@Override
+						public void run() throws SQLException {
+							for (int i = 0; i < StorageBenchmark.PLAYERS_PER_MATCH; i++) {
+								players.updatePlayerStatsRaw(player(round, i), StorageBenchmark.stats(i), setStats(i));
+							}
+						}
+					});
+					return round;
+				}
+			});
+			System.out.println("(" + Benchmark.getSink() + ")");
+		} finally {
+			storage.close();
+		}
+	}
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import org.h2.tools.Server;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+/**
+ * Runs the storage tests with the MySQL dialect, against a H2 database server in MySQL mode, which
+ * stands in for a MySQL server.
+ */
+public class MySQLStorageTest extends StorageContractTest {
+
+	private static Server server;
+	private static int databases = 0;
+
+	private String url;
+
+	@BeforeClass
+	public static void startServer() throws Exception {
+		server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+	}
+
+	@AfterClass
+	public static void stopServer() {
+		server.stop();
+	}
+
+	@Override
+	protected Storage createStorage() throws Exception {
+		// a new in-memory database per test, which is kept until the server stops:
+		if (url == null) {
+			url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:paintball" + (databases++) + ";DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+		}
+		return new MySQLStorage(url, "sa", "", 5000, 2);
+	}
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.junit.Test;
+
+public class PreparedStatementCacheTest {
+
+	// A connection which only knows about preparing statements. No database driver is required.
+	private static class FakeConnection implements InvocationHandler {
+
+		private final Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, this);
+		private int prepared = 0;
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (method.getName().equals("prepareStatement")) {
+				prepared++;
+				return new FakeStatement(connection).statement;
+			}
+			throw new UnsupportedOperationException(method.getName());
+		}
+	}
+
+	private static class FakeStatement implements InvocationHandler {
+
+		private final PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, this);
+		private final Connection connection;
+		private boolean closed = false;
+
+		private FakeStatement(Connection connection) {
+			this.connection = connection;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "getConnection":
+				return connection;
+			case "isClosed":
+				return closed;
+			case "close":
+				closed = true;
+				return null;
+			case "clearParameters":
+				return null;
+			default:
+				throw new UnsupportedOperationException(method.getName());
+			}
+		}
+	}
+
+	@Test
+	public void testReusesReleasedStatements() throws SQLException {
+		FakeConnection connection = new FakeConnection();
+		PreparedStatementCache cache = new PreparedStatementCache(4);
+
+		PreparedStatement first = cache.take(connection.connection, "SELECT 1;");
+		cache.release(connection.connection, "SELECT 1;", first);
+		PreparedStatement second = cache.take(connection.connection, "SELECT 1;");
+
+		assertSame(first, second);
+		assertEquals(1, connection.prepared);
+		assertFalse(second.isClosed());
+	}
+
+	@Test
+	public void testStatementInUseIsNotShared() throws SQLException {
+		FakeConnection connection = new FakeConnection();
+		PreparedStatementCache cache = new PreparedStatementCache(4);
+
+		PreparedStatement first = cache.take(connection.connection, "SELECT 1;");
+		PreparedStatement second = cache.take(connection.connection, "SELECT 1;");
+		assertNotSame(first, second);
+		assertEquals(2, connection.prepared);
+
+		// only one statement per query is kept:
+		cache.release(connection.connection, "SELECT 1;", first);
+		cache.release(connection.connection, "SELECT 1;", second);
+		assertEquals(1, cache.size());
+		assertFalse(first.isClosed());
+		assertTrue(second.isClosed());
+	}
+
+	@Test
+	public void testDropsStatementsOfOtherConnections() throws SQLException {
+		FakeConnection oldConnection = new FakeConnection();
+		FakeConnection newConnection = new FakeConnection();
+		PreparedStatementCache cache = new PreparedStatementCache(4);
+
+		PreparedStatement statement = cache.take(oldConnection.connection, "SELECT 1;");
+		cache.release(newConnection.connection, "SELECT 1;", statement);
+
+		assertTrue(statement.isClosed());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testClosesLeastRecentlyUsed() throws SQLException {
+		FakeConnection connection = new FakeConnection();
+		PreparedStatementCache cache = new PreparedStatementCache(2);
+
+		PreparedStatement a = cache.take(connection.connection, "A");
+		PreparedStatement b = cache.take(connection.connection, "B");
+		PreparedStatement c = cache.take(connection.connection, "C");
+		cache.release(connection.connection, "A", a);
+		cache.release(connection.connection, "B", b);
+		// using A again makes B the least recently used statement:
+		cache.release(connection.connection, "A", cache.take(connection.connection, "A"));
+		cache.release(connection.connection, "C", c);
+
+		assertEquals(2, cache.size());
+		assertFalse(a.isClosed());
+		assertTrue(b.isClosed());
+		assertFalse(c.isClosed());
+		assertEquals(3, connection.prepared);
+
+		cache.close();
+		assertEquals(0, cache.size());
+		assertTrue(a.isClosed());
+		assertTrue(c.isClosed());
+	}
+}
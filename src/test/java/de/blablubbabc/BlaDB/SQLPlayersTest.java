@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import de.blablubbabc.paintball.statistics.player.PlayerStat;
+
+public class SQLPlayersTest {
+
+	private static final UUID PLAYER = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+
+	@Test
+	public void testAddsDeltas() {
+		Map<PlayerStat, Integer> addStats = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+		addStats.put(PlayerStat.SHOTS, 7);
+		addStats.put(PlayerStat.KILLS, 2);
+		List<Object> parameters = new ArrayList<Object>();
+
+		String query = SQLPlayers.buildUpdateQuery(StorageType.SQLITE, PLAYER, addStats, Collections.<PlayerStat, Integer> emptyMap(), parameters);
+
+		// in stat order, not in map order:
+		assertEquals("UPDATE OR IGNORE players SET kills=kills+?,shots=shots+? WHERE uuid=?;", query);
+		assertEquals(Arrays.<Object> asList(2, 7, PLAYER.toString()), parameters);
+	}
+
+	@Test
+	public void testAddsAndSetsInOneUpdate() {
+		Map<PlayerStat, Integer> addStats = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+		addStats.put(PlayerStat.HITS, 3);
+		Map<PlayerStat, Integer> setStats = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+		setStats.put(PlayerStat.HITQUOTE, 42);
+		setStats.put(PlayerStat.POINTS, 100);
+		List<Object> parameters = new ArrayList<Object>();
+
+		String query = SQLPlayers.buildUpdateQuery(StorageType.MYSQL, PLAYER, addStats, setStats, parameters);
+
+		assertEquals("UPDATE players SET points=?,hits=hits+?,hitquote=? WHERE uuid=?;", query);
+		assertEquals(Arrays.<Object> asList(100, 3, 42, PLAYER.toString()), parameters);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testStatInBothMapsIsRejected() {
+		Map<PlayerStat, Integer> addStats = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+		addStats.put(PlayerStat.MONEY, 5);
+		Map<PlayerStat, Integer> setStats = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+		setStats.put(PlayerStat.MONEY, 50);
+
+		SQLPlayers.buildUpdateQuery(StorageType.H2, PLAYER, addStats, setStats, new ArrayList<Object>());
+	}
+
+	@Test
+	public void testSameStatsResultInSameQuery() {
+		Map<PlayerStat, Integer> first = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+		first.put(PlayerStat.DEATHS, 1);
+		first.put(PlayerStat.ROUNDS, 1);
+		Map<PlayerStat, Integer> second = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+		second.put(PlayerStat.ROUNDS, 4);
+		second.put(PlayerStat.DEATHS, 9);
+		Map<PlayerStat, Integer> none = Collections.emptyMap();
+
+		String firstQuery = SQLPlayers.buildUpdateQuery(StorageType.SQLITE, PLAYER, first, none, new ArrayList<Object>());
+		String secondQuery = SQLPlayers.buildUpdateQuery(StorageType.SQLITE, UUID.randomUUID(), second, none, new ArrayList<Object>());
+		// so that the cached prepared statement gets reused:
+		assertEquals(firstQuery, secondQuery);
+	}
+}
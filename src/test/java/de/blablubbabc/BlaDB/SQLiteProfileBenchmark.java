@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import de.blablubbabc.paintball.benchmark.Benchmark;
+import de.blablubbabc.paintball.statistics.player.PlayerStat;
+
+/**
+ * Reports the commit latency under each SQLite durability profile: for commits of a single stats
+ * update, and for commits of a whole match end save. Besides the time per transaction, it prints
+ * the commit latencies which the storage measures itself (like shown by '/pb admin check' in game).
+ * <p>
+ * The numbers depend a lot on the disk, and on the file system's handling of syncs.
+ */
+public class SQLiteProfileBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		JdbcStorage.loadDriver(StorageType.SQLITE);
+		for (SQLiteProfile profile : SQLiteProfile.values()) {
+			File folder = Files.createTempDirectory("paintball-sqlite").toFile();
+			final Storage storage = new SQLiteStorage(folder, profile, 2000, 0, 5000, 0);
+			if (!storage.open()) {
+				System.out.println(profile.name() + ": could not open the storage");
+				continue;
+			}
+			try {
+				StorageBenchmark.fill(storage);
+				final PlayerStorage players = storage.getPlayers();
+				final Map<PlayerStat, Integer> noStats = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+
+				Benchmark.run(profile.name() + ": single update commit", 20, 200, new Benchmark.Operation() {
+
+					@Override
+					public long run(final int round) throws Exception {
+						storage.runTransaction(new Storage.Transaction() {
+
+							@Override
+							public void run() throws SQLException {
+								players.updatePlayerStatsRaw(StorageBenchmark.uuids.get(round % StorageBenchmark.PLAYERS), StorageBenchmark.stats(round), noStats);
+							}
+						});
+						return round;
+					}
+				});
+				Benchmark.run(profile.name() + ": match end save commit", 20, 200, new Benchmark.Operation() {
+
+					@Override
+					public long run(int round) throws Exception {
+						StorageBenchmark.saveMatchEnd(storage, round);
+						return round;
+					}
+				});
+				// includes the commit of the synthetic players:
+				System.out.println("  " + storage.getCommitLatencyInfo());
+			} finally {
+				storage.close();
+			}
+		}
+		System.out.println("(" + Benchmark.getSink() + ")");
+	}
+}
@@ -0,0 +1,19 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+
+public class SQLiteStorageTest extends StorageContractTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Override
+	protected Storage createStorage() throws Exception {
+		return new SQLiteStorage(folder.getRoot(), SQLiteProfile.BALANCED, 2000, 0, 5000, 2);
+	}
+}
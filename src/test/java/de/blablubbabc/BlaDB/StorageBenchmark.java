@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.h2.tools.Server;
+
+import de.blablubbabc.paintball.benchmark.Benchmark;
+import de.blablubbabc.paintball.statistics.general.GeneralStat;
+import de.blablubbabc.paintball.statistics.player.PlayerStat;
+
+/**
+ * Compares the storage backends on the same workload: saving the stats at the end of a match,
+ * looking up the stats of a player, and loading a leaderboard, on a database with 1000 players.
+ * <p>
+ * The MySQL storage runs against a local H2 server in MySQL mode, unless a MySQL server is given
+ * through the system properties 'benchmark.mysql.url', 'benchmark.mysql.user' and
+ * 'benchmark.mysql.password'. Its tables should be empty.
+ */
+public class StorageBenchmark {
+
+	static final int PLAYERS = 1000;
+	static final int PLAYERS_PER_MATCH = 16;
+
+	static final List<UUID> uuids = new ArrayList<UUID>();
+	static {
+		for (int i = 0; i < PLAYERS; i++) {
+			uuids.add(UUID.nameUUIDFromBytes(("player" + i).getBytes(StandardCharsets.UTF_8)));
+		}
+	}
+
+	// adds the synthetic players
+	static void fill(Storage storage) throws SQLException {
+		final PlayerStorage players = storage.getPlayers();
+		storage.runTransaction(new Storage.Transaction() {
+
+			@Override
+			public void run() throws SQLException {
+				for (int i = 0; i < PLAYERS; i++) {
+					players.initPlayer(uuids.get(i), "player" + i);
+					players.updatePlayerStatsRaw(uuids.get(i), stats(i % 100), new EnumMap<PlayerStat, Integer>(PlayerStat.class));
+				}
+			}
+		});
+	}
+
+	// the stats of one player at the end of a match
+	static Map<PlayerStat, Integer> stats(int value) {
+		Map<PlayerStat, Integer> stats = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+		stats.put(PlayerStat.POINTS, value);
+		stats.put(PlayerStat.KILLS, value % 7);
+		stats.put(PlayerStat.DEATHS, value % 5);
+		stats.put(PlayerStat.SHOTS, value * 3);
+		stats.put(PlayerStat.HITS, value);
+		stats.put(PlayerStat.ROUNDS, 1);
+		stats.put(PlayerStat.WINS, value % 2);
+		return stats;
+	}
+
+	// saves the stats of all players of a match in one transaction, like the stats writer
+	static void saveMatchEnd(Storage storage, final int match) throws SQLException {
+		final PlayerStorage players = storage.getPlayers();
+		final GeneralStatsStorage generalStats = storage.getGeneralStats();
+		storage.runTransaction(new Storage.Transaction() {
+
+			@Override
+			public void run() throws SQLException {
+				for (int i = 0; i < PLAYERS_PER_MATCH; i++) {
+					UUID uuid = uuids.get((match * PLAYERS_PER_MATCH + i) % PLAYERS);
+					Map<PlayerStat, Integer> setStats = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+					setStats.put(PlayerStat.KD, 100 + i);
+					setStats.put(PlayerStat.HITQUOTE, 33);
+					players.updatePlayerStatsRaw(uuid, stats(i), setStats);
+				}
+				Map<GeneralStat, Integer> stats = new EnumMap<GeneralStat, Integer>(GeneralStat.class);
+				stats.put(GeneralStat.ROUNDS, 1);
+				stats.put(GeneralStat.KILLS, PLAYERS_PER_MATCH);
+				generalStats.addStatsMatchEnd(stats, PLAYERS_PER_MATCH);
+			}
+		});
+	}
+
+	private static void run(String name, final Storage storage) throws Exception {
+		if (!storage.open()) {
+			System.out.println(name + ": could not open the storage");
+			return;
+		}
+		try {
+			fill(storage);
+			Benchmark.run(name + ": match end save", 50, 500, new Benchmark.Operation() {
+
+				@Override
+				public long run(int round) throws Exception {
+					saveMatchEnd(storage, round);
+					return round;
+				}
+			});
+			Benchmark.run(name + ": player stats lookup", 2000, 20000, new Benchmark.Operation() {
+
+				@Override
+				public long run(int round) {
+					return storage.getPlayers().getPlayerStats(uuids.get((round * 31) % PLAYERS)).size();
+				}
+			});
+			Benchmark.run(name + ": top 10 by points", 200, 2000, new Benchmark.Operation() {
+
+				@Override
+				public long run(int round) {
+					return storage.getPlayers().getTopEntries(PlayerStat.POINTS, 10).size();
+				}
+			});
+		} finally {
+			storage.close();
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		JdbcStorage.loadDriver(StorageType.SQLITE);
+		JdbcStorage.loadDriver(StorageType.H2);
+
+		for (SQLiteProfile profile : SQLiteProfile.values()) {
+			File folder = Files.createTempDirectory("paintball-sqlite").toFile();
+			run("SQLite " + profile.name(), new SQLiteStorage(folder, profile, 2000, 0, 5000, 2));
+		}
+
+		File h2Folder = Files.createTempDirectory("paintball-h2").toFile();
+		run("H2", new H2Storage(h2Folder, 5000, 2));
+
+		String mysqlUrl = System.getProperty("benchmark.mysql.url");
+		if (mysqlUrl != null) {
+			JdbcStorage.loadDriver(StorageType.MYSQL);
+			String user = System.getProperty("benchmark.mysql.user", "paintball");
+			String password = System.getProperty("benchmark.mysql.password", "");
+			run("MySQL", new MySQLStorage(mysqlUrl, user, password, 5000, 2));
+		} else {
+			Server server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+			try {
+				String url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:paintball;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+				run("MySQL dialect, local H2 server", new MySQLStorage(url, "sa", "", 5000, 2));
+			} finally {
+				server.stop();
+			}
+		}
+		System.out.println("(" + Benchmark.getSink() + ")");
+	}
+}
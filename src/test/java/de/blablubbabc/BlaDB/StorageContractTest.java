@@ -0,0 +1,336 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.BlaDB;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.blablubbabc.paintball.statistics.arena.ArenaSetting;
+import de.blablubbabc.paintball.statistics.arena.ArenaStat;
+import de.blablubbabc.paintball.statistics.general.GeneralStat;
+import de.blablubbabc.paintball.statistics.player.LeaderboardEntry;
+import de.blablubbabc.paintball.statistics.player.PlayerStat;
+
+/**
+ * The behavior every storage has to provide. The subclasses run these tests against the different
+ * storage implementations.
+ */
+public abstract class StorageContractTest {
+
+	private static final UUID PLAYER_A = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+	private static final UUID PLAYER_B = UUID.fromString("853c80ef-3c37-49fd-aa49-938b674adae6");
+
+	private Storage storage;
+
+	// a new storage on the database of the current test; the database is empty at the start of each
+	// test
+	protected abstract Storage createStorage() throws Exception;
+
+	@Before
+	public void setUp() throws Exception {
+		storage = this.open();
+	}
+
+	@After
+	public void tearDown() {
+		if (storage != null) storage.close();
+	}
+
+	private Storage open() throws Exception {
+		Storage storage = this.createStorage();
+		assertTrue("Could not open the storage!", storage.open());
+		return storage;
+	}
+
+	private static Map<PlayerStat, Integer> playerStats(PlayerStat stat, int value) {
+		Map<PlayerStat, Integer> stats = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+		stats.put(stat, value);
+		return stats;
+	}
+
+	// only knows its name
+	private static World newWorld(final String name) {
+		return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[] { World.class }, new InvocationHandler() {
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if (method.getName().equals("getName")) return name;
+				throw new UnsupportedOperationException(method.getName());
+			}
+		});
+	}
+
+	// PLAYERS
+
+	@Test
+	public void testInitPlayer() {
+		PlayerStorage players = storage.getPlayers();
+		assertFalse(players.isPlayerExisting(PLAYER_A));
+
+		players.initPlayer(PLAYER_A, "Alice");
+		players.initPlayer(PLAYER_A, "Alice2");
+
+		assertTrue(players.isPlayerExisting(PLAYER_A));
+		assertEquals(1, players.getPlayerCount());
+		assertEquals(0, players.getPlayersEverPlayedCount());
+		assertEquals(Integer.valueOf(0), players.getPlayerStats(PLAYER_A).get(PlayerStat.KILLS));
+		assertEquals("Alice2", players.getTopEntries(PlayerStat.KILLS, 1).get(0).getPlayerName());
+	}
+
+	@Test
+	public void testUpdatePlayerStats() {
+		PlayerStorage players = storage.getPlayers();
+		players.initPlayer(PLAYER_A, "Alice");
+		players.setPlayerStats(PLAYER_A, playerStats(PlayerStat.KILLS, 5));
+
+		players.updatePlayerStats(PLAYER_A, playerStats(PlayerStat.KILLS, 2), playerStats(PlayerStat.ROUNDS, 3));
+
+		Map<PlayerStat, Integer> stats = players.getPlayerStats(PLAYER_A);
+		assertEquals(Integer.valueOf(7), stats.get(PlayerStat.KILLS));
+		assertEquals(Integer.valueOf(3), stats.get(PlayerStat.ROUNDS));
+		assertEquals(Integer.valueOf(0), stats.get(PlayerStat.DEATHS));
+		assertEquals(1, players.getPlayersEverPlayedCount());
+	}
+
+	@Test
+	public void testUpdateAllPlayerStats() {
+		PlayerStorage players = storage.getPlayers();
+		players.initPlayer(PLAYER_A, "Alice");
+		Map<PlayerStat, Integer> stats = new EnumMap<PlayerStat, Integer>(PlayerStat.class);
+		for (PlayerStat stat : PlayerStat.values()) {
+			stats.put(stat, stat.ordinal() + 1);
+		}
+
+		players.setPlayerStats(PLAYER_A, stats);
+		players.addPlayerStats(PLAYER_A, stats);
+
+		Map<PlayerStat, Integer> stored = players.getPlayerStats(PLAYER_A);
+		for (PlayerStat stat : PlayerStat.values()) {
+			assertEquals(stat.getKey(), Integer.valueOf(2 * (stat.ordinal() + 1)), stored.get(stat));
+		}
+		assertEquals(2 * (PlayerStat.KILLS.ordinal() + 1), players.getAllPlayerStatValues().get(PLAYER_A)[PlayerStat.KILLS.ordinal()]);
+	}
+
+	@Test
+	public void testRanks() {
+		PlayerStorage players = storage.getPlayers();
+		players.initPlayer(PLAYER_A, "Alice");
+		players.initPlayer(PLAYER_B, "Bob");
+		players.setPlayerStats(PLAYER_A, playerStats(PlayerStat.POINTS, 10));
+		players.setPlayerStats(PLAYER_B, playerStats(PlayerStat.POINTS, 20));
+
+		assertEquals(2, players.getRank(PLAYER_A, PlayerStat.POINTS));
+		assertEquals(1, players.getRank(PLAYER_B, PlayerStat.POINTS));
+		List<LeaderboardEntry> top = players.getTopEntries(PlayerStat.POINTS, 10);
+		assertEquals(2, top.size());
+		assertEquals(PLAYER_B, top.get(0).getPlayerUUID());
+		assertEquals(20, top.get(0).getValue());
+		assertEquals(PLAYER_A, top.get(1).getPlayerUUID());
+		assertEquals(1, players.getTopEntries(PlayerStat.POINTS, 1).size());
+	}
+
+	@Test
+	public void testResetAndRemovePlayers() {
+		PlayerStorage players = storage.getPlayers();
+		players.initPlayer(PLAYER_A, "Alice");
+		players.initPlayer(PLAYER_B, "Bob");
+		players.setPlayerStats(PLAYER_A, playerStats(PlayerStat.KILLS, 1));
+		players.setPlayerStats(PLAYER_B, playerStats(PlayerStat.KILLS, 2));
+
+		players.resetPlayerStats(PLAYER_A);
+		assertEquals(Integer.valueOf(0), players.getPlayerStats(PLAYER_A).get(PlayerStat.KILLS));
+		assertEquals(Integer.valueOf(2), players.getPlayerStats(PLAYER_B).get(PlayerStat.KILLS));
+
+		players.resetAllPlayerStats();
+		assertEquals(Integer.valueOf(0), players.getPlayerStats(PLAYER_B).get(PlayerStat.KILLS));
+
+		players.removePlayer(PLAYER_A);
+		assertFalse(players.isPlayerExisting(PLAYER_A));
+		assertTrue(players.getPlayerStats(PLAYER_A).isEmpty());
+		assertEquals(1, players.getPlayerCount());
+	}
+
+	// TRANSACTIONS
+
+	@Test
+	public void testTransactionCommits() throws SQLException {
+		final PlayerStorage players = storage.getPlayers();
+		players.initPlayer(PLAYER_A, "Alice");
+
+		storage.runTransaction(new Storage.Transaction() {
+
+			@Override
+			public void run() throws SQLException {
+				players.updatePlayerStatsRaw(PLAYER_A, playerStats(PlayerStat.KILLS, 1), playerStats(PlayerStat.DEATHS, 2));
+			}
+		});
+
+		assertEquals(Integer.valueOf(1), players.getPlayerStats(PLAYER_A).get(PlayerStat.KILLS));
+		assertTrue(storage.getCommitLatencyInfo().contains("commits: 1"));
+	}
+
+	@Test
+	public void testTransactionRollsBack() {
+		final PlayerStorage players = storage.getPlayers();
+		players.initPlayer(PLAYER_A, "Alice");
+
+		try {
+			storage.runTransaction(new Storage.Transaction() {
+
+				@Override
+				public void run() throws SQLException {
+					players.updatePlayerStatsRaw(PLAYER_A, playerStats(PlayerStat.KILLS, 1), playerStats(PlayerStat.DEATHS, 2));
+					throw new SQLException("test");
+				}
+			});
+			fail("The transaction didn't fail!");
+		} catch (SQLException e) {
+			assertEquals("test", e.getMessage());
+		}
+
+		assertEquals(Integer.valueOf(0), players.getPlayerStats(PLAYER_A).get(PlayerStat.KILLS));
+		// auto-commit again:
+		players.setPlayerStats(PLAYER_A, playerStats(PlayerStat.KILLS, 3));
+		assertEquals(Integer.valueOf(3), players.getPlayerStats(PLAYER_A).get(PlayerStat.KILLS));
+	}
+
+	@Test
+	public void testReopen() throws Exception {
+		storage.getPlayers().initPlayer(PLAYER_A, "Alice");
+		storage.getArenas().addNewArena("arena");
+		storage.close();
+
+		storage = this.open();
+
+		assertTrue(storage.getPlayers().isPlayerExisting(PLAYER_A));
+		assertEquals(Arrays.asList("arena"), storage.getArenas().getAllArenaNames());
+		// the default general stats didn't get inserted again:
+		Result r = ((JdbcStorage) storage).resultQuery("SELECT COUNT(*) FROM general_stats;");
+		try {
+			assertTrue(r.getResultSet().next());
+			assertEquals(GeneralStat.values().length, r.getResultSet().getInt(1));
+		} finally {
+			r.close();
+		}
+	}
+
+	// GENERAL STATS
+
+	@Test
+	public void testGeneralStats() {
+		GeneralStatsStorage generalStats = storage.getGeneralStats();
+		for (GeneralStat stat : GeneralStat.values()) {
+			assertEquals(stat.getKey(), Integer.valueOf(0), generalStats.getStats().get(stat));
+		}
+
+		Map<GeneralStat, Integer> stats = new EnumMap<GeneralStat, Integer>(GeneralStat.class);
+		stats.put(GeneralStat.KILLS, 4);
+		generalStats.addStats(stats);
+		generalStats.addStats(stats);
+
+		assertEquals(Integer.valueOf(8), generalStats.getStats().get(GeneralStat.KILLS));
+	}
+
+	@Test
+	public void testGeneralStatsMatchEnd() {
+		GeneralStatsStorage generalStats = storage.getGeneralStats();
+		Map<GeneralStat, Integer> stats = new EnumMap<GeneralStat, Integer>(GeneralStat.class);
+		stats.put(GeneralStat.ROUNDS, 1);
+
+		generalStats.addStatsMatchEnd(stats, 4);
+		generalStats.addStatsMatchEnd(stats, 8);
+
+		Map<GeneralStat, Integer> stored = generalStats.getStats();
+		assertEquals(Integer.valueOf(2), stored.get(GeneralStat.ROUNDS));
+		assertEquals(Integer.valueOf(6), stored.get(GeneralStat.AVERAGE_PLAYERS));
+		assertEquals(Integer.valueOf(8), stored.get(GeneralStat.MAX_PLAYERS));
+	}
+
+	// ARENAS
+
+	@Test
+	public void testArenas() {
+		ArenaStorage arenas = storage.getArenas();
+		assertFalse(arenas.isArenaExisting("arena"));
+
+		arenas.addNewArena("arena");
+		arenas.addNewArena("arena");
+		arenas.addNewArena("other");
+
+		assertTrue(arenas.isArenaExisting("arena"));
+		assertEquals(2, arenas.getAllArenaNames().size());
+		assertFalse(arenas.isArenaActive("arena"));
+		arenas.setArenaActive("arena");
+		assertTrue(arenas.isArenaActive("arena"));
+		assertFalse(arenas.isArenaActive("other"));
+		arenas.setArenaNotActive("arena");
+		assertFalse(arenas.isArenaActive("arena"));
+
+		arenas.removeArena("other");
+		assertEquals(Arrays.asList("arena"), arenas.getAllArenaNames());
+	}
+
+	@Test
+	public void testArenaSettingsAndStats() {
+		ArenaStorage arenas = storage.getArenas();
+		arenas.addNewArena("arena");
+		assertEquals(Integer.valueOf(0), arenas.getArenaSettings("arena").get(ArenaSetting.LIVES));
+
+		Map<ArenaSetting, Integer> settings = new EnumMap<ArenaSetting, Integer>(ArenaSetting.class);
+		settings.put(ArenaSetting.LIVES, 3);
+		arenas.setArenaSettings("arena", settings);
+		Map<ArenaStat, Integer> stats = new EnumMap<ArenaStat, Integer>(ArenaStat.class);
+		stats.put(ArenaStat.KILLS, 5);
+		arenas.addArenaStats("arena", stats);
+		arenas.addArenaStats("arena", stats);
+
+		assertEquals(Integer.valueOf(3), arenas.getArenaSettings("arena").get(ArenaSetting.LIVES));
+		assertEquals(Integer.valueOf(10), arenas.getArenaStats("arena").get(ArenaStat.KILLS));
+		arenas.setArenaStats("arena", stats);
+		assertEquals(Integer.valueOf(5), arenas.getArenaStats("arena").get(ArenaStat.KILLS));
+	}
+
+	// only the counts: loading the locations requires the worlds of a running server
+	@Test
+	public void testSpawns() {
+		ArenaStorage arenas = storage.getArenas();
+		World world = newWorld("world");
+		arenas.addNewArena("arena");
+		arenas.addRedspawn(new Location(world, 1, 2, 3, 0f, 0f), "arena");
+		arenas.addRedspawn(new Location(world, 4, 5, 6, 90f, 0f), "arena");
+		arenas.addBluespawn(new Location(world, 7, 8, 9, 0f, 0f), "arena");
+		arenas.addLobbyspawn(new Location(world, 0, 64, 0, 0f, 0f));
+
+		assertEquals(2, arenas.getRedspawnsSize("arena"));
+		assertEquals(1, arenas.getBluespawnsSize("arena"));
+		assertEquals(0, arenas.getSpecspawnsSize("arena"));
+		assertEquals(1, arenas.getLobbyspawnsSize());
+
+		arenas.removeRedspawns("arena");
+		arenas.removeLobbyspawns();
+		assertEquals(0, arenas.getRedspawnsSize("arena"));
+		assertEquals(0, arenas.getLobbyspawnsSize());
+		arenas.removeArena("arena");
+		assertEquals(0, arenas.getBluespawnsSize("arena"));
+	}
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.bukkit.entity.Player;
+
+import de.blablubbabc.paintball.benchmark.Benchmark;
+
+/**
+ * Compares the lookups of a projectile hit handler with 100 participants: through the participant
+ * registry, against scanning the matches and the synchronized lobby teams like before.
+ */
+public class ParticipantRegistryBenchmark {
+
+	private static final int MATCHES = 4;
+	private static final int PLAYERS_PER_MATCH = 25;
+
+	// the lookups like they were before the registry:
+	private static class ScanLookup {
+
+		private static class MatchSets {
+
+			private final Match match;
+			private final Set<Player> red = new HashSet<Player>();
+			private final Set<Player> blue = new HashSet<Player>();
+			private final Set<Player> all = new HashSet<Player>();
+
+			private MatchSets(Match match) {
+				this.match = match;
+			}
+		}
+
+		private final List<MatchSets> matches = new ArrayList<MatchSets>();
+		// members by lobby team, each accessed while synchronized on the team:
+		private final Map<Lobby, Map<Player, Boolean>> teams = new HashMap<Lobby, Map<Player, Boolean>>();
+
+		private ScanLookup() {
+			for (Lobby team : Lobby.values()) {
+				teams.put(team, new HashMap<Player, Boolean>());
+			}
+		}
+
+		private synchronized Match getMatch(Player player) {
+			for (MatchSets match : matches) {
+				if (match.all.contains(player)) return match.match;
+			}
+			return null;
+		}
+
+		private Lobby getMatchTeam(Match match, Player player) {
+			for (MatchSets sets : matches) {
+				if (sets.match != match) continue;
+				if (sets.red.contains(player)) return Lobby.RED;
+				if (sets.blue.contains(player)) return Lobby.BLUE;
+			}
+			return null;
+		}
+
+		private boolean isMember(Lobby team, Player player) {
+			Map<Player, Boolean> members = teams.get(team);
+			synchronized (members) {
+				return members.containsKey(player);
+			}
+		}
+
+		private synchronized Lobby getTeam(Player player) {
+			for (Lobby team : Lobby.values()) {
+				if (team != Lobby.LOBBY && this.isMember(team, player)) return team;
+			}
+			return this.isMember(Lobby.LOBBY, player) ? Lobby.LOBBY : null;
+		}
+	}
+
+	// only knows its uuid
+	private static Player newPlayer() {
+		final UUID uuid = UUID.randomUUID();
+		return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[] { Player.class }, new InvocationHandler() {
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+				case "getUniqueId":
+					return uuid;
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return uuid.hashCode();
+				default:
+					throw new UnsupportedOperationException(method.getName());
+				}
+			}
+		});
+	}
+
+	public static void main(String[] args) throws Exception {
+		final ScanLookup scan = new ScanLookup();
+		final List<Player> players = new ArrayList<Player>();
+		for (int m = 0; m < MATCHES; m++) {
+			Match match = new Match("arena" + m);
+			ScanLookup.MatchSets sets = new ScanLookup.MatchSets(match);
+			scan.matches.add(sets);
+			for (int i = 0; i < PLAYERS_PER_MATCH; i++) {
+				Player player = newPlayer();
+				Lobby team = (i % 2 == 0 ? Lobby.RED : Lobby.BLUE);
+				players.add(player);
+
+				ParticipantRegistry.joinLobby(player);
+				ParticipantRegistry.setTeam(player, team, true);
+				ParticipantRegistry.setMatch(player, match);
+
+				scan.teams.get(Lobby.LOBBY).put(player, false);
+				scan.teams.get(team).put(player, true);
+				(team == Lobby.RED ? sets.red : sets.blue).add(player);
+				sets.all.add(player);
+			}
+		}
+		final int size = players.size();
+		int warmup = 500000;
+		int rounds = 2000000;
+		System.out.println("Projectile hit lookups with " + size + " participants in " + MATCHES + " matches:");
+
+		Benchmark.run("scanning matches and lobby teams", warmup, rounds, new Benchmark.Operation() {
+
+			@Override
+			public long run(int round) {
+				Player shooter = players.get(round % size);
+				Player target = players.get((round * 7 + 1) % size);
+				if (scan.getTeam(shooter) == null || scan.getTeam(target) == null) return 0L;
+				Match match = scan.getMatch(shooter);
+				if (match == null || match != scan.getMatch(target)) return 1L;
+				return scan.getMatchTeam(match, shooter) != scan.getMatchTeam(match, target) ? 2L : 3L;
+			}
+		});
+		Benchmark.run("participant registry", warmup, rounds, new Benchmark.Operation() {
+
+			@Override
+			public long run(int round) {
+				Participant shooter = ParticipantRegistry.get(players.get(round % size));
+				Participant target = ParticipantRegistry.get(players.get((round * 7 + 1) % size));
+				if (shooter == null || target == null) return 0L;
+				Match match = shooter.getMatch();
+				if (match == null || match != target.getMatch()) return 1L;
+				return shooter.getTeam() != target.getTeam() ? 2L : 3L;
+			}
+		});
+		System.out.println("(" + Benchmark.getSink() + ")");
+	}
+}
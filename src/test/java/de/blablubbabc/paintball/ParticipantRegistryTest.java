@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+import org.bukkit.entity.Player;
+import org.junit.Test;
+
+public class ParticipantRegistryTest {
+
+	// only knows its uuid
+	private static Player newPlayer() {
+		final UUID uuid = UUID.randomUUID();
+		return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[] { Player.class }, new InvocationHandler() {
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+				case "getUniqueId":
+					return uuid;
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return uuid.hashCode();
+				case "toString":
+					return uuid.toString();
+				default:
+					throw new UnsupportedOperationException(method.getName());
+				}
+			}
+		});
+	}
+
+	private static Match newMatch() {
+		return new Match("test");
+	}
+
+	@Test
+	public void testUnknownPlayer() {
+		Player player = newPlayer();
+		assertNull(ParticipantRegistry.get(player));
+		assertNull(ParticipantRegistry.get(player.getUniqueId()));
+		assertNull(ParticipantRegistry.getMatch(player));
+	}
+
+	@Test
+	public void testLobbyAndTeam() {
+		Player player = newPlayer();
+		ParticipantRegistry.joinLobby(player);
+		ParticipantRegistry.setTeam(player, Lobby.RED, false);
+
+		Participant participant = ParticipantRegistry.get(player);
+		assertTrue(participant.isInLobby());
+		assertSame(Lobby.RED, participant.getTeam());
+		assertFalse(participant.isPlaying());
+		assertSame(participant, ParticipantRegistry.get(player.getUniqueId()));
+
+		// a different team doesn't remove the current team:
+		ParticipantRegistry.removeTeam(player, Lobby.BLUE);
+		assertSame(Lobby.RED, ParticipantRegistry.get(player).getTeam());
+		ParticipantRegistry.setTeam(player, Lobby.BLUE, true);
+		assertSame(Lobby.BLUE, ParticipantRegistry.get(player).getTeam());
+		assertTrue(ParticipantRegistry.get(player).isPlaying());
+
+		// no state left:
+		ParticipantRegistry.removeTeam(player, Lobby.BLUE);
+		ParticipantRegistry.leaveLobby(player);
+		assertNull(ParticipantRegistry.get(player));
+	}
+
+	@Test
+	public void testMatch() {
+		Player player = newPlayer();
+		Player other = newPlayer();
+		Match match = newMatch();
+		Match nextMatch = newMatch();
+		ParticipantRegistry.joinLobby(player);
+		ParticipantRegistry.joinLobby(other);
+		ParticipantRegistry.setMatch(player, match);
+
+		assertSame(match, ParticipantRegistry.getMatch(player));
+		assertNull(ParticipantRegistry.getMatch(other));
+
+		// an other match doesn't remove the current match:
+		ParticipantRegistry.removeMatch(player, nextMatch);
+		assertSame(match, ParticipantRegistry.getMatch(player));
+		ParticipantRegistry.removeMatch(player, match);
+		assertNull(ParticipantRegistry.getMatch(player));
+		assertTrue(ParticipantRegistry.get(player).isInLobby());
+	}
+
+	@Test
+	public void testRejoinForgetsOldMatch() {
+		Player player = newPlayer();
+		ParticipantRegistry.joinLobby(player);
+		ParticipantRegistry.setMatch(player, newMatch());
+		ParticipantRegistry.leaveLobby(player);
+		// still in the match, until the match removes the player:
+		assertFalse(ParticipantRegistry.get(player).isInLobby());
+		assertNotNull(ParticipantRegistry.getMatch(player));
+
+		ParticipantRegistry.joinLobby(player);
+		assertNull(ParticipantRegistry.getMatch(player));
+	}
+
+	@Test
+	public void testRemoveAllMatches() {
+		Player player = newPlayer();
+		Player leftPlayer = newPlayer();
+		Match match = newMatch();
+		ParticipantRegistry.joinLobby(player);
+		ParticipantRegistry.setMatch(player, match);
+		ParticipantRegistry.setMatch(leftPlayer, match);
+
+		ParticipantRegistry.removeAllMatches();
+
+		assertNull(ParticipantRegistry.getMatch(player));
+		assertTrue(ParticipantRegistry.get(player).isInLobby());
+		// not in the lobby and no match:
+		assertNull(ParticipantRegistry.get(leftPlayer));
+	}
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the time and the allocated bytes per operation of the benchmarks in the test sources.
+ * <p>
+ * The benchmarks are main classes, which are not run by the tests, but by the 'benchmark' task:
+ * {@code gradle benchmark -Pbenchmark=<main class>}. The numbers are only comparable with each
+ * other on the same machine.
+ */
+public final class Benchmark {
+
+	public interface Operation {
+
+		// returns some result of the operation, so that the work can't be optimized away
+		long run(int round) throws Exception;
+	}
+
+	private static long sink = 0L;
+
+	private Benchmark() {
+	}
+
+	// prints the average time and allocated bytes per operation
+	public static void run(String name, int warmupRounds, int rounds, Operation operation) throws Exception {
+		for (int round = 0; round < warmupRounds; round++) {
+			sink += operation.run(round);
+		}
+
+		long allocatedStart = getAllocatedBytes();
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			sink += operation.run(round);
+		}
+		long nanos = System.nanoTime() - start;
+		long allocatedEnd = getAllocatedBytes();
+
+		String allocated = (allocatedStart < 0L ? "n/a" : String.format("%.1f", (double) (allocatedEnd - allocatedStart) / rounds));
+		System.out.println(String.format("%-50s %12.1f ns/op %10s B/op", name, (double) nanos / rounds, allocated));
+	}
+
+	// the result of all operations, to be printed at the end
+	public static long getSink() {
+		return sink;
+	}
+
+	// returns -1 if the JVM doesn't measure the allocated bytes
+	private static long getAllocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+			if (sunThreads.isThreadAllocatedMemorySupported() && sunThreads.isThreadAllocatedMemoryEnabled()) {
+				return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1L;
+	}
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.gadgets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.blablubbabc.paintball.gadgets.BlockVisuals.Change;
+import de.blablubbabc.paintball.gadgets.BlockVisuals.ClientView;
+
+public class BlockVisualsTest {
+
+	private static final int VIEW_DISTANCE = 10;
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, final InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return type.getSimpleName();
+				default:
+					return handler.invoke(proxy, method, args);
+				}
+			}
+		});
+	}
+
+	private static InvocationHandler unsupported() {
+		return new InvocationHandler() {
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				throw new UnsupportedOperationException(method.getName());
+			}
+		};
+	}
+
+	private World world;
+	private BlockData realData;
+	private BlockData fakeData;
+	// the block data which the client got, in order:
+	private List<BlockData> sent;
+	private Player player;
+
+	@Before
+	public void setUp() {
+		world = proxy(World.class, unsupported());
+		realData = proxy(BlockData.class, unsupported());
+		fakeData = proxy(BlockData.class, unsupported());
+		sent = new ArrayList<BlockData>();
+		final Location playerLocation = new Location(world, 0.5D, 64.0D, 0.5D);
+		player = proxy(Player.class, new InvocationHandler() {
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+				case "getLocation":
+					return playerLocation.clone();
+				case "sendBlockChange":
+					sent.add((BlockData) args[1]);
+					return null;
+				default:
+					throw new UnsupportedOperationException(method.getName());
+				}
+			}
+		});
+	}
+
+	private Block block(final int x, final int y, final int z) {
+		return proxy(Block.class, new InvocationHandler() {
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+				case "getX":
+					return x;
+				case "getY":
+					return y;
+				case "getZ":
+					return z;
+				case "getWorld":
+					return world;
+				case "getLocation":
+					return new Location(world, x, y, z);
+				case "getBlockData":
+					return realData;
+				default:
+					throw new UnsupportedOperationException(method.getName());
+				}
+			}
+		});
+	}
+
+	private Chunk chunk(final int x, final int z) {
+		return proxy(Chunk.class, new InvocationHandler() {
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+				case "getX":
+					return x;
+				case "getZ":
+					return z;
+				default:
+					throw new UnsupportedOperationException(method.getName());
+				}
+			}
+		});
+	}
+
+	@Test
+	public void testKnownFakeIsNotSentAgain() {
+		ClientView view = new ClientView(world);
+		Block block = block(3, 70, 3);
+		view.queue(new Change(block, fakeData));
+		view.flush(player, VIEW_DISTANCE);
+		view.queue(new Change(block, fakeData));
+		view.flush(player, VIEW_DISTANCE);
+
+		assertEquals(1, sent.size());
+		assertSame(fakeData, sent.get(0));
+	}
+
+	@Test
+	public void testResendSendsKnownFakeAgain() {
+		ClientView view = new ClientView(world);
+		Block block = block(3, 70, 3);
+		view.queue(new Change(block, fakeData));
+		view.flush(player, VIEW_DISTANCE);
+
+		assertTrue(view.resend(null));
+		view.flush(player, VIEW_DISTANCE);
+
+		assertEquals(2, sent.size());
+		assertSame(fakeData, sent.get(1));
+		assertTrue(view.hasFakes());
+	}
+
+	@Test
+	public void testRevertAfterResendInSameTick() {
+		ClientView view = new ClientView(world);
+		Block block = block(3, 70, 3);
+		view.queue(new Change(block, fakeData));
+		view.flush(player, VIEW_DISTANCE);
+
+		// periodic resend, followed by the removal of the marker within the same tick:
+		assertTrue(view.resend(null));
+		view.queue(new Change(block, null));
+		view.flush(player, VIEW_DISTANCE);
+
+		assertEquals(2, sent.size());
+		assertSame(realData, sent.get(1));
+		assertFalse(view.hasFakes());
+	}
+
+	@Test
+	public void testRevertAfterChunkResendInSameTick() {
+		ClientView view = new ClientView(world);
+		Block block = block(3, 70, 3);
+		view.queue(new Change(block, fakeData));
+		view.flush(player, VIEW_DISTANCE);
+
+		// other chunks don't resend it:
+		assertFalse(view.resend(chunk(1, 0)));
+		assertTrue(view.resend(chunk(0, 0)));
+		view.queue(new Change(block, null));
+		view.flush(player, VIEW_DISTANCE);
+
+		assertEquals(2, sent.size());
+		assertSame(realData, sent.get(1));
+		assertFalse(view.hasFakes());
+	}
+
+	@Test
+	public void testResendKeepsPendingRevert() {
+		ClientView view = new ClientView(world);
+		Block block = block(3, 70, 3);
+		view.queue(new Change(block, fakeData));
+		view.flush(player, VIEW_DISTANCE);
+
+		view.queue(new Change(block, null));
+		assertFalse(view.resend(null));
+		view.flush(player, VIEW_DISTANCE);
+
+		assertEquals(2, sent.size());
+		assertSame(realData, sent.get(1));
+		assertFalse(view.hasFakes());
+	}
+
+	@Test
+	public void testRevertWithoutFakeIsNotSent() {
+		ClientView view = new ClientView(world);
+		view.queue(new Change(block(3, 70, 3), null));
+		view.flush(player, VIEW_DISTANCE);
+
+		assertTrue(sent.isEmpty());
+	}
+
+	@Test
+	public void testFakeOutsideViewDistanceIsForgotten() {
+		ClientView view = new ClientView(world);
+		view.queue(new Change(block(16 * (VIEW_DISTANCE + 1), 70, 3), fakeData));
+		view.flush(player, VIEW_DISTANCE);
+
+		assertTrue(sent.isEmpty());
+		assertFalse(view.hasFakes());
+	}
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.utils;
+
+import static de.blablubbabc.paintball.utils.MessageTemplateTest.MESSAGES;
+import static de.blablubbabc.paintball.utils.MessageTemplateTest.VALUES;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import de.blablubbabc.paintball.benchmark.Benchmark;
+
+/**
+ * Compares rendering the messages with the message templates against the replace loop, which
+ * Translator used before.
+ */
+public class MessageTemplateBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		final MessageTemplate[] templates = new MessageTemplate[MESSAGES.length];
+		for (int i = 0; i < MESSAGES.length; i++) {
+			templates[i] = new MessageTemplate(MESSAGES[i]);
+		}
+		final Map<String, String> vars = new HashMap<String, String>();
+		for (KeyValuePair value : VALUES) {
+			if (!vars.containsKey(value.getKey())) vars.put(value.getKey(), value.getValue());
+		}
+		int warmup = 200000;
+		int rounds = 1000000;
+
+		Benchmark.run("replace loop", warmup, rounds, new Benchmark.Operation() {
+
+			@Override
+			public long run(int round) {
+				return MessageTemplateTest.replaceLoop(MESSAGES[round % MESSAGES.length], VALUES).length();
+			}
+		});
+		Benchmark.run("template, key value pairs", warmup, rounds, new Benchmark.Operation() {
+
+			@Override
+			public long run(int round) {
+				return templates[round % templates.length].render(VALUES).length();
+			}
+		});
+		Benchmark.run("template, map", warmup, rounds, new Benchmark.Operation() {
+
+			@Override
+			public long run(int round) {
+				return templates[round % templates.length].render(vars).length();
+			}
+		});
+		System.out.println("(" + Benchmark.getSink() + ")");
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) blablubbabc <http://www.blablubbabc.de>
+ * All rights reserved.
+ */
+package de.blablubbabc.paintball.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class MessageTemplateTest {
+
+	static final String[] MESSAGES = {
+			"&7No placeholders at all.",
+			"{player} hit {target}!",
+			"&c{killer}&7 shot &c{target}&7 with a {gadget}. {killer} has {kills} kills.",
+			"{player}{target}",
+			"Only {missing} here, and {player}.",
+			"Nested {{player}} and {unclosed",
+			"}{ braces } in the {wrong} order {",
+			"{a{player}c}",
+			"{}",
+			""
+	};
+
+	static final KeyValuePair[] VALUES = {
+			new KeyValuePair("player", "blablubbabc"),
+			new KeyValuePair("target", "Steve"),
+			new KeyValuePair("killer", "Alex"),
+			new KeyValuePair("gadget", "grenade"),
+			new KeyValuePair("kills", "12"),
+			new KeyValuePair("player", "ignored duplicate")
+	};
+
+	// the replace loop which Translator used before the templates:
+	static String replaceLoop(String message, KeyValuePair... values) {
+		String value = message;
+		if (values != null && values.length > 0) {
+			for (KeyValuePair entry : values) {
+				if (entry != null) {
+					value = value.replace("{" + entry.getKey() + "}", entry.getValue());
+				}
+			}
+		}
+		return value;
+	}
+
+	@Test
+	public void testSameOutputAsReplaceLoop() {
+		for (String message : MESSAGES) {
+			MessageTemplate template = new MessageTemplate(message);
+			assertEquals(message, replaceLoop(message, VALUES), template.render(VALUES));
+			assertEquals(message, replaceLoop(message, VALUES[1]), template.render(VALUES[1]));
+			assertEquals(message, replaceLoop(message), template.render());
+		}
+	}
+
+	@Test
+	public void testMapSameOutputAsReplaceLoop() {
+		Map<String, String> vars = new HashMap<String, String>();
+		KeyValuePair[] values = new KeyValuePair[VALUES.length - 1];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = VALUES[i];
+			vars.put(VALUES[i].getKey(), VALUES[i].getValue());
+		}
+		for (String message : MESSAGES) {
+			assertEquals(message, replaceLoop(message, values), new MessageTemplate(message).render(vars));
+		}
+	}
+
+	@Test
+	public void testWithoutValuesReturnsMessage() {
+		String message = MESSAGES[1];
+		MessageTemplate template = new MessageTemplate(message);
+		assertSame(message, template.render());
+		assertSame(message, template.render((KeyValuePair[]) null));
+		assertSame(message, template.render(new HashMap<String, String>()));
+	}
+}